@@ -44,11 +44,14 @@ import github.nighter.smartspawner.spawner.item.SpawnerItemFactory;
 import github.nighter.smartspawner.spawner.limits.ChunkSpawnerLimiter;
 import github.nighter.smartspawner.spawner.loot.EntityLootRegistry;
 import github.nighter.smartspawner.spawner.lootgen.SpawnerRangeChecker;
+import github.nighter.smartspawner.spawner.properties.SpawnerChunkLoader;
+import github.nighter.smartspawner.spawner.properties.SpawnerHibernation;
 import github.nighter.smartspawner.spawner.properties.SpawnerManager;
 import github.nighter.smartspawner.spawner.sell.SpawnerSellManager;
 import github.nighter.smartspawner.spawner.utils.SpawnerFileHandler;
 import github.nighter.smartspawner.spawner.utils.SpawnerMobHeadTexture;
 import github.nighter.smartspawner.spawner.lootgen.SpawnerLootGenerator;
+import github.nighter.smartspawner.spawner.lootgen.SpawnerLootScheduler;
 import github.nighter.smartspawner.spawner.events.WorldEventHandler;
 import github.nighter.smartspawner.language.LanguageManager;
 import github.nighter.smartspawner.updates.ConfigUpdater;
@@ -114,7 +117,10 @@ public class SmartSpawner extends JavaPlugin implements SmartSpawnerPlugin {
     // Event handlers and utilities
     private NaturalSpawnerListener naturalSpawnerListener;
     private SpawnerLootGenerator spawnerLootGenerator;
+    private SpawnerLootScheduler spawnerLootScheduler;
     private SpawnerRangeChecker rangeChecker;
+    private SpawnerHibernation spawnerHibernation;
+    private SpawnerChunkLoader spawnerChunkLoader;
     private ChunkSpawnerLimiter chunkSpawnerLimiter;
     private SpawnerGuiViewManager spawnerGuiViewManager;
     private SpawnerExplosionListener spawnerExplosionListener;
@@ -254,8 +260,11 @@ public class SmartSpawner extends JavaPlugin implements SmartSpawnerPlugin {
         this.spawnerMenuUI = new SpawnerMenuUI(this);
         this.spawnerGuiViewManager = new SpawnerGuiViewManager(this);
         this.spawnerLootGenerator = new SpawnerLootGenerator(this);
+        this.spawnerLootScheduler = new SpawnerLootScheduler(this);
         this.spawnerSellManager = new SpawnerSellManager(this);
         this.rangeChecker = new SpawnerRangeChecker(this);
+        this.spawnerHibernation = new SpawnerHibernation(this);
+        this.spawnerChunkLoader = new SpawnerChunkLoader(this);
         
         // Initialize FormUI components only if Floodgate is available
         initializeFormUIComponents();
@@ -429,6 +438,10 @@ public class SmartSpawner extends JavaPlugin implements SmartSpawnerPlugin {
 
     private void cleanupResources() {
         if (rangeChecker != null) rangeChecker.cleanup();
+        if (spawnerLootScheduler != null) spawnerLootScheduler.cleanup();
+        if (spawnerLootGenerator != null) spawnerLootGenerator.cleanup();
+        if (spawnerHibernation != null) spawnerHibernation.cleanup();
+        if (spawnerChunkLoader != null) spawnerChunkLoader.cleanup();
         if (spawnerGuiViewManager != null) spawnerGuiViewManager.cleanup();
         if (hopperHandler != null) hopperHandler.cleanup();
         if (spawnerClickManager != null) spawnerClickManager.cleanup();
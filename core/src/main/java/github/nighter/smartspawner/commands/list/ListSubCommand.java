@@ -11,8 +11,8 @@ import github.nighter.smartspawner.commands.list.gui.worldselection.WorldSelecti
 import github.nighter.smartspawner.commands.list.gui.management.SpawnerManagementGUI;
 import github.nighter.smartspawner.language.LanguageManager;
 import github.nighter.smartspawner.language.MessageService;
-import github.nighter.smartspawner.spawner.properties.SpawnerData;
 import github.nighter.smartspawner.spawner.properties.SpawnerManager;
+import github.nighter.smartspawner.spawner.storage.SpawnerIndex;
 import github.nighter.smartspawner.spawner.utils.SpawnerMobHeadTexture;
 import io.papermc.paper.command.brigadier.CommandSourceStack;
 import org.bukkit.*;
@@ -287,26 +287,24 @@ public class ListSubCommand extends BaseSubCommand {
         }
         player.playSound(player.getLocation(), Sound.UI_BUTTON_CLICK, 1.0f, 1.0f);
 
-        // Get all spawners in the world
-        List<SpawnerData> worldSpawners = spawnerManager.getAllSpawners().stream()
-                .filter(spawner -> spawner.getSpawnerLocation().getWorld().getName().equals(worldName))
-                .collect(Collectors.toList());
+        // Get all spawners in the world, including those in unloaded chunks
+        List<SpawnerIndex.Entry> worldSpawners = spawnerManager.getSpawnerEntries(worldName);
 
         // Apply filtering
         if (filter == FilterOption.ACTIVE) {
             worldSpawners = worldSpawners.stream()
-                    .filter(spawner -> !spawner.getSpawnerStop().get())
+                    .filter(spawner -> !spawner.stopped())
                     .collect(Collectors.toList());
         } else if (filter == FilterOption.INACTIVE) {
             worldSpawners = worldSpawners.stream()
-                    .filter(spawner -> spawner.getSpawnerStop().get())
+                    .filter(SpawnerIndex.Entry::stopped)
                     .collect(Collectors.toList());
         }
 
         // Apply sorting
         switch (sortType) {
-            case STACK_SIZE_ASC -> worldSpawners.sort(Comparator.comparingInt(SpawnerData::getStackSize));
-            case STACK_SIZE_DESC -> worldSpawners.sort(Comparator.comparingInt(SpawnerData::getStackSize).reversed());
+            case STACK_SIZE_ASC -> worldSpawners.sort(Comparator.comparingInt(SpawnerIndex.Entry::stackSize));
+            case STACK_SIZE_DESC -> worldSpawners.sort(Comparator.comparingInt(SpawnerIndex.Entry::stackSize).reversed());
             default -> {} // Default sorting (by ID) - no additional sorting needed
         }
 
@@ -341,7 +339,7 @@ public class ListSubCommand extends BaseSubCommand {
 
         // Populate inventory with spawners
         for (int i = startIndex; i < endIndex; i++) {
-            SpawnerData spawner = worldSpawners.get(i);
+            SpawnerIndex.Entry spawner = worldSpawners.get(i);
             inv.addItem(createSpawnerInfoItem(spawner));
         }
 
@@ -447,9 +445,9 @@ public class ListSubCommand extends BaseSubCommand {
         return button;
     }
 
-    private ItemStack createSpawnerInfoItem(SpawnerData spawner) {
+    private ItemStack createSpawnerInfoItem(SpawnerIndex.Entry spawner) {
         // Get the custom head for the spawner's entity type
-        EntityType entityType = spawner.getEntityType();
+        EntityType entityType = parseEntityType(spawner.entityType());
         ItemStack spawnerItem;
         ItemMeta meta;
         if (entityType == null) {
@@ -463,21 +461,19 @@ public class ListSubCommand extends BaseSubCommand {
             meta = spawnerItem.getItemMeta();
             if (meta == null) return spawnerItem;
         }
-        Location loc = spawner.getSpawnerLocation();
-
         // Set display name with formatted spawner ID
         Map<String, String> placeholders = new HashMap<>();
-        placeholders.put("id", String.valueOf(spawner.getSpawnerId()));
+        placeholders.put("id", String.valueOf(spawner.id()));
         meta.setDisplayName(languageManager.getGuiItemName("spawner_item_list.name", placeholders));
 
         // Add entity type
         placeholders.put("entity", languageManager.getFormattedMobName(entityType));
 
         // Add stack size
-        placeholders.put("size", String.valueOf(spawner.getStackSize()));
+        placeholders.put("size", String.valueOf(spawner.stackSize()));
 
         // Add status
-        if (spawner.getSpawnerStop().get()) {
+        if (spawner.stopped()) {
             placeholders.put("status_color", "&#ff6b6b");
             placeholders.put("status_text", "Inactive");
         } else {
@@ -486,12 +482,12 @@ public class ListSubCommand extends BaseSubCommand {
         }
 
         // Add location
-        placeholders.put("x", String.valueOf(loc.getBlockX()));
-        placeholders.put("y", String.valueOf(loc.getBlockY()));
-        placeholders.put("z", String.valueOf(loc.getBlockZ()));
+        placeholders.put("x", String.valueOf(spawner.x()));
+        placeholders.put("y", String.valueOf(spawner.y()));
+        placeholders.put("z", String.valueOf(spawner.z()));
         
         // Add last interacted player
-        String lastPlayer = spawner.getLastInteractedPlayer();
+        String lastPlayer = spawner.lastInteractedPlayer();
         placeholders.put("last_player", lastPlayer != null ? lastPlayer : "None");
 
         // Get the lore with placeholders replaced
@@ -503,6 +499,15 @@ public class ListSubCommand extends BaseSubCommand {
         return spawnerItem;
     }
 
+    private static EntityType parseEntityType(String name) {
+        if (name == null) return null;
+        try {
+            return EntityType.valueOf(name);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
     /**
      * Opens the spawner management GUI for a specific spawner
      */
@@ -1,5 +1,6 @@
 package github.nighter.smartspawner.commands.list.gui.adminstacker;
 
+import github.nighter.smartspawner.Scheduler;
 import github.nighter.smartspawner.SmartSpawner;
 import github.nighter.smartspawner.commands.list.gui.management.SpawnerManagementGUI;
 import github.nighter.smartspawner.language.MessageService;
@@ -93,27 +94,23 @@ public class AdminStackerHandler implements Listener {
             return;
         }
 
-        int newStackSize = spawner.getStackSize() + change;
-        
-        // Ensure stack size is within valid bounds
-        if (newStackSize < 1) {
-            newStackSize = 1;
-        } else if (newStackSize > spawner.getMaxStackSize()) {
-            newStackSize = spawner.getMaxStackSize();
+        // The delta is clamped to valid bounds when applied
+        if (spawner.getStackSize() + change > spawner.getMaxStackSize()) {
             Map<String, String> placeholders = new HashMap<>(2);
-            placeholders.put("max", String.valueOf(newStackSize));
+            placeholders.put("max", String.valueOf(spawner.getMaxStackSize()));
             messageService.sendMessage(player, "spawner_stack_full", placeholders);
         }
 
-        // Update the spawner stack size
-        spawner.setStackSize(newStackSize);
+        // Update the spawner stack size, relative so it adds up with changes that are still queued
+        spawner.addStackDelta(change);
         
         // Track interaction
         spawner.updateLastInteractedPlayer(player.getName());
         player.playSound(player.getLocation(), Sound.ENTITY_EXPERIENCE_ORB_PICKUP, 1.0f, 1.0f);
 
-        // Refresh the GUI to show updated values
+        // Refresh the GUI to show updated values once the change is applied, it may have been queued
         AdminStackerUI adminStackerUI = new AdminStackerUI(plugin);
-        adminStackerUI.openAdminStackerGui(player, spawner, worldName, listPage);
+        spawner.getMailbox().execute(() -> Scheduler.runEntityTask(player,
+                () -> adminStackerUI.openAdminStackerGui(player, spawner, worldName, listPage)));
     }
 }
@@ -1,5 +1,6 @@
 package github.nighter.smartspawner.commands.list.gui.list;
 
+import github.nighter.smartspawner.Scheduler;
 import github.nighter.smartspawner.SmartSpawner;
 import github.nighter.smartspawner.commands.list.ListSubCommand;
 import github.nighter.smartspawner.commands.list.gui.list.enums.FilterOption;
@@ -23,6 +24,7 @@ import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 public class SpawnerListGUI implements Listener {
+    private final SmartSpawner plugin;
     private final LanguageManager languageManager;
     private final MessageService messageService;
     private final SpawnerManager spawnerManager;
@@ -35,6 +37,7 @@ public class SpawnerListGUI implements Listener {
     private static final String patternString = "#([A-Za-z0-9]+)";
 
     public SpawnerListGUI(SmartSpawner plugin) {
+        this.plugin = plugin;
         this.languageManager = plugin.getLanguageManager();
         this.messageService = plugin.getMessageService();
         this.spawnerManager = plugin.getSpawnerManager();
@@ -209,6 +212,17 @@ public class SpawnerListGUI implements Listener {
                 // Open the management GUI instead of directly teleporting
                 listSubCommand.openSpawnerManagementGUI(player, spawnerId, 
                     holder.getWorldName(), holder.getCurrentPage());
+            } else if (plugin.getSpawnerChunkLoader() != null && plugin.getSpawnerChunkLoader().isEnabled()) {
+                // Listed from the index while its chunk is unloaded
+                plugin.getSpawnerChunkLoader().loadSpawner(spawnerId).thenAccept(loaded ->
+                        Scheduler.runEntityTask(player, () -> {
+                            if (loaded != null) {
+                                listSubCommand.openSpawnerManagementGUI(player, spawnerId,
+                                        holder.getWorldName(), holder.getCurrentPage());
+                            } else {
+                                messageService.sendMessage(player, "spawner_not_found");
+                            }
+                        }));
             } else {
                 messageService.sendMessage(player, "spawner_not_found");
             }
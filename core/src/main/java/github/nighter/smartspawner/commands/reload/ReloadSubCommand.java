@@ -75,6 +75,9 @@ public class ReloadSubCommand extends BaseSubCommand {
             plugin.getSpawnerManager().reloadAllHolograms();
             plugin.reload();
             plugin.getChunkSpawnerLimiter().reloadConfig();
+            plugin.getSpawnerLootScheduler().loadConfig();
+            plugin.getRangeChecker().reload();
+            plugin.getSpawnerHibernation().reload();
 
             // Log new cache stats after reload if in debug mode
             if (plugin.getConfig().getBoolean("debug", false)) {
@@ -2,6 +2,7 @@ package github.nighter.smartspawner.extras;
 
 import github.nighter.smartspawner.SmartSpawner;
 import github.nighter.smartspawner.Scheduler;
+import github.nighter.smartspawner.spawner.gui.storage.StoragePageHolder;
 import github.nighter.smartspawner.spawner.gui.synchronization.SpawnerGuiViewManager;
 import github.nighter.smartspawner.language.LanguageManager;
 import github.nighter.smartspawner.spawner.properties.SpawnerManager;
@@ -22,7 +23,6 @@ import org.bukkit.inventory.ItemStack;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.locks.ReentrantLock;
 import java.util.logging.Level;
 
 public class HopperHandler implements Listener {
@@ -30,7 +30,6 @@ public class HopperHandler implements Listener {
     private final Map<Location, Scheduler.Task> activeHoppers = new ConcurrentHashMap<>();
     private final SpawnerManager spawnerManager;
     private final SpawnerGuiViewManager spawnerGuiViewManager;
-    private final Map<String, ReentrantLock> spawnerLocks = new ConcurrentHashMap<>();
 
     public HopperHandler(SmartSpawner plugin) {
         this.plugin = plugin;
@@ -113,7 +112,6 @@ public class HopperHandler implements Listener {
     public void cleanup() {
         activeHoppers.values().forEach(Scheduler.Task::cancel);
         activeHoppers.clear();
-        spawnerLocks.clear();
     }
 
     @EventHandler
@@ -134,10 +132,6 @@ public class HopperHandler implements Listener {
         }
     }
 
-    private ReentrantLock getOrCreateLock(SpawnerData spawner) {
-        return spawnerLocks.computeIfAbsent(spawner.getSpawnerId(), k -> new ReentrantLock());
-    }
-
     public void startHopperTask(Location hopperLoc, Location spawnerLoc) {
         if (!plugin.getConfig().getBoolean("hopper.enabled", false)) return;
         if (activeHoppers.containsKey(hopperLoc)) return;
@@ -191,9 +185,13 @@ public class HopperHandler implements Listener {
         SpawnerData spawner = spawnerManager.getSpawnerByLocation(spawnerLoc);
         if (spawner == null) return;
 
-        ReentrantLock lock = getOrCreateLock(spawner);
-        if (!lock.tryLock()) return; // Skip this tick if we can't get the lock
+        // Pull once the settled loot is committed, in order with loot commits and sells
+        // instead of skipping on contention
+        plugin.getSpawnerLootGenerator().settleAccruedLoot(spawner)
+                .thenRun(() -> spawner.getMailbox().execute(() -> pullItems(hopperLoc, spawner)));
+    }
 
+    private void pullItems(Location hopperLoc, SpawnerData spawner) {
         try {
             VirtualInventory virtualInv = spawner.getVirtualInventory();
             Hopper hopper = (Hopper) hopperLoc.getBlock().getState(false);
@@ -202,7 +200,8 @@ public class HopperHandler implements Listener {
             int transferred = 0;
             boolean inventoryChanged = false;
 
-            Map<Integer, ItemStack> displayItems = virtualInv.getDisplayInventory();
+            // Pull from the first storage page instead of materializing every slot
+            Map<Integer, ItemStack> displayItems = virtualInv.getDisplayPage(1, StoragePageHolder.MAX_ITEMS_PER_PAGE);
             List<ItemStack> itemsToRemove = new ArrayList<>();
 
             for (Map.Entry<Integer, ItemStack> entry : displayItems.entrySet()) {
@@ -249,8 +248,6 @@ public class HopperHandler implements Listener {
             }
         } catch (Exception e) {
             plugin.getLogger().log(Level.WARNING, "Error transferring items from spawner to hopper", e);
-        } finally {
-            lock.unlock();
         }
     }
 
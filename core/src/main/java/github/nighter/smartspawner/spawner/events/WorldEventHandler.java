@@ -13,7 +13,6 @@ import org.bukkit.event.world.WorldLoadEvent;
 import org.bukkit.event.world.WorldSaveEvent;
 import org.bukkit.event.world.WorldUnloadEvent;
 
-import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
 import java.util.HashSet;
@@ -30,8 +29,8 @@ public class WorldEventHandler implements Listener {
     // Track which worlds have been processed for spawner loading
     private final Set<String> processedWorlds = ConcurrentHashMap.newKeySet();
 
-    // Store spawner data that couldn't be loaded due to missing worlds
-    private final Map<String, PendingSpawnerData> pendingSpawners = new ConcurrentHashMap<>();
+    // Worlds with stored spawners that were not loaded yet during the initial load
+    private final Set<String> pendingWorlds = ConcurrentHashMap.newKeySet();
 
     // Flag to track if initial loading has been attempted
     private volatile boolean initialLoadAttempted = false;
@@ -116,35 +115,27 @@ public class WorldEventHandler implements Listener {
         initialLoadAttempted = true;
         plugin.debug("Attempting initial spawner load...");
 
-        // Load spawner data from file
-        Map<String, SpawnerData> allSpawnerData = plugin.getSpawnerFileHandler().loadAllSpawnersRaw();
-
         int loadedCount = 0;
-        int pendingCount = 0;
-
-        for (Map.Entry<String, SpawnerData> entry : allSpawnerData.entrySet()) {
-            String spawnerId = entry.getKey();
-            SpawnerData spawner = entry.getValue();
-
-            if (spawner != null) {
-                // Successfully loaded spawner
-                plugin.getSpawnerManager().addSpawnerToIndexes(spawnerId, spawner);
-                loadedCount++;
-            } else {
-                // Spawner couldn't be loaded, likely due to missing world
-                // Store as pending for later loading
-                PendingSpawnerData pending = loadPendingSpawnerFromFile(spawnerId);
-                if (pending != null) {
-                    pendingSpawners.put(spawnerId, pending);
-                    pendingCount++;
-                }
+
+        // Only worlds that are loaded are read, the others stay on disk until their world loads
+        for (String worldName : plugin.getSpawnerFileHandler().getStoredWorldNames()) {
+            World world = Bukkit.getWorld(worldName);
+            if (world == null) {
+                pendingWorlds.add(worldName);
+                continue;
             }
+            loadedCount += loadWorld(world);
         }
 
-        logger.info("Initial spawner load complete. Loaded: " + loadedCount +
-                   ", Pending (missing worlds): " + pendingCount);
+        if (isLazyLoading()) {
+            logger.info("Initial spawner load complete. Indexed: " + loadedCount +
+                    " (loaded with their chunks), Pending worlds (not loaded): " + pendingWorlds.size());
+        } else {
+            logger.info("Initial spawner load complete. Loaded: " + loadedCount +
+                    ", Pending worlds (not loaded): " + pendingWorlds.size());
+        }
 
-        if (pendingCount > 0) {
+        if (!pendingWorlds.isEmpty()) {
             logger.info("Pending spawners will be loaded when their worlds become available.");
         }
         
@@ -156,32 +147,18 @@ public class WorldEventHandler implements Listener {
      * Load pending spawners for a specific world that just became available
      */
     private void loadPendingSpawnersForWorld(String worldName) {
-        if (pendingSpawners.isEmpty()) {
+        if (!pendingWorlds.remove(worldName)) {
             return;
         }
 
-        int loadedCount = 0;
-
-        // Create a copy of the keys to avoid concurrent modification
-        Set<String> spawnerIds = new HashSet<>(pendingSpawners.keySet());
-
-        for (String spawnerId : spawnerIds) {
-            PendingSpawnerData pending = pendingSpawners.get(spawnerId);
-
-            if (pending != null && worldName.equals(pending.worldName)) {
-                // Try to load this spawner now that its world is available
-                SpawnerData spawner = plugin.getSpawnerFileHandler().loadSpecificSpawner(spawnerId);
-
-                if (spawner != null) {
-                    plugin.getSpawnerManager().addSpawnerToIndexes(spawnerId, spawner);
-                    pendingSpawners.remove(spawnerId);
-                    loadedCount++;
-                    plugin.debug("Loaded pending spawner " + spawnerId + " for world " + worldName);
-                }
-            }
+        World world = Bukkit.getWorld(worldName);
+        if (world == null) {
+            pendingWorlds.add(worldName);
+            return;
         }
+        int loadedCount = loadWorld(world);
 
-        if (loadedCount > 0) {
+        if (loadedCount > 0 && !isLazyLoading()) {
             logger.info("Loaded " + loadedCount + " pending spawners for world: " + worldName);
             
             // Reinitialize chunk spawner limits after loading pending spawners
@@ -189,6 +166,30 @@ public class WorldEventHandler implements Listener {
         }
     }
 
+    // Loads a world's spawners, or only those of its loaded chunks when loading lazily
+    private int loadWorld(World world) {
+        if (isLazyLoading()) {
+            return plugin.getSpawnerChunkLoader().loadLoadedChunks(world);
+        }
+        return addSpawners(plugin.getSpawnerFileHandler().loadWorldSpawners(world.getName()));
+    }
+
+    private boolean isLazyLoading() {
+        return plugin.getSpawnerChunkLoader() != null && plugin.getSpawnerChunkLoader().isEnabled();
+    }
+
+    // Indexes spawners not already known, returning how many were added
+    private int addSpawners(Map<String, SpawnerData> spawners) {
+        int added = 0;
+        for (Map.Entry<String, SpawnerData> entry : spawners.entrySet()) {
+            if (plugin.getSpawnerManager().getSpawnerById(entry.getKey()) == null) {
+                plugin.getSpawnerManager().addSpawnerToIndexes(entry.getKey(), entry.getValue());
+                added++;
+            }
+        }
+        return added;
+    }
+
     /**
      * Unload all spawners from a specific world
      */
@@ -208,25 +209,6 @@ public class WorldEventHandler implements Listener {
         }
     }
 
-    /**
-     * Load basic spawner information without creating the full SpawnerData object
-     */
-    private PendingSpawnerData loadPendingSpawnerFromFile(String spawnerId) {
-        try {
-            String locationString = plugin.getSpawnerFileHandler().getRawLocationString(spawnerId);
-            if (locationString != null) {
-                String[] locParts = locationString.split(",");
-                if (locParts.length >= 1) {
-                    return new PendingSpawnerData(spawnerId, locParts[0]);
-                }
-            }
-        } catch (Exception e) {
-            plugin.debug("Error loading pending spawner data for " + spawnerId + ": " + e.getMessage());
-        }
-
-        return null;
-    }
-
     /**
      * Check if a world is currently loaded and available
      */
@@ -235,22 +217,9 @@ public class WorldEventHandler implements Listener {
     }
 
     /**
-     * Get the count of pending spawners waiting for worlds to load
-     */
-    public int getPendingSpawnerCount() {
-        return pendingSpawners.size();
-    }
-
-    /**
-     * Simple data class to store basic spawner information for pending loading
+     * Get the number of worlds with stored spawners waiting to load
      */
-    private static class PendingSpawnerData {
-        final String spawnerId;
-        final String worldName;
-
-        PendingSpawnerData(String spawnerId, String worldName) {
-            this.spawnerId = spawnerId;
-            this.worldName = worldName;
-        }
+    public int getPendingWorldCount() {
+        return pendingWorlds.size();
     }
 }
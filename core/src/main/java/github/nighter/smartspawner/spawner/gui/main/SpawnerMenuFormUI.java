@@ -14,6 +14,7 @@ import org.geysermc.cumulus.util.FormImage;
 import org.geysermc.floodgate.api.FloodgateApi;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 
 public class SpawnerMenuFormUI {
     private static final int TICKS_PER_SECOND = 20;
@@ -76,6 +77,20 @@ public class SpawnerMenuFormUI {
     }
 
     public void openSpawnerForm(Player player, SpawnerData spawner) {
+        // Bring lazily accrued loot up to date before rendering
+        CompletableFuture<Void> settled = plugin.getSpawnerLootGenerator().settleAccruedLoot(spawner);
+        if (settled.isDone()) {
+            renderSpawnerForm(player, spawner);
+        } else {
+            settled.thenRun(() -> Scheduler.runEntityTask(player, () -> {
+                if (player.isOnline()) {
+                    renderSpawnerForm(player, spawner);
+                }
+            }));
+        }
+    }
+
+    private void renderSpawnerForm(Player player, SpawnerData spawner) {
         Map<String, String> placeholders = createPlaceholders(spawner);
 
         String title;
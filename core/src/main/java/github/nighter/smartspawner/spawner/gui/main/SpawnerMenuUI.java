@@ -1,5 +1,6 @@
 package github.nighter.smartspawner.spawner.gui.main;
 
+import github.nighter.smartspawner.Scheduler;
 import github.nighter.smartspawner.SmartSpawner;
 import github.nighter.smartspawner.spawner.gui.layout.GuiLayout;
 import github.nighter.smartspawner.spawner.gui.layout.GuiButton;
@@ -20,6 +21,7 @@ import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.meta.ItemMeta;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 
 public class SpawnerMenuUI {
     private static final int INVENTORY_SIZE = 27;
@@ -87,6 +89,20 @@ public class SpawnerMenuUI {
             }
         }
 
+        // Bring lazily accrued loot up to date before rendering
+        CompletableFuture<Void> settled = plugin.getSpawnerLootGenerator().settleAccruedLoot(spawner);
+        if (settled.isDone()) {
+            renderSpawnerMenu(player, spawner, refresh);
+        } else {
+            settled.thenRun(() -> Scheduler.runEntityTask(player, () -> {
+                if (player.isOnline()) {
+                    renderSpawnerMenu(player, spawner, refresh);
+                }
+            }));
+        }
+    }
+
+    private void renderSpawnerMenu(Player player, SpawnerData spawner, boolean refresh) {
         Inventory menu = createMenu(spawner);
         GuiLayout layout = plugin.getGuiLayoutConfig().getCurrentMainLayout();
 
@@ -158,7 +174,8 @@ public class SpawnerMenuUI {
         VirtualInventory virtualInventory = spawner.getVirtualInventory();
         int currentItems = virtualInventory.getUsedSlots();
         int maxSlots = spawner.getMaxSpawnerLootSlots();
-        String cacheKey = spawner.getSpawnerId() + "|storage|" + currentItems + "|" + maxSlots + "|" + virtualInventory.hashCode();
+        String cacheKey = spawner.getSpawnerId() + "|storage|" + currentItems + "|" + maxSlots + "|"
+                + virtualInventory.hashCode() + "|" + virtualInventory.getVersion();
         
         // Check cache first
         ItemStack cachedItem = itemCache.get(cacheKey);
@@ -304,7 +304,7 @@ public class SpawnerStackerHandler implements Listener {
         chunkSpawnerLimiter.unregisterSpawner(spawner.getSpawnerLocation(), actualChange);
 
         // Update stack size and give spawners to player
-        spawner.setStackSize(targetSize);
+        spawner.addStackDelta(-actualChange);
         giveSpawnersToPlayer(player, actualChange, spawner.getEntityType());
         
         // Log destack operation
@@ -380,7 +380,7 @@ public class SpawnerStackerHandler implements Listener {
         chunkSpawnerLimiter.registerSpawnerStack(spawner.getSpawnerLocation(), actualChange);
 
         removeValidSpawnersFromInventory(player, requiredType, actualChange, scanResult.spawnerSlots);
-        spawner.setStackSize(currentSize + actualChange);
+        spawner.addStackDelta(actualChange);
 
         // Notify if max stack reached
         if (actualChange < changeAmount) {
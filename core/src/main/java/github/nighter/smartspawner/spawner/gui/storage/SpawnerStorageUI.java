@@ -228,27 +228,14 @@ public class SpawnerStorageUI {
 
     private void addPageItems(Map<Integer, ItemStack> updates, Set<Integer> slotsToEmpty,
                               SpawnerData spawner, int page) {
-        // Get display items directly from virtual inventory
+        // Build only the slots of this page from the virtual inventory
         VirtualInventory virtualInv = spawner.getVirtualInventory();
-        Map<Integer, ItemStack> displayItems = virtualInv.getDisplayInventory();
+        Map<Integer, ItemStack> pageItems = virtualInv.getDisplayPage(page, StoragePageHolder.MAX_ITEMS_PER_PAGE);
 
-        if (displayItems.isEmpty()) {
-            return;
-        }
-
-        // Calculate start index for current page
-        int startIndex = (page - 1) * StoragePageHolder.MAX_ITEMS_PER_PAGE;
-
-        // Add items for this page
-        for (Map.Entry<Integer, ItemStack> entry : displayItems.entrySet()) {
-            int globalIndex = entry.getKey();
-
-            // Check if item belongs on this page
-            if (globalIndex >= startIndex && globalIndex < startIndex + StoragePageHolder.MAX_ITEMS_PER_PAGE) {
-                int displaySlot = globalIndex - startIndex;
-                updates.put(displaySlot, entry.getValue());
-                slotsToEmpty.remove(displaySlot);
-            }
+        for (Map.Entry<Integer, ItemStack> entry : pageItems.entrySet()) {
+            int displaySlot = entry.getKey();
+            updates.put(displaySlot, entry.getValue());
+            slotsToEmpty.remove(displaySlot);
         }
     }
 
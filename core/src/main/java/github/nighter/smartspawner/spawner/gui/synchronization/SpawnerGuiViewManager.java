@@ -1358,6 +1358,13 @@ public class SpawnerGuiViewManager implements Listener {
                         timeElapsed = currentTime - lastSpawnTime;
 
                         if (timeElapsed >= cachedDelay) {
+                            if (plugin.getSpawnerLootGenerator().isAccrualEnabled()) {
+                                // Settling claims the elapsed cycles and advances the last spawn time itself
+                                Scheduler.runLocationTask(spawner.getSpawnerLocation(), () ->
+                                        plugin.getSpawnerLootGenerator().settleAccruedLoot(spawner));
+                                return cachedDelay;
+                            }
+
                             // Update last spawn time to current time for next cycle
                             spawner.setLastSpawnTime(currentTime);
 
@@ -213,7 +213,7 @@ public class SpawnerBreakListener implements Listener {
                 if(callAPIEvent(player, location, dropAmount)) return new SpawnerBreakResult(false, dropAmount, 0);
                 // Unregister only the dropped amount
                 chunkSpawnerLimiter.unregisterSpawner(location, MAX_STACK_SIZE);
-                spawner.setStackSize(currentStackSize - MAX_STACK_SIZE);
+                spawner.addStackDelta(-MAX_STACK_SIZE);
             }
         } else {
             dropAmount = 1;
@@ -223,14 +223,15 @@ public class SpawnerBreakListener implements Listener {
             if (currentStackSize <= 1) {
                 shouldDeleteSpawner = true;
             } else {
-                spawner.setStackSize(currentStackSize - 1);
+                spawner.addStackDelta(-1);
             }
         }
 
         if (dropAmount == currentStackSize || shouldDeleteSpawner) {
             cleanupSpawner(spawnerBlock, spawner);
         } else {
-            spawnerManager.markSpawnerModified(spawner.getSpawnerId());
+            // Marked once the stack change is applied so the save sees the new size
+            spawner.getMailbox().execute(() -> spawnerManager.markSpawnerModified(spawner.getSpawnerId()));
         }
 
         boolean directToInventory = plugin.getConfig().getBoolean("spawner_break.direct_to_inventory", false);
@@ -280,7 +280,7 @@ public class SpawnerPlaceListener implements Listener {
 
         SpawnerData spawner = new SpawnerData(spawnerId, block.getLocation(), entityType, plugin);
         spawner.setSpawnerActive(true);
-        spawner.setStackSize(stackSize);
+        spawner.loadStackSize(stackSize);
         
         // Track player interaction for last interaction field
         spawner.updateLastInteractedPlayer(player.getName());
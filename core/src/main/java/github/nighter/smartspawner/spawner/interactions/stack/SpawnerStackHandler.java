@@ -193,8 +193,8 @@ public class SpawnerStackHandler {
             if (e.isCancelled()) return false;
         }
 
-        // Update spawner data
-        targetSpawner.setStackSize(newStack);
+        // Update spawner data, relative so it adds up with changes that are still queued
+        targetSpawner.addStackDelta(amountToStack);
         if (targetSpawner.getIsAtCapacity()) {
             targetSpawner.setIsAtCapacity(false);
         }
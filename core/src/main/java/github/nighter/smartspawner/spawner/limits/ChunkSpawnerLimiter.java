@@ -3,6 +3,7 @@ package github.nighter.smartspawner.spawner.limits;
 import github.nighter.smartspawner.SmartSpawner;
 import github.nighter.smartspawner.spawner.properties.SpawnerData;
 import github.nighter.smartspawner.spawner.properties.SpawnerManager;
+import github.nighter.smartspawner.spawner.storage.SpawnerIndex;
 import lombok.Getter;
 import org.bukkit.Chunk;
 import org.bukkit.Location;
@@ -39,13 +40,12 @@ public class ChunkSpawnerLimiter {
     private void initializeChunkCounts() {
         chunkSpawnerCount.clear();
 
-        for (SpawnerData spawner : spawnerManager.getAllSpawners()) {
-            Location location = spawner.getSpawnerLocation();
-            if (location != null && location.getWorld() != null) {
-                String chunkKey = getChunkKey(location);
-                int stackSize = spawner.getStackSize();
-                chunkSpawnerCount.merge(chunkKey, stackSize, Integer::sum);
-            }
+        // Counted from the index so spawners in unloaded chunks are included
+        for (SpawnerIndex.Entry entry : plugin.getSpawnerFileHandler().getIndex().getEntries()) {
+            SpawnerData spawner = spawnerManager.getSpawnerById(entry.id());
+            int stackSize = spawner != null ? spawner.getStackSize() : entry.stackSize();
+            String chunkKey = entry.worldName() + ":" + entry.chunkX() + ":" + entry.chunkZ();
+            chunkSpawnerCount.merge(chunkKey, stackSize, Integer::sum);
         }
 
         plugin.debug("Initialized chunk spawner counts for " + chunkSpawnerCount.size() + " chunks");
@@ -2,20 +2,22 @@ package github.nighter.smartspawner.spawner.loot;
 
 import lombok.Getter;
 
-import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 @Getter
 public class EntityLootConfig {
     private final int experience;
     private final List<LootItem> possibleItems;
+    private final LootTable lootTable;
 
     public EntityLootConfig(int experience, List<LootItem> items) {
         this.experience = experience;
-        this.possibleItems = items;
+        this.possibleItems = Collections.unmodifiableList(items);
+        this.lootTable = new LootTable(items);
     }
 
     public List<LootItem> getAllItems() {
         return possibleItems;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,208 @@
+package github.nighter.smartspawner.spawner.loot;
+
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.ItemMeta;
+
+import java.util.*;
+
+/**
+ * Immutable, precompiled form of an entity's loot list.
+ *
+ * Materials, prototype items, drop chances and sell prices are resolved once when the
+ * loot configuration is loaded, so the loot and sell paths only read arrays instead of
+ * building throwaway ItemStacks on every cycle.
+ */
+public final class LootTable {
+    private static final int[] NO_INDICES = new int[0];
+
+    private final LootItem[] items;
+    private final Material[] materials;
+    private final ItemStack[] prototypes;
+    // True when each drop rolls its own durability and cannot share the prototype
+    private final boolean[] randomized;
+    private final double[] chances;
+    private final double[] sellPrices;
+    private final Map<String, Double> priceCache;
+    private final View unfilteredView;
+
+    public LootTable(List<LootItem> lootItems) {
+        int size = lootItems.size();
+        this.items = new LootItem[size];
+        this.materials = new Material[size];
+        this.prototypes = new ItemStack[size];
+        this.randomized = new boolean[size];
+        this.chances = new double[size];
+        this.sellPrices = new double[size];
+
+        Map<String, Double> prices = new HashMap<>();
+        Random random = new Random();
+        int count = 0;
+
+        for (LootItem lootItem : lootItems) {
+            ItemStack prototype = lootItem.createItemStack(random);
+            if (prototype == null) continue;
+
+            items[count] = lootItem;
+            materials[count] = prototype.getType();
+            prototypes[count] = prototype;
+            randomized[count] = lootItem.getMinDurability() != null && lootItem.getMaxDurability() != null;
+            chances[count] = lootItem.getChance() / 100.0;
+            sellPrices[count] = lootItem.getSellPrice();
+
+            if (lootItem.getSellPrice() > 0.0) {
+                prices.put(createItemKey(prototype), lootItem.getSellPrice());
+            }
+            count++;
+        }
+
+        this.priceCache = Collections.unmodifiableMap(prices);
+
+        int[] allIndices = new int[count];
+        for (int i = 0; i < count; i++) {
+            allIndices[i] = i;
+        }
+        this.unfilteredView = new View(this, allIndices);
+    }
+
+    public int size() {
+        return unfilteredView.indices.length;
+    }
+
+    public LootItem getItem(int index) {
+        return items[index];
+    }
+
+    public Material getMaterial(int index) {
+        return materials[index];
+    }
+
+    public double getChance(int index) {
+        return chances[index];
+    }
+
+    public double getSellPrice(int index) {
+        return sellPrices[index];
+    }
+
+    /**
+     * Gets the prices of all sellable items keyed by {@link #createItemKey(ItemStack)}.
+     *
+     * @return An unmodifiable price map
+     */
+    public Map<String, Double> getPriceCache() {
+        return priceCache;
+    }
+
+    /**
+     * Returns the item dropped for the given entry. Entries without random durability
+     * share the compiled prototype, so the result must not be modified by the caller.
+     */
+    public ItemStack createDrop(int index, Random random) {
+        return randomized[index] ? items[index].createItemStack(random) : prototypes[index];
+    }
+
+    /**
+     * Builds the view of this table that excludes the given materials.
+     *
+     * @param filteredMaterials Materials that should not drop
+     * @return The filtered view
+     */
+    public View filter(Set<Material> filteredMaterials) {
+        if (filteredMaterials.isEmpty()) {
+            return unfilteredView;
+        }
+
+        int[] indices = new int[size()];
+        int count = 0;
+        for (int i = 0; i < indices.length; i++) {
+            if (!filteredMaterials.contains(materials[i])) {
+                indices[count++] = i;
+            }
+        }
+
+        if (count == 0) {
+            return new View(this, NO_INDICES);
+        }
+        return new View(this, count == indices.length ? indices : Arrays.copyOf(indices, count));
+    }
+
+    /**
+     * Creates a unique key for an item (same logic as SpawnerSellManager)
+     */
+    public static String createItemKey(ItemStack item) {
+        if (item == null) {
+            return "null";
+        }
+
+        StringBuilder key = new StringBuilder();
+        key.append(item.getType().name());
+
+        if (!item.hasItemMeta()) {
+            return key.toString();
+        }
+        ItemMeta meta = item.getItemMeta();
+
+        // Add enchantments if present
+        if (meta.hasEnchants()) {
+            key.append("_enchants:");
+            meta.getEnchants().entrySet().stream()
+                    .sorted(Map.Entry.comparingByKey(Comparator.comparing(enchantment -> enchantment.getKey().toString())))
+                    .forEach(entry -> key.append(entry.getKey().getKey()).append(":").append(entry.getValue()).append(","));
+        }
+
+        // Add custom model data if present
+        if (meta.hasCustomModelData()) {
+            key.append("_cmd:").append(meta.getCustomModelData());
+        }
+
+        // Add display name if present
+        if (meta.hasDisplayName()) {
+            key.append("_name:").append(meta.getDisplayName());
+        }
+
+        return key.toString();
+    }
+
+    /**
+     * Subset of a loot table that passed a spawner's item filter.
+     */
+    public static final class View {
+        private final LootTable table;
+        private final int[] indices;
+        private final List<LootItem> items;
+
+        private View(LootTable table, int[] indices) {
+            this.table = table;
+            this.indices = indices;
+            List<LootItem> list = new ArrayList<>(indices.length);
+            for (int index : indices) {
+                list.add(table.items[index]);
+            }
+            this.items = Collections.unmodifiableList(list);
+        }
+
+        public LootTable getTable() {
+            return table;
+        }
+
+        public int size() {
+            return indices.length;
+        }
+
+        public boolean isEmpty() {
+            return indices.length == 0;
+        }
+
+        /**
+         * Gets the table index of the n-th entry in this view.
+         */
+        public int indexAt(int position) {
+            return indices[position];
+        }
+
+        public List<LootItem> getItems() {
+            return items;
+        }
+    }
+}
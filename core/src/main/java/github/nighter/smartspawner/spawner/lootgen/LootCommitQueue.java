@@ -0,0 +1,172 @@
+package github.nighter.smartspawner.spawner.lootgen;
+
+import github.nighter.smartspawner.Scheduler;
+import github.nighter.smartspawner.SmartSpawner;
+import github.nighter.smartspawner.spawner.properties.SpawnerData;
+import org.bukkit.Location;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+
+/**
+ * Buffers generated loot per region and applies it with one location task per region.
+ *
+ * Spawners are grouped by 16x16-chunk sections, which assumes Folia's default region section
+ * size (a chunk shift of 4). The server does not expose it, so with a smaller section size a
+ * group can span regions; commits go through each spawner's mailbox, which queues the ones
+ * not owned by the draining region on their own region instead of touching them there.
+ */
+public class LootCommitQueue {
+    // Chunk coordinates are shifted by this amount to build the region key, Folia's default
+    private static final int REGION_SHIFT = 4;
+
+    private final SmartSpawner plugin;
+    private final Consumer<List<PendingCommit>> applier;
+    private final Map<RegionKey, RegionBatch> batches = new ConcurrentHashMap<>();
+
+    // Metrics
+    private final AtomicInteger queueDepth = new AtomicInteger();
+    private final AtomicLong committedCount = new AtomicLong();
+    private final AtomicLong batchCount = new AtomicLong();
+    private final AtomicLong totalLatencyNanos = new AtomicLong();
+    private final AtomicLong maxLatencyNanos = new AtomicLong();
+
+    public LootCommitQueue(SmartSpawner plugin, Consumer<List<PendingCommit>> applier) {
+        this.plugin = plugin;
+        this.applier = applier;
+    }
+
+    public record PendingCommit(SpawnerData spawner, LootResult loot, long spawnTime, long enqueuedAt,
+                                Runnable onComplete) {
+    }
+
+    private record RegionKey(UUID worldId, int regionX, int regionZ) {
+    }
+
+    private static final class RegionBatch {
+        private final RegionKey key;
+        private final Location anchor;
+        private final Queue<PendingCommit> queue = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean scheduled = new AtomicBoolean(false);
+
+        private RegionBatch(RegionKey key, Location anchor) {
+            this.key = key;
+            this.anchor = anchor;
+        }
+    }
+
+    /**
+     * Queues loot for the spawner's region, scheduling the region drain if none is pending.
+     *
+     * @param spawner    The spawner receiving the loot
+     * @param loot       The generated loot
+     * @param spawnTime  The spawn time to record once the loot is committed
+     * @param onComplete Optional callback run after the commit attempt, on the region thread
+     */
+    public void enqueue(SpawnerData spawner, LootResult loot, long spawnTime, Runnable onComplete) {
+        Location location = spawner.getSpawnerLocation();
+        if (location == null || location.getWorld() == null) {
+            if (onComplete != null) onComplete.run();
+            return;
+        }
+
+        RegionKey key = new RegionKey(location.getWorld().getUID(),
+                (location.getBlockX() >> 4) >> REGION_SHIFT,
+                (location.getBlockZ() >> 4) >> REGION_SHIFT);
+        RegionBatch batch = batches.computeIfAbsent(key, k -> new RegionBatch(k, location));
+
+        batch.queue.add(new PendingCommit(spawner, loot, spawnTime, System.nanoTime(), onComplete));
+        queueDepth.incrementAndGet();
+
+        if (batch.scheduled.compareAndSet(false, true)) {
+            Scheduler.runLocationTask(batch.anchor, () -> drain(batch));
+        }
+    }
+
+    private void drain(RegionBatch batch) {
+        // Reset before polling so commits queued while draining schedule a new task
+        batch.scheduled.set(false);
+
+        List<PendingCommit> commits = new ArrayList<>();
+        PendingCommit commit;
+        while ((commit = batch.queue.poll()) != null) {
+            commits.add(commit);
+        }
+        if (!commits.isEmpty()) {
+            queueDepth.addAndGet(-commits.size());
+            recordLatency(commits);
+
+            try {
+                applier.accept(commits);
+            } catch (Exception e) {
+                plugin.getLogger().log(Level.WARNING, "Error applying loot commit batch", e);
+            }
+        }
+
+        // Drop idle batches so regions that stopped producing loot are not kept forever.
+        // A producer still holding this batch schedules its own drain, so nothing is lost.
+        if (batch.queue.isEmpty() && !batch.scheduled.get()) {
+            batches.remove(batch.key, batch);
+        }
+    }
+
+    private void recordLatency(List<PendingCommit> commits) {
+        long now = System.nanoTime();
+        long batchTotal = 0;
+        long batchMax = 0;
+        for (PendingCommit commit : commits) {
+            long latency = now - commit.enqueuedAt();
+            batchTotal += latency;
+            batchMax = Math.max(batchMax, latency);
+        }
+
+        committedCount.addAndGet(commits.size());
+        batchCount.incrementAndGet();
+        totalLatencyNanos.addAndGet(batchTotal);
+        maxLatencyNanos.accumulateAndGet(batchMax, Math::max);
+    }
+
+    /**
+     * Gets the number of loot results waiting to be committed
+     */
+    public int getQueueDepth() {
+        return queueDepth.get();
+    }
+
+    public long getCommittedCount() {
+        return committedCount.get();
+    }
+
+    public long getBatchCount() {
+        return batchCount.get();
+    }
+
+    /**
+     * Gets the average time between generation and commit in milliseconds
+     */
+    public double getAverageLatencyMillis() {
+        long committed = committedCount.get();
+        return committed == 0 ? 0.0 : totalLatencyNanos.get() / 1_000_000.0 / committed;
+    }
+
+    public double getMaxLatencyMillis() {
+        return maxLatencyNanos.get() / 1_000_000.0;
+    }
+
+    public void resetMetrics() {
+        committedCount.set(0);
+        batchCount.set(0);
+        totalLatencyNanos.set(0);
+        maxLatencyNanos.set(0);
+    }
+}
@@ -0,0 +1,207 @@
+package github.nighter.smartspawner.spawner.lootgen;
+
+import java.util.Random;
+
+/**
+ * Draws aggregated loot statistics for a whole batch of mobs in constant expected time.
+ *
+ * Rolling one chance per mob is a binomial experiment, so the number of successful drops is
+ * sampled directly: inversion for small means and Hormann's BTRD (transformed rejection with
+ * decomposition) otherwise, both exact. The summed drop amount uses exact rolls for small
+ * batches and a moment-matched normal approximation for large ones.
+ */
+public final class LootSampler {
+    // Below this mean the sequential inversion search is cheaper than BTRD setup
+    private static final double INVERSION_MEAN_THRESHOLD = 10.0;
+    // Batches up to this size roll each amount individually
+    private static final int EXACT_AMOUNT_THRESHOLD = 16;
+
+    // Stirling series correction terms fc(k) = ln(k!) - ln(sqrt(2*pi)) - (k+0.5)ln(k+1) + k + 1
+    private static final double[] STIRLING_TAIL = {
+            0.08106146679532726, 0.04134069595540929, 0.02767792568499834,
+            0.02079067210376509, 0.01664469118982119, 0.01387612882307075,
+            0.01189670994589177, 0.01041126526197209, 0.009255462182712733,
+            0.008330563433362871
+    };
+
+    private LootSampler() {
+    }
+
+    /**
+     * Samples how many of the given trials succeed, equivalent to counting
+     * {@code random.nextDouble() < probability} over {@code trials} rolls.
+     *
+     * @param random      The random source
+     * @param trials      Number of independent rolls (mobs)
+     * @param probability Success probability of a single roll, clamped to [0, 1]
+     * @return The number of successful rolls
+     */
+    public static int sampleSuccesses(Random random, int trials, double probability) {
+        if (trials <= 0 || probability <= 0.0) {
+            return 0;
+        }
+        if (probability >= 1.0) {
+            return trials;
+        }
+
+        // Both algorithms expect p <= 0.5, use symmetry for the upper half
+        boolean flipped = probability > 0.5;
+        double p = flipped ? 1.0 - probability : probability;
+
+        int successes = trials * p < INVERSION_MEAN_THRESHOLD
+                ? sampleByInversion(random, trials, p)
+                : sampleByBtrd(random, trials, p);
+
+        return flipped ? trials - successes : successes;
+    }
+
+    /**
+     * Samples the sum of {@code drops} independent amounts, each uniform in [minAmount, maxAmount].
+     *
+     * @param random    The random source
+     * @param drops     Number of successful drops
+     * @param minAmount Minimum amount of a single drop
+     * @param maxAmount Maximum amount of a single drop
+     * @return The total amount across all drops
+     */
+    public static long sampleTotalAmount(Random random, int drops, int minAmount, int maxAmount) {
+        if (drops <= 0) {
+            return 0;
+        }
+
+        int width = maxAmount - minAmount + 1;
+        if (width <= 1) {
+            return (long) drops * minAmount;
+        }
+
+        if (drops <= EXACT_AMOUNT_THRESHOLD) {
+            long total = 0;
+            for (int i = 0; i < drops; i++) {
+                total += random.nextInt(width) + minAmount;
+            }
+            return total;
+        }
+
+        // Central limit: match the mean and variance of the discrete uniform sum
+        double mean = drops * (minAmount + maxAmount) / 2.0;
+        double variance = drops * ((double) width * width - 1.0) / 12.0;
+        long total = Math.round(mean + Math.sqrt(variance) * random.nextGaussian());
+
+        long min = (long) drops * minAmount;
+        long max = (long) drops * maxAmount;
+        return Math.max(min, Math.min(max, total));
+    }
+
+    private static int sampleByInversion(Random random, int n, double p) {
+        double q = 1.0 - p;
+        double s = p / q;
+        double a = (n + 1) * s;
+        double base = Math.pow(q, n);
+
+        while (true) {
+            double r = base;
+            double u = random.nextDouble();
+            int x = 0;
+            while (u > r) {
+                u -= r;
+                x++;
+                if (x > n) break; // Floating point drift, retry with a fresh uniform
+                r *= (a / x - s);
+            }
+            if (x <= n) {
+                return x;
+            }
+        }
+    }
+
+    private static int sampleByBtrd(Random random, int n, double p) {
+        double q = 1.0 - p;
+        double npq = n * p * q;
+        double spq = Math.sqrt(npq);
+        int m = (int) Math.floor((n + 1) * p);
+        double r = p / q;
+        double nr = (n + 1) * r;
+
+        double b = 1.15 + 2.53 * spq;
+        double a = -0.0873 + 0.0248 * b + 0.01 * p;
+        double c = n * p + 0.5;
+        double alpha = (2.83 + 5.1 / b) * spq;
+        double vr = 0.92 - 4.2 / b;
+        double urvr = 0.86 * vr;
+
+        while (true) {
+            double v = random.nextDouble();
+            double u;
+
+            // Fast acceptance inside the centre of the hat
+            if (v <= urvr) {
+                u = v / vr - 0.43;
+                return (int) Math.floor((2 * a / (0.5 - Math.abs(u)) + b) * u + c);
+            }
+
+            if (v >= vr) {
+                u = random.nextDouble() - 0.5;
+            } else {
+                u = v / vr - 0.93;
+                u = Math.signum(u) * 0.5 - u;
+                v = random.nextDouble() * vr;
+            }
+
+            double us = 0.5 - Math.abs(u);
+            int k = (int) Math.floor((2 * a / us + b) * u + c);
+            if (k < 0 || k > n) {
+                continue;
+            }
+
+            v = v * alpha / (a / (us * us) + b);
+            int km = Math.abs(k - m);
+
+            if (km <= 15) {
+                // Recursive evaluation of f(k) / f(m)
+                double f = 1.0;
+                if (m < k) {
+                    for (int i = m + 1; i <= k; i++) {
+                        f *= (nr / i - r);
+                    }
+                } else if (m > k) {
+                    for (int i = k + 1; i <= m; i++) {
+                        v *= (nr / i - r);
+                    }
+                }
+                if (v <= f) {
+                    return k;
+                }
+                continue;
+            }
+
+            // Squeeze using the normal approximation of log f(k) / f(m)
+            v = Math.log(v);
+            double rho = (km / npq) * (((km / 3.0 + 0.625) * km + 1.0 / 6.0) / npq + 0.5);
+            double t = -((double) km * km) / (2.0 * npq);
+            if (v < t - rho) {
+                return k;
+            }
+            if (v > t + rho) {
+                continue;
+            }
+
+            // Final acceptance test with Stirling corrections
+            double nm = n - m + 1;
+            double h = (m + 0.5) * Math.log((m + 1) / (r * nm)) + stirlingTail(m) + stirlingTail(n - m);
+            double nk = n - k + 1;
+            if (v <= h + (n + 1) * Math.log(nm / nk) + (k + 0.5) * Math.log(nk * r / (k + 1))
+                    - stirlingTail(k) - stirlingTail(n - k)) {
+                return k;
+            }
+        }
+    }
+
+    private static double stirlingTail(int k) {
+        if (k < STIRLING_TAIL.length) {
+            return STIRLING_TAIL[k];
+        }
+        double kp1 = k + 1.0;
+        double kp1sq = kp1 * kp1;
+        return (1.0 / 12 - (1.0 / 360 - 1.0 / 1260 / kp1sq) / kp1sq) / kp1;
+    }
+}
@@ -0,0 +1,194 @@
+package github.nighter.smartspawner.spawner.lootgen;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Per-world spatial hash of player positions bucketed by chunk column.
+ *
+ * Rebuilt on every range pass, so a spawner only has to look at the players in the
+ * cells its range covers instead of every online player.
+ */
+public final class PlayerGrid {
+    // 16 block cells, one chunk column each
+    static final int CELL_SHIFT = 4;
+
+    private final Map<UUID, CellTable> worlds = new HashMap<>();
+    private int size;
+
+    public void add(UUID worldUID, double x, double y, double z) {
+        worlds.computeIfAbsent(worldUID, k -> new CellTable())
+                .getOrCreate(cellKey(blockToCell(x), blockToCell(z)))
+                .add(x, y, z);
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Counts the players in the given world within {@code range} blocks of the point.
+     */
+    public int countWithin(UUID worldUID, double x, double y, double z, double range) {
+        CellTable cells = worlds.get(worldUID);
+        return cells == null ? 0 : countWithin(cells, x, y, z, range);
+    }
+
+    /**
+     * Counts nearby players for entries {@code [from, to)} of packed position columns of a
+     * single world, writing each result to {@code out} at the same index.
+     */
+    public void countWithin(UUID worldUID, int[] xs, int[] ys, int[] zs, int[] ranges,
+                            int from, int to, int[] out) {
+        CellTable cells = worlds.get(worldUID);
+        if (cells == null) {
+            Arrays.fill(out, from, to, 0);
+            return;
+        }
+        for (int i = from; i < to; i++) {
+            out[i] = countWithin(cells, xs[i], ys[i], zs[i], ranges[i]);
+        }
+    }
+
+    private static int countWithin(CellTable cells, double x, double y, double z, double range) {
+        double rangeSq = range * range;
+        int minCellX = blockToCell(x - range);
+        int maxCellX = blockToCell(x + range);
+        int minCellZ = blockToCell(z - range);
+        int maxCellZ = blockToCell(z + range);
+
+        long coveredCells = (long) (maxCellX - minCellX + 1) * (maxCellZ - minCellZ + 1);
+        if (coveredCells > cells.size) {
+            // Very large ranges cover more cells than are occupied, scan the occupied ones
+            int count = 0;
+            for (Cell cell : cells.values) {
+                if (cell != null) {
+                    count += cell.countWithin(x, y, z, rangeSq);
+                }
+            }
+            return count;
+        }
+
+        int count = 0;
+        for (int cellX = minCellX; cellX <= maxCellX; cellX++) {
+            for (int cellZ = minCellZ; cellZ <= maxCellZ; cellZ++) {
+                Cell cell = cells.get(cellKey(cellX, cellZ));
+                if (cell != null) {
+                    count += cell.countWithin(x, y, z, rangeSq);
+                }
+            }
+        }
+        return count;
+    }
+
+    static int blockToCell(double coordinate) {
+        return ((int) Math.floor(coordinate)) >> CELL_SHIFT;
+    }
+
+    static long cellKey(int cellX, int cellZ) {
+        return ((long) cellX << 32) | (cellZ & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Open addressing map from packed cell coordinates to cells, avoids boxing the keys
+     */
+    private static final class CellTable {
+        private long[] keys = new long[16];
+        private Cell[] values = new Cell[16];
+        private int size;
+
+        private Cell get(long key) {
+            int mask = keys.length - 1;
+            int slot = mix(key) & mask;
+            Cell cell;
+            while ((cell = values[slot]) != null) {
+                if (keys[slot] == key) {
+                    return cell;
+                }
+                slot = (slot + 1) & mask;
+            }
+            return null;
+        }
+
+        private Cell getOrCreate(long key) {
+            Cell existing = get(key);
+            if (existing != null) {
+                return existing;
+            }
+            if ((size + 1) * 2 > keys.length) {
+                resize();
+            }
+            Cell cell = new Cell();
+            insert(key, cell);
+            size++;
+            return cell;
+        }
+
+        private void insert(long key, Cell cell) {
+            int mask = keys.length - 1;
+            int slot = mix(key) & mask;
+            while (values[slot] != null) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = key;
+            values[slot] = cell;
+        }
+
+        private void resize() {
+            long[] oldKeys = keys;
+            Cell[] oldValues = values;
+            keys = new long[oldKeys.length * 2];
+            values = new Cell[oldValues.length * 2];
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldValues[i] != null) {
+                    insert(oldKeys[i], oldValues[i]);
+                }
+            }
+        }
+
+        private static int mix(long key) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32));
+        }
+    }
+
+    private static final class Cell {
+        // Packed x, y, z triples
+        private double[] coords = new double[6];
+        private int count;
+
+        private void add(double x, double y, double z) {
+            int offset = count * 3;
+            if (offset + 3 > coords.length) {
+                double[] grown = new double[coords.length * 2];
+                System.arraycopy(coords, 0, grown, 0, offset);
+                coords = grown;
+            }
+            coords[offset] = x;
+            coords[offset + 1] = y;
+            coords[offset + 2] = z;
+            count++;
+        }
+
+        private int countWithin(double x, double y, double z, double rangeSq) {
+            int end = count * 3;
+            int found = 0;
+            for (int i = 0; i < end; i += 3) {
+                double dx = coords[i] - x;
+                double dy = coords[i + 1] - y;
+                double dz = coords[i + 2] - z;
+                if (dx * dx + dy * dy + dz * dz <= rangeSq) {
+                    found++;
+                }
+            }
+            return found;
+        }
+    }
+}
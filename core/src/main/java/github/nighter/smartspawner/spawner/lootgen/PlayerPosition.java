@@ -0,0 +1,61 @@
+package github.nighter.smartspawner.spawner.lootgen;
+
+import github.nighter.smartspawner.spawner.properties.SpawnerData;
+import org.bukkit.GameMode;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+
+import java.util.UUID;
+
+/**
+ * Immutable snapshot of a player's position used by the range checker off the region threads.
+ *
+ * @param eligible Whether the player can keep spawners active (alive, connected, not spectating)
+ */
+public record PlayerPosition(UUID playerId, String worldName, UUID worldUID,
+                             double x, double y, double z, boolean eligible) {
+
+    public static PlayerPosition of(Player player) {
+        return of(player, player.getLocation(), isEligible(player, player.getGameMode()));
+    }
+
+    public static PlayerPosition of(Player player, Location location, boolean eligible) {
+        World world = location.getWorld();
+        return new PlayerPosition(player.getUniqueId(),
+                world != null ? world.getName() : null,
+                world != null ? world.getUID() : null,
+                location.getX(), location.getY(), location.getZ(),
+                eligible && world != null);
+    }
+
+    public static boolean isEligible(Player player, GameMode gameMode) {
+        return player.isConnected() && !player.isDead() && gameMode != GameMode.SPECTATOR;
+    }
+
+    public int chunkX() {
+        return ((int) Math.floor(x)) >> 4;
+    }
+
+    public int chunkZ() {
+        return ((int) Math.floor(z)) >> 4;
+    }
+
+    /**
+     * Checks whether this position keeps the given spawner active
+     */
+    public boolean isInRange(SpawnerData spawner) {
+        if (!eligible) return false;
+
+        Location loc = spawner.getSpawnerLocation();
+        if (loc == null || loc.getWorld() == null || !loc.getWorld().getUID().equals(worldUID)) {
+            return false;
+        }
+
+        double range = spawner.getSpawnerRange();
+        double dx = x - loc.getX();
+        double dy = y - loc.getY();
+        double dz = z - loc.getZ();
+        return dx * dx + dy * dy + dz * dz <= range * range;
+    }
+}
@@ -1,83 +1,100 @@
 package github.nighter.smartspawner.spawner.lootgen;
 
-import github.nighter.smartspawner.spawner.properties.SpawnerData;
-import lombok.Getter;
-import org.bukkit.GameMode;
-import org.bukkit.Location;
-import org.bukkit.World;
-import org.bukkit.entity.Player;
+import github.nighter.smartspawner.spawner.properties.SpawnerPositionIndex;
 
+import java.util.ArrayList;
 import java.util.List;
-import java.util.UUID;
-
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Full range pass over the packed spawner position index.
+ *
+ * Each world is split into contiguous partitions that are evaluated in parallel on a
+ * ForkJoin pool. Partitions write to disjoint slices of the result arrays, and the player
+ * grid is read-only once built, so no merging or locking is needed.
+ */
 public class RangeMath {
+    // Entries evaluated by a single leaf task
+    private static final int PARTITION_SIZE = 2048;
+
+    private final List<SpawnerPositionIndex.WorldSnapshot> worlds;
+    private final PlayerGrid playerGrid = new PlayerGrid();
+    // Nearby player counts per world, aligned with the snapshot entries
+    private final int[][] nearbyPlayerCounts;
+
+    public RangeMath(List<PlayerPosition> players, List<SpawnerPositionIndex.WorldSnapshot> worlds) {
+        this.worlds = worlds;
+        this.nearbyPlayerCounts = new int[worlds.size()][];
+        for (int w = 0; w < worlds.size(); w++) {
+            nearbyPlayerCounts[w] = new int[worlds.get(w).getSize()];
+        }
 
-    private final List<SpawnerData> spawners;
-    private final RangePlayerWrapper[] rangePlayers;
-    @Getter
-    private final boolean[] activeSpawners;
-
-    public RangeMath(List<Player> players, List<SpawnerData> spawners) {
-        this.spawners = spawners;
-        this.rangePlayers = new RangePlayerWrapper[players.size()];
-        this.activeSpawners = new boolean[spawners.size()];
-
-        for (int i = 0; i < players.size(); i++) {
-            Player p = players.get(i);
-            Location loc = p.getLocation();
-            boolean conditions = p.isConnected() && !p.isDead()
-                    && p.getGameMode() != GameMode.SPECTATOR;
+        for (PlayerPosition p : players) {
+            if (!p.eligible()) continue;
 
-            // Store data in wrapper for faster access
-            this.rangePlayers[i] = new RangePlayerWrapper(
-                    loc.getWorld() != null ? loc.getWorld().getUID() : null,
-                    loc.getX(),
-                    loc.getY(),
-                    loc.getZ(),
-                    conditions
-            );
+            // Bucket eligible players by world and chunk column for this pass
+            playerGrid.add(p.worldUID(), p.x(), p.y(), p.z());
         }
     }
 
-    public void updateActiveSpawners() {
-        boolean playerFound;
-
-        for (int i = 0; i < spawners.size(); i++) {
-            SpawnerData s = spawners.get(i);
-            final Location spawnerLoc = s.getSpawnerLocation();
-            if (spawnerLoc == null) continue;
+    /**
+     * Evaluates every world on the given pool, blocking the caller until the pass completes
+     */
+    public void updateActiveSpawners(ForkJoinPool pool) {
+        if (playerGrid.isEmpty()) {
+            return;
+        }
 
-            final World locWorld = spawnerLoc.getWorld();
-            if (locWorld == null) continue;
+        List<PartitionTask> tasks = new ArrayList<>(worlds.size());
+        for (int w = 0; w < worlds.size(); w++) {
+            tasks.add(new PartitionTask(w, 0, worlds.get(w).getSize()));
+        }
+        pool.invoke(new RecursiveAction() {
+            @Override
+            protected void compute() {
+                invokeAll(tasks);
+            }
+        });
+    }
 
-            final UUID worldUID = locWorld.getUID();
-            final double rangeSq = s.getSpawnerRange() * s.getSpawnerRange();
+    private void countPartition(int worldIndex, int from, int to) {
+        SpawnerPositionIndex.WorldSnapshot world = worlds.get(worldIndex);
+        // Linear scan of the primitive columns, only the cells covered by each range are checked
+        playerGrid.countWithin(world.getWorldUID(), world.xs(), world.ys(), world.zs(), world.ranges(),
+                from, to, nearbyPlayerCounts[worldIndex]);
+    }
 
-            playerFound = false;
+    private final class PartitionTask extends RecursiveAction {
+        private final int worldIndex;
+        private final int from;
+        private final int to;
 
-            for (RangePlayerWrapper p : rangePlayers) {
-                if (!p.spawnConditions) continue;
-                if (p.worldUID == null) continue;
-                if (!worldUID.equals(p.worldUID)) continue;
+        private PartitionTask(int worldIndex, int from, int to) {
+            this.worldIndex = worldIndex;
+            this.from = from;
+            this.to = to;
+        }
 
-                if (p.distanceSquared(spawnerLoc) <= rangeSq) {
-                    playerFound = true;
-                    break;
-                }
+        @Override
+        protected void compute() {
+            if (to - from <= PARTITION_SIZE) {
+                countPartition(worldIndex, from, to);
+                return;
             }
-
-            activeSpawners[i] = playerFound;
+            int mid = (from + to) >>> 1;
+            invokeAll(new PartitionTask(worldIndex, from, mid), new PartitionTask(worldIndex, mid, to));
         }
     }
 
-    private record RangePlayerWrapper(UUID worldUID, double x, double y, double z, boolean spawnConditions) {
-
-        double distanceSquared(Location loc2) {
-            double dx = this.x - loc2.getX();
-            double dy = this.y - loc2.getY();
-            double dz = this.z - loc2.getZ();
-            return dx * dx + dy * dy + dz * dz;
-        }
+    public List<SpawnerPositionIndex.WorldSnapshot> getWorlds() {
+        return worlds;
     }
 
+    /**
+     * Gets the nearby player counts of a world, indexed like its snapshot
+     */
+    public int[] getNearbyPlayerCounts(int worldIndex) {
+        return nearbyPlayerCounts[worldIndex];
+    }
 }
@@ -4,71 +4,113 @@ import github.nighter.smartspawner.SmartSpawner;
 import github.nighter.smartspawner.nms.ParticleWrapper;
 import github.nighter.smartspawner.spawner.gui.synchronization.SpawnerGuiViewManager;
 import github.nighter.smartspawner.spawner.properties.SpawnerData;
+import github.nighter.smartspawner.spawner.properties.SpawnerMailbox;
 import github.nighter.smartspawner.spawner.properties.SpawnerManager;
-import github.nighter.smartspawner.spawner.properties.VirtualInventory;
 import github.nighter.smartspawner.Scheduler;
 import github.nighter.smartspawner.spawner.loot.LootItem;
+import github.nighter.smartspawner.spawner.loot.LootTable;
 
+import lombok.Getter;
 import org.bukkit.*;
-import org.bukkit.entity.EntityType;
 import org.bukkit.inventory.ItemStack;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 public class SpawnerLootGenerator {
     private final SmartSpawner plugin;
     private final SpawnerGuiViewManager spawnerGuiViewManager;
     private final SpawnerManager spawnerManager;
     private final Random random;
+    @Getter
+    private final LootCommitQueue commitQueue;
+    // Upper bound of cycles settled at once, capacity clamps the result long before this
+    private static final int MAX_ACCRUED_CYCLES = 1_000_000;
+    // Read once, switching modes requires a restart
+    private final boolean accrualEnabled;
+    private static final long METRICS_INTERVAL_TICKS = 6000L;
+    private Scheduler.Task metricsTask = null;
 
     public SpawnerLootGenerator(SmartSpawner plugin) {
         this.plugin = plugin;
         this.spawnerGuiViewManager = plugin.getSpawnerGuiViewManager();
         this.spawnerManager = plugin.getSpawnerManager();
         this.random = new Random();
+        this.commitQueue = new LootCommitQueue(plugin, this::applyCommitBatch);
+        this.accrualEnabled = plugin.getConfig().getBoolean("performance.loot_accrual.enabled", false);
+        if (plugin.isDebugMode()) {
+            metricsTask = Scheduler.runTaskTimerAsync(this::logMetrics, METRICS_INTERVAL_TICKS, METRICS_INTERVAL_TICKS);
+        }
     }
 
-    public LootResult generateLoot(int minMobs, int maxMobs, SpawnerData spawner) {
+    private void logMetrics() {
+        plugin.debug(String.format("Loot commits: %d queued, %d committed in %d batches, latency avg %.2f ms, max %.2f ms",
+                commitQueue.getQueueDepth(), commitQueue.getCommittedCount(), commitQueue.getBatchCount(),
+                commitQueue.getAverageLatencyMillis(), commitQueue.getMaxLatencyMillis()));
+        commitQueue.resetMetrics();
+        plugin.debug(String.format("Spawner mailboxes: %d queued, %d applied, drain avg %.2f ms, max %.2f ms",
+                SpawnerMailbox.getGlobalQueueLength(), SpawnerMailbox.getProcessedCount(),
+                SpawnerMailbox.getAverageDrainMillis(), SpawnerMailbox.getMaxDrainMillis()));
+        SpawnerMailbox.resetMetrics();
+    }
+
+    public void cleanup() {
+        if (metricsTask != null) {
+            metricsTask.cancel();
+            metricsTask = null;
+        }
+    }
 
+    public LootResult generateLoot(int minMobs, int maxMobs, SpawnerData spawner) {
         int mobCount = random.nextInt(maxMobs - minMobs + 1) + minMobs;
-        int totalExperience = spawner.getEntityExperienceValue() * mobCount;
+        return generateLootForMobs(mobCount, spawner);
+    }
+
+    private LootResult generateLootForMobs(int mobCount, SpawnerData spawner) {
+        // Accrued mob counts can be huge, saturate instead of overflowing
+        int totalExperience = (int) Math.min((long) spawner.getEntityExperienceValue() * mobCount,
+                spawner.getMaxStoredExp());
 
-        // Get valid items from the spawner's EntityLootConfig
-        List<LootItem> validItems =  spawner.getValidLootItems();
+        // Get valid entries from the spawner's compiled loot table
+        LootTable.View validItems = spawner.getValidLootView();
 
-        if (validItems.isEmpty()) {
+        if (validItems == null || validItems.isEmpty()) {
             return new LootResult(Collections.emptyList(), totalExperience);
         }
 
+        LootTable lootTable = validItems.getTable();
+
         // Use a Map to consolidate identical drops instead of List
         Map<ItemStack, Integer> consolidatedLoot = new HashMap<>();
+        // Read without the lock, the commit clamps to the actual space; this only bounds the
+        // stacks built here. One extra stack covers a partly filled stack of the same item.
+        long slotBudget = spawner.getFreeLootSlots() + 1L;
 
         // Process mobs in batch rather than individually
-        for (LootItem lootItem : validItems) {
-            // Calculate the probability for the entire mob batch at once
-            int successfulDrops = 0;
-
-            // Calculate binomial distribution - how many mobs will drop this item
-            for (int i = 0; i < mobCount; i++) {
-                if (random.nextDouble() * 100 <= lootItem.getChance()) {
-                    successfulDrops++;
-                }
-            }
+        for (int i = 0; i < validItems.size(); i++) {
+            int index = validItems.indexAt(i);
+
+            // Draw how many mobs drop this item from the binomial distribution in one step
+            int successfulDrops = LootSampler.sampleSuccesses(random, mobCount, lootTable.getChance(index));
 
             if (successfulDrops > 0) {
-                // Create item just once per loot type
-                ItemStack prototype = lootItem.createItemStack(random);
+                // Shared prototype unless the item rolls its own durability
+                ItemStack prototype = lootTable.createDrop(index, random);
                 if (prototype != null) {
+                    LootItem lootItem = lootTable.getItem(index);
+
                     // Total amount across all mobs
-                    int totalAmount = 0;
-                    for (int i = 0; i < successfulDrops; i++) {
-                        totalAmount += lootItem.generateAmount(random);
-                    }
+                    long totalAmount = LootSampler.sampleTotalAmount(random, successfulDrops,
+                            lootItem.getMinAmount(), lootItem.getMaxAmount());
 
+                    long capacity = slotBudget * prototype.getMaxStackSize();
                     if (totalAmount > 0) {
                         // Add to consolidated map
-                        consolidatedLoot.merge(prototype, totalAmount, Integer::sum);
+                        consolidatedLoot.merge(prototype, (int) Math.min(Math.min(totalAmount, capacity), Integer.MAX_VALUE),
+                                (a, b) -> (int) Math.min((long) a + b, capacity));
                     }
                 }
             }
@@ -95,46 +137,42 @@ public class SpawnerLootGenerator {
     }
 
     public void spawnLootToSpawner(SpawnerData spawner) {
-        // Try to acquire the lock, but don't block if it's already locked
-        // This ensures we don't block the server thread while waiting for the lock
-        boolean lockAcquired = spawner.getLock().tryLock();
-        if (!lockAcquired) {
-            // Lock is already held, which means stack size change is happening
-            // Skip this loot generation cycle
+        // Only reads are made here, the spawner is mutated later through its mailbox,
+        // so a concurrent stack change or sell can no longer cost this cycle
+        long currentTime = System.currentTimeMillis();
+        long lastSpawnTime = spawner.getLastSpawnTime();
+        long spawnDelay = spawner.getSpawnDelay();
+
+        if (currentTime - lastSpawnTime < spawnDelay) {
             return;
         }
 
-        try {
-            long currentTime = System.currentTimeMillis();
-            long lastSpawnTime = spawner.getLastSpawnTime();
-            long spawnDelay = spawner.getSpawnDelay();
-
-            if (currentTime - lastSpawnTime < spawnDelay) {
-                return;
-            }
-
-            // Get exact inventory slot usage
-            AtomicInteger usedSlots = new AtomicInteger(spawner.getVirtualInventory().getUsedSlots());
-            AtomicInteger maxSlots = new AtomicInteger(spawner.getMaxSpawnerLootSlots());
-
-            // Check if both inventory and exp are full, only then skip loot generation
-            if (usedSlots.get() >= maxSlots.get() && spawner.getSpawnerExp() >= spawner.getMaxStoredExp()) {
-                if (!spawner.getIsAtCapacity()) {
-                    spawner.setIsAtCapacity(true);
-                }
-                return; // Skip generation if both exp and inventory are full
+        // Check if both inventory and exp are full, only then skip loot generation
+        if (spawner.isCompletelyFull()) {
+            if (!spawner.getIsAtCapacity()) {
+                spawner.setIsAtCapacity(true);
             }
+            return; // Skip generation if both exp and inventory are full
+        }
 
-            // Important: Store the current values we need for async processing
-            final EntityType entityType = spawner.getEntityType();
-            final int minMobs = spawner.getMinMobs();
-            final int maxMobs = spawner.getMaxMobs();
-            final String spawnerId = spawner.getSpawnerId();
-            // Store currentTime to update lastSpawnTime after successful loot addition
-            final long spawnTime = currentTime;
+        // Important: Store the current values we need for async processing
+        final int minMobs = spawner.getMinMobs();
+        final int maxMobs = spawner.getMaxMobs();
+        // Store currentTime to update lastSpawnTime after successful loot addition
+        final long spawnTime = currentTime;
+
+        // Counted before the check so a chunk unload either sees this cycle or stops it here
+        AtomicInteger inFlight = spawner.getLootInFlight();
+        inFlight.incrementAndGet();
+        if (spawnerManager.getSpawnerById(spawner.getSpawnerId()) != spawner) {
+            inFlight.decrementAndGet();
+            return;
+        }
 
-            // Run heavy calculations async and batch updates using the Scheduler
-            Scheduler.runTaskAsync(() -> {
+        // Run heavy calculations async and batch updates using the Scheduler
+        Scheduler.runTaskAsync(() -> {
+            boolean handedOff = false;
+            try {
                 // Generate loot with full mob count
                 LootResult loot = generateLoot(minMobs, maxMobs, spawner);
 
@@ -143,192 +181,211 @@ public class SpawnerLootGenerator {
                     return;
                 }
 
-                // Switch back to main thread for Bukkit API calls using location-aware scheduling
-                Scheduler.runLocationTask(spawner.getSpawnerLocation(), () -> {
-                    // Re-acquire the lock for the update phase
-                    // This ensures the spawner hasn't been modified (like stack size changes)
-                    // between our async calculations and now
-                    boolean updateLockAcquired = spawner.getLock().tryLock();
-                    if (!updateLockAcquired) {
-                        // Lock is held, stack size is changing, skip this update
-                        return;
-                    }
-
-                    try {
-                        // Modified approach: Handle items and exp separately
-                        boolean changed = false;
-
-                        // Process experience if there's any to add and not at max
-                        if (loot.getExperience() > 0 && spawner.getSpawnerExp() < spawner.getMaxStoredExp()) {
-                            int currentExp = spawner.getSpawnerExp();
-                            int maxExp = spawner.getMaxStoredExp();
-                            int newExp = Math.min(currentExp + loot.getExperience(), maxExp);
-
-                            if (newExp != currentExp) {
-                                spawner.setSpawnerExp(newExp);
-                                changed = true;
-                            }
-                        }
-
-                        // Re-check max slots as it could have changed
-                        maxSlots.set(spawner.getMaxSpawnerLootSlots());
-                        usedSlots.set(spawner.getVirtualInventory().getUsedSlots());
-
-                        // Process items if there are any to add and inventory isn't completely full
-                        if (!loot.getItems().isEmpty() && usedSlots.get() < maxSlots.get()) {
-                            List<ItemStack> itemsToAdd = new ArrayList<>(loot.getItems());
-
-                            // Get exact calculation of slots with the new items
-                            int totalRequiredSlots = calculateRequiredSlots(itemsToAdd, spawner.getVirtualInventory());
+                // Hand off to the region-batched commit stage for Bukkit API calls
+                commitQueue.enqueue(spawner, loot, spawnTime, inFlight::decrementAndGet);
+                handedOff = true;
+            } finally {
+                if (!handedOff) {
+                    inFlight.decrementAndGet();
+                }
+            }
+        });
+    }
 
-                            // If we'll exceed the limit, limit the items we're adding
-                            if (totalRequiredSlots > maxSlots.get()) {
-                                itemsToAdd = limitItemsToAvailableSlots(itemsToAdd, spawner);
-                            }
+    /**
+     * Generates every loot cycle that elapsed since the spawner last produced loot as one
+     * aggregated sample. Used when loot accrual is enabled, where active spawners are not
+     * ticked by the loot scheduler and loot is only produced when the spawner is observed.
+     *
+     * @param spawner The spawner being observed
+     * @return A future completed once the settled loot is in the inventory, on the spawner's
+     *         region thread when loot had to be generated and already complete otherwise
+     */
+    public CompletableFuture<Void> settleAccruedLoot(SpawnerData spawner) {
+        if (!accrualEnabled || spawner.getAccrualStartTime() <= 0) {
+            return CompletableFuture.completedFuture(null);
+        }
 
-                            if (!itemsToAdd.isEmpty()) {
-                                spawner.addItemsAndUpdateSellValue(itemsToAdd);
-                                changed = true;
-                            }
-                        }
+        // Only one settlement per spawner may be in flight, later observers wait for it
+        CompletableFuture<Void> settled = new CompletableFuture<>();
+        AtomicReference<CompletableFuture<Void>> settlement = spawner.getAccrualSettlement();
+        if (!settlement.compareAndSet(null, settled)) {
+            CompletableFuture<Void> inFlight = settlement.get();
+            return inFlight != null ? inFlight : CompletableFuture.completedFuture(null);
+        }
 
-                        if (!changed) {
-                            return;
-                        }
+        boolean handedOff = false;
+        try {
+            long currentTime = System.currentTimeMillis();
+            long delayMillis = spawner.getSpawnDelay() * 50L;
+            long accrualFrom = Math.max(spawner.getLastSpawnTime(), spawner.getAccrualStartTime());
+            long cycles = delayMillis > 0 ? (currentTime - accrualFrom) / delayMillis : 0;
 
-                        // Update spawn time only after successful loot addition
-                        // This prevents skipped spawns when the lock fails
-                        spawner.setLastSpawnTime(spawnTime);
+            if (cycles <= 0) {
+                return;
+            }
 
-                        // Check if spawner is now at capacity and update status if needed
-                        spawner.updateCapacityStatus();
+            // Settlements are the only source of loot in this mode, so a full spawner has
+            // been full since the previous settlement and the elapsed cycles produced nothing
+            if (spawner.isCompletelyFull()) {
+                spawner.setLastSpawnTime(accrualFrom + cycles * delayMillis);
+                if (!spawner.getIsAtCapacity()) {
+                    spawner.setIsAtCapacity(true);
+                }
+                return;
+            }
 
-                        // Handle GUI updates in batches
-                        handleGuiUpdates(spawner);
+            final int cycleCount = (int) Math.min(cycles, MAX_ACCRUED_CYCLES);
+            final int minMobs = spawner.getMinMobs();
+            final int maxMobs = spawner.getMaxMobs();
+            // Keep the partial cycle in progress for the next settlement
+            final long spawnTime = accrualFrom + cycles * delayMillis;
 
-                        // Mark for saving only once
-                        spawnerManager.markSpawnerModified(spawner.getSpawnerId());
-                    } finally {
-                        spawner.getLock().unlock();
-                    }
-                });
+            handedOff = true;
+            Scheduler.runTaskAsync(() -> {
+                try {
+                    // The summed mob count of all cycles keeps the per-item binomial exact
+                    long mobCount = LootSampler.sampleTotalAmount(random, cycleCount, minMobs, maxMobs);
+                    LootResult loot = generateLootForMobs((int) Math.min(mobCount, Integer.MAX_VALUE), spawner);
+
+                    commitQueue.enqueue(spawner, loot, spawnTime, () -> finishSettlement(spawner, settled));
+                } catch (Exception e) {
+                    finishSettlement(spawner, settled);
+                    plugin.getLogger().warning("Error settling accrued loot for spawner " + spawner.getSpawnerId() + ": " + e.getMessage());
+                }
             });
         } finally {
-            spawner.getLock().unlock();
+            if (!handedOff) {
+                settlement.set(null);
+                settled.complete(null);
+            }
         }
+        return settled;
     }
 
-    private List<ItemStack> limitItemsToAvailableSlots(List<ItemStack> items, SpawnerData spawner) {
-        VirtualInventory currentInventory = spawner.getVirtualInventory();
-        int maxSlots = spawner.getMaxSpawnerLootSlots();
+    private void finishSettlement(SpawnerData spawner, CompletableFuture<Void> settled) {
+        spawner.getAccrualSettlement().compareAndSet(settled, null);
+        // Observers continue on the region thread, outside the mailbox that committed the loot
+        Scheduler.runLocationTask(spawner.getSpawnerLocation(), () -> settled.complete(null));
+    }
 
-        // If already full, return empty list
-        if (currentInventory.getUsedSlots() >= maxSlots) {
-            return Collections.emptyList();
+    /**
+     * Settles accrued loot for every accruing spawner, used before periodic saves
+     */
+    public void settleAllAccruedLoot() {
+        if (!accrualEnabled) {
+            return;
         }
+        for (SpawnerData spawner : spawnerManager.getAllSpawners()) {
+            settleAccruedLoot(spawner);
+        }
+    }
+
+    public boolean isAccrualEnabled() {
+        return accrualEnabled;
+    }
 
-        // Create a simulation inventory
-        Map<VirtualInventory.ItemSignature, Long> simulatedInventory = new HashMap<>(currentInventory.getConsolidatedItems());
-        List<ItemStack> acceptedItems = new ArrayList<>();
-
-        // Sort items by priority (you can change this sorting strategy)
-        items.sort(Comparator.comparing(item -> item.getType().name()));
-
-        for (ItemStack item : items) {
-            if (item == null || item.getAmount() <= 0) continue;
-
-            // Add to simulation and check slot count
-            Map<VirtualInventory.ItemSignature, Long> tempSimulation = new HashMap<>(simulatedInventory);
-            VirtualInventory.ItemSignature sig = new VirtualInventory.ItemSignature(item);
-            tempSimulation.merge(sig, (long) item.getAmount(), Long::sum);
-
-            // Calculate slots needed
-            int slotsNeeded = calculateSlots(tempSimulation);
-
-            // If we still have room, accept this item
-            if (slotsNeeded <= maxSlots) {
-                acceptedItems.add(item);
-                simulatedInventory = tempSimulation; // Update simulation
-            } else {
-                // Try to accept a partial amount of this item
-                int maxStackSize = item.getMaxStackSize();
-                long currentAmount = simulatedInventory.getOrDefault(sig, 0L);
-
-                // Calculate how many we can add without exceeding slot limit
-                int remainingSlots = maxSlots - calculateSlots(simulatedInventory);
-                if (remainingSlots > 0) {
-                    // Maximum items we can add in the remaining slots
-                    long maxAddAmount = remainingSlots * maxStackSize - (currentAmount % maxStackSize);
-                    if (maxAddAmount > 0) {
-                        // Create a partial item
-                        ItemStack partialItem = item.clone();
-                        partialItem.setAmount((int) Math.min(maxAddAmount, item.getAmount()));
-                        acceptedItems.add(partialItem);
-
-                        // Update simulation
-                        simulatedInventory.merge(sig, (long) partialItem.getAmount(), Long::sum);
+    private void applyCommitBatch(List<LootCommitQueue.PendingCommit> commits) {
+        // Spawners may receive several results in one batch, refresh each of them only once
+        Set<SpawnerData> changedSpawners = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        boolean showParticles = plugin.getConfig().getBoolean("particle.spawner_generate_loot", true);
+        boolean hologramsEnabled = plugin.getConfig().getBoolean("hologram.enabled", false);
+        // Commits deferred behind other mutations refresh their spawner themselves
+        AtomicBoolean batchOpen = new AtomicBoolean(true);
+
+        for (LootCommitQueue.PendingCommit commit : commits) {
+            SpawnerData spawner = commit.spawner();
+            spawner.getMailbox().execute(() -> {
+                try {
+                    // Released with its chunk or removed since generation, its stored state
+                    // no longer belongs to this instance
+                    if (spawnerManager.getSpawnerById(spawner.getSpawnerId()) != spawner) {
+                        return;
+                    }
+                    if (commitLoot(spawner, commit.loot(), commit.spawnTime())) {
+                        if (batchOpen.get()) {
+                            changedSpawners.add(spawner);
+                        } else {
+                            handleGuiUpdates(spawner, showParticles, hologramsEnabled);
+                        }
+                    }
+                } finally {
+                    if (commit.onComplete() != null) {
+                        commit.onComplete().run();
                     }
                 }
-
-                // We've filled all slots, stop processing
-                break;
-            }
+            });
         }
+        batchOpen.set(false);
 
-        return acceptedItems;
+        for (SpawnerData spawner : changedSpawners) {
+            handleGuiUpdates(spawner, showParticles, hologramsEnabled);
+        }
     }
 
-    private int calculateSlots(Map<VirtualInventory.ItemSignature, Long> items) {
-        // Use a more efficient calculation approach
-        return items.entrySet().stream()
-                .mapToInt(entry -> {
-                    long amount = entry.getValue();
-                    int maxStackSize = entry.getKey().getTemplateRef().getMaxStackSize();
-                    // Use integer division with ceiling function
-                    return (int) ((amount + maxStackSize - 1) / maxStackSize);
-                })
-                .sum();
-    }
+    private boolean commitLoot(SpawnerData spawner, LootResult loot, long spawnTime) {
+        // Runs from the spawner's mailbox, which holds the spawner lock, so stack size
+        // changes queued before this commit have already been applied
+
+        // Modified approach: Handle items and exp separately
+        boolean changed = false;
 
-    private int calculateRequiredSlots(List<ItemStack> items, VirtualInventory inventory) {
-        // Create a temporary map to simulate how items would stack
-        Map<VirtualInventory.ItemSignature, Long> simulatedItems = new HashMap<>();
+        // Process experience if there's any to add and not at max
+        if (loot.getExperience() > 0 && spawner.getSpawnerExp() < spawner.getMaxStoredExp()) {
+            int currentExp = spawner.getSpawnerExp();
+            int maxExp = spawner.getMaxStoredExp();
+            int newExp = (int) Math.min((long) currentExp + loot.getExperience(), maxExp);
 
-        // First, get existing items if we need to account for them
-        if (inventory != null) {
-            simulatedItems.putAll(inventory.getConsolidatedItems());
+            if (newExp != currentExp) {
+                spawner.setSpawnerExp(newExp);
+                changed = true;
+            }
         }
 
-        // Add the new items to our simulation
-        for (ItemStack item : items) {
-            if (item == null || item.getAmount() <= 0) continue;
+        // Re-check max slots as it could have changed
+        int maxSlots = spawner.getMaxSpawnerLootSlots();
+        int usedSlots = spawner.getVirtualInventory().getUsedSlots();
+
+        // Process items if there are any to add and inventory isn't completely full
+        if (!loot.getItems().isEmpty() && usedSlots < maxSlots) {
+            // Stores what fits in the remaining slots, the rest of the loot is dropped
+            if (spawner.offerItemsAndUpdateSellValue(loot.getItems()) > 0) {
+                changed = true;
+            }
+        }
 
-            VirtualInventory.ItemSignature sig = new VirtualInventory.ItemSignature(item);
-            simulatedItems.merge(sig, (long) item.getAmount(), Long::sum);
+        if (!changed) {
+            return false;
         }
 
-        // Calculate exact slots needed
-        return calculateSlots(simulatedItems);
+        // Update spawn time only after successful loot addition
+        spawner.setLastSpawnTime(spawnTime);
+
+        // Check if spawner is now at capacity and update status if needed
+        spawner.updateCapacityStatus();
+
+        // Mark for saving only once
+        spawnerManager.markSpawnerModified(spawner.getSpawnerId());
+        return true;
     }
 
-    private void handleGuiUpdates(SpawnerData spawner) {
-        // Show particles if needed
-        if (plugin.getConfig().getBoolean("particle.spawner_generate_loot", true)) {
+    private void handleGuiUpdates(SpawnerData spawner, boolean showParticles, boolean hologramsEnabled) {
+        // Already on the spawner's region thread, emit particles directly
+        if (showParticles) {
             Location loc = spawner.getSpawnerLocation();
             World world = loc.getWorld();
             if (world != null) {
-                Scheduler.runLocationTask(loc, () -> {
-                    world.spawnParticle(ParticleWrapper.VILLAGER_HAPPY,
-                            loc.clone().add(0.5, 0.5, 0.5),
-                            10, 0.3, 0.3, 0.3, 0);
-                });
+                world.spawnParticle(ParticleWrapper.VILLAGER_HAPPY,
+                        loc.clone().add(0.5, 0.5, 0.5),
+                        10, 0.3, 0.3, 0.3, 0);
             }
         }
 
         spawnerGuiViewManager.updateSpawnerMenuViewers(spawner);
 
-        if (plugin.getConfig().getBoolean("hologram.enabled", false)) {
+        if (hologramsEnabled) {
             spawner.updateHologramData();
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,288 @@
+package github.nighter.smartspawner.spawner.lootgen;
+
+import github.nighter.smartspawner.Scheduler;
+import github.nighter.smartspawner.SmartSpawner;
+import github.nighter.smartspawner.spawner.properties.SpawnerData;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Drives loot generation for every active spawner from a single repeating task.
+ *
+ * Active spawners are stored in a hashed timing wheel bucketed by tick, so activating
+ * or deactivating a spawner is a constant time bucket move instead of creating and
+ * cancelling one scheduler timer per spawner. Due spawners are fired in batches and
+ * limited by a per-tick budget, spreading any backlog across the following ticks.
+ *
+ * Spawners whose storage and experience are both full are parked in a dormant set instead
+ * of being re-linked, and leave the range index too. They cost nothing until an event that
+ * frees space wakes them through {@link #wake(SpawnerData)}.
+ */
+public class SpawnerLootScheduler {
+    private static final int WHEEL_SIZE = 512; // Must be a power of two
+    private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+    private static final int DEFAULT_MAX_SPAWNERS_PER_TICK = 500;
+
+    private final SmartSpawner plugin;
+    private final SpawnerLootGenerator spawnerLootGenerator;
+    private final WheelEntry[] wheel = new WheelEntry[WHEEL_SIZE];
+    private final Map<String, WheelEntry> entries = new HashMap<>();
+    private final Map<String, SpawnerData> dormant = new HashMap<>();
+    private final ArrayDeque<WheelEntry> dueQueue = new ArrayDeque<>();
+    private final Object wheelLock = new Object();
+
+    private long currentTick = 0;
+    private int maxSpawnersPerTick;
+    private Scheduler.Task driverTask;
+
+    public SpawnerLootScheduler(SmartSpawner plugin) {
+        this.plugin = plugin;
+        this.spawnerLootGenerator = plugin.getSpawnerLootGenerator();
+        loadConfig();
+        this.driverTask = Scheduler.runTaskTimer(this::tick, 1L, 1L);
+    }
+
+    public void loadConfig() {
+        int configured = plugin.getConfig().getInt("performance.loot_scheduler.max_spawners_per_tick",
+                DEFAULT_MAX_SPAWNERS_PER_TICK);
+        this.maxSpawnersPerTick = configured > 0 ? configured : DEFAULT_MAX_SPAWNERS_PER_TICK;
+    }
+
+    private static final class WheelEntry {
+        private final SpawnerData spawner;
+        private long deadline;
+        private int slot = -1; // -1 when not linked into a wheel bucket
+        private boolean cancelled;
+        private WheelEntry prev;
+        private WheelEntry next;
+
+        private WheelEntry(SpawnerData spawner) {
+            this.spawner = spawner;
+        }
+    }
+
+    /**
+     * Schedules the spawner to generate loot once every spawn delay, starting one delay from now.
+     * Any existing schedule for the same spawner is replaced.
+     */
+    public void schedule(SpawnerData spawner) {
+        synchronized (wheelLock) {
+            if (dormant.remove(spawner.getSpawnerId()) != null) {
+                leaveDormancy(spawner);
+            }
+
+            WheelEntry existing = entries.remove(spawner.getSpawnerId());
+            if (existing != null) {
+                detach(existing);
+            }
+
+            WheelEntry entry = new WheelEntry(spawner);
+            entries.put(spawner.getSpawnerId(), entry);
+            link(entry, currentTick + Math.max(1L, spawner.getSpawnDelay()));
+        }
+    }
+
+    /**
+     * Removes the spawner from the wheel. Safe to call for spawners that are not scheduled.
+     */
+    public void unschedule(String spawnerId) {
+        synchronized (wheelLock) {
+            WheelEntry entry = entries.remove(spawnerId);
+            if (entry != null) {
+                detach(entry);
+            }
+            SpawnerData parked = dormant.remove(spawnerId);
+            if (parked != null) {
+                parked.setDormant(false);
+            }
+        }
+    }
+
+    /**
+     * Wakes a dormant spawner after space or experience was freed. It rejoins the range index
+     * and is re-evaluated against nearby players, resuming on the wheel if it is still active.
+     * Does nothing for spawners that are not dormant.
+     */
+    public void wake(SpawnerData spawner) {
+        synchronized (wheelLock) {
+            if (dormant.remove(spawner.getSpawnerId()) == null) {
+                return;
+            }
+            leaveDormancy(spawner);
+            if (!spawner.getSpawnerStop().get()) {
+                WheelEntry entry = new WheelEntry(spawner);
+                entries.put(spawner.getSpawnerId(), entry);
+                link(entry, currentTick + Math.max(1L, spawner.getSpawnDelay()));
+            }
+        }
+
+        // Player counts were not maintained while parked
+        if (plugin.getRangeChecker() != null) {
+            plugin.getRangeChecker().onSpawnerAdded(spawner);
+        }
+    }
+
+    // Called with the wheel lock held
+    private void park(WheelEntry entry) {
+        SpawnerData spawner = entry.spawner;
+        entries.remove(spawner.getSpawnerId());
+        detach(entry);
+        dormant.put(spawner.getSpawnerId(), spawner);
+        spawner.setDormant(true);
+        plugin.getSpawnerManager().getPositionIndex().remove(spawner);
+    }
+
+    // Called with the wheel lock held
+    private void leaveDormancy(SpawnerData spawner) {
+        spawner.setDormant(false);
+        plugin.getSpawnerManager().getPositionIndex().add(spawner);
+    }
+
+    public int getDormantCount() {
+        synchronized (wheelLock) {
+            return dormant.size();
+        }
+    }
+
+    public boolean isScheduled(String spawnerId) {
+        synchronized (wheelLock) {
+            return entries.containsKey(spawnerId);
+        }
+    }
+
+    /**
+     * Gets the number of spawners on the wheel, i.e. active and not dormant
+     */
+    public int getScheduledCount() {
+        synchronized (wheelLock) {
+            return entries.size();
+        }
+    }
+
+    public int getBacklogSize() {
+        synchronized (wheelLock) {
+            return dueQueue.size();
+        }
+    }
+
+    private void tick() {
+        List<WheelEntry> batch;
+
+        synchronized (wheelLock) {
+            currentTick++;
+            collectDueEntries((int) (currentTick & WHEEL_MASK));
+
+            if (dueQueue.isEmpty()) {
+                return;
+            }
+
+            batch = new ArrayList<>(Math.min(dueQueue.size(), maxSpawnersPerTick));
+            while (batch.size() < maxSpawnersPerTick && !dueQueue.isEmpty()) {
+                WheelEntry entry = dueQueue.poll();
+                if (!entry.cancelled) {
+                    batch.add(entry);
+                }
+            }
+        }
+
+        for (WheelEntry entry : batch) {
+            SpawnerData spawner = entry.spawner;
+            try {
+                if (!spawner.getSpawnerStop().get()) {
+                    spawnerLootGenerator.spawnLootToSpawner(spawner);
+                }
+            } catch (Exception e) {
+                plugin.getLogger().warning("Error generating loot for spawner " + spawner.getSpawnerId() + ": " + e.getMessage());
+            }
+        }
+
+        int parked = 0;
+        synchronized (wheelLock) {
+            for (WheelEntry entry : batch) {
+                if (entry.cancelled) continue;
+                if (entry.spawner.isCompletelyFull()) {
+                    // Nothing can be produced until something is taken out
+                    park(entry);
+                    parked++;
+                    continue;
+                }
+                // Keep the original cadence, but never schedule into the past when the budget delayed us
+                long nextDeadline = Math.max(entry.deadline + Math.max(1L, entry.spawner.getSpawnDelay()), currentTick + 1);
+                link(entry, nextDeadline);
+            }
+        }
+
+        if (parked > 0) {
+            plugin.debug("Parked " + parked + " full spawners, " + getDormantCount() + " dormant and "
+                    + getScheduledCount() + " active");
+        }
+    }
+
+    private void collectDueEntries(int slot) {
+        WheelEntry entry = wheel[slot];
+        while (entry != null) {
+            WheelEntry next = entry.next;
+            if (entry.deadline <= currentTick) {
+                unlink(entry);
+                dueQueue.add(entry);
+            }
+            entry = next;
+        }
+    }
+
+    private void link(WheelEntry entry, long deadline) {
+        int slot = (int) (deadline & WHEEL_MASK);
+        entry.deadline = deadline;
+        entry.slot = slot;
+        entry.prev = null;
+        entry.next = wheel[slot];
+        if (wheel[slot] != null) {
+            wheel[slot].prev = entry;
+        }
+        wheel[slot] = entry;
+    }
+
+    private void unlink(WheelEntry entry) {
+        if (entry.slot < 0) return;
+
+        if (entry.prev != null) {
+            entry.prev.next = entry.next;
+        } else {
+            wheel[entry.slot] = entry.next;
+        }
+        if (entry.next != null) {
+            entry.next.prev = entry.prev;
+        }
+        entry.prev = null;
+        entry.next = null;
+        entry.slot = -1;
+    }
+
+    private void detach(WheelEntry entry) {
+        // Entries already waiting in the due queue are skipped lazily when polled
+        entry.cancelled = true;
+        unlink(entry);
+    }
+
+    public void cleanup() {
+        if (driverTask != null) {
+            driverTask.cancel();
+            driverTask = null;
+        }
+
+        synchronized (wheelLock) {
+            entries.clear();
+            for (SpawnerData spawner : dormant.values()) {
+                spawner.setDormant(false);
+            }
+            dormant.clear();
+            dueQueue.clear();
+            Arrays.fill(wheel, null);
+        }
+    }
+}
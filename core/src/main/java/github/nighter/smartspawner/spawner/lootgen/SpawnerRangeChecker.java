@@ -4,71 +4,337 @@ import com.google.common.collect.ImmutableList;
 import github.nighter.smartspawner.SmartSpawner;
 import github.nighter.smartspawner.spawner.properties.SpawnerManager;
 import github.nighter.smartspawner.spawner.properties.SpawnerData;
+import github.nighter.smartspawner.spawner.properties.SpawnerPositionIndex;
 import github.nighter.smartspawner.Scheduler;
 import org.bukkit.Bukkit;
+import org.bukkit.GameMode;
 import org.bukkit.Location;
 import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.Listener;
+import org.bukkit.event.entity.PlayerDeathEvent;
+import org.bukkit.event.player.*;
 
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 
-public class SpawnerRangeChecker {
+/**
+ * Keeps spawners active while a player is in range.
+ *
+ * Players are tracked incrementally: when one moves to another block, teleports, joins,
+ * quits, changes world or game mode, or dies, only the spawners around the old and new
+ * position are re-evaluated and their nearby player counts adjusted. A slow full sweep
+ * rebuilds every count from scratch to correct anything an event missed.
+ * All tracking state is owned by a single executor thread.
+ */
+public class SpawnerRangeChecker implements Listener {
     private static final long CHECK_INTERVAL = 20L; // 1 second in ticks
     private final SmartSpawner plugin;
     private final SpawnerManager spawnerManager;
     private final SpawnerLootGenerator spawnerLootGenerator;
-    private final Map<String, Scheduler.Task> spawnerTasks;
+    private final SpawnerLootScheduler lootScheduler;
     private final ExecutorService executor;
     private final Object spawnerStateLock = new Object();
 
+    // Executor thread only: last evaluated position of every tracked player
+    private final Map<UUID, PlayerPosition> playerPositions = new HashMap<>();
+    // Largest spawner range seen, bounds the chunks searched around a player
+    private volatile int maxSpawnerRange = 16;
+    private Scheduler.Task sweepTask;
+
+    // Sweep evaluation pool, replaced on the executor thread when the parallelism changes
+    private ForkJoinPool rangePool;
+    private int rangeParallelism;
+    // Sweep timing
+    private volatile long lastSweepNanos;
+    private final AtomicLong sweepCount = new AtomicLong();
+    private final AtomicLong totalSweepNanos = new AtomicLong();
+
     public SpawnerRangeChecker(SmartSpawner plugin) {
         this.plugin = plugin;
         this.spawnerManager = plugin.getSpawnerManager();
         this.spawnerLootGenerator = plugin.getSpawnerLootGenerator();
-        this.spawnerTasks = new ConcurrentHashMap<>();
+        this.lootScheduler = plugin.getSpawnerLootScheduler();
         this.executor = Executors.newSingleThreadExecutor();
+        this.rangeParallelism = readParallelism();
+        this.rangePool = new ForkJoinPool(rangeParallelism);
+        plugin.getServer().getPluginManager().registerEvents(this, plugin);
         initializeRangeCheckTask();
     }
 
+    private int readParallelism() {
+        int configured = plugin.getConfig().getInt("performance.activation.parallelism", 0);
+        if (configured > 0) {
+            return Math.min(configured, Runtime.getRuntime().availableProcessors());
+        }
+        // Leave most cores to the server's own threads by default
+        return Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+    }
+
     private void initializeRangeCheckTask() {
+        if (sweepTask != null) {
+            sweepTask.cancel();
+        }
+        long sweepInterval = Math.max(CHECK_INTERVAL,
+                plugin.getTimeFromConfig("performance.activation.sweep_interval", "30s"));
         // Using the global scheduler, but only for coordinating region-specific checks
-        Scheduler.runTaskTimer(this::scheduleRegionSpecificCheck, CHECK_INTERVAL, CHECK_INTERVAL);
+        sweepTask = Scheduler.runTaskTimer(this::scheduleRegionSpecificCheck, CHECK_INTERVAL, sweepInterval);
+    }
+
+    /**
+     * Re-reads the sweep interval and runs a full check, used after config reloads
+     */
+    public void reload() {
+        int parallelism = readParallelism();
+        executor.execute(() -> {
+            if (parallelism != rangeParallelism) {
+                rangePool.shutdown();
+                rangePool = new ForkJoinPool(parallelism);
+                rangeParallelism = parallelism;
+            }
+        });
+        initializeRangeCheckTask();
     }
 
     private void scheduleRegionSpecificCheck() {
-        final List<SpawnerData> allSpawners = spawnerManager.getAllSpawners();
         final List<Player> onlinePlayers = ImmutableList.copyOf(Bukkit.getOnlinePlayers());
 
         this.executor.execute(() -> {
-            final RangeMath rangeCheck = new RangeMath(onlinePlayers, allSpawners);
-
-            rangeCheck.updateActiveSpawners();
-
-            final boolean[] spawnersPlayerFound = rangeCheck.getActiveSpawners();
-
-            for (int i = 0; i < spawnersPlayerFound.length; i++) {
-                final boolean shouldStop = !spawnersPlayerFound[i];
-                final SpawnerData sd = allSpawners.get(i);
-                final String spawnerId = sd.getSpawnerId();
-
-                if (sd.getSpawnerStop().get() != shouldStop) {
-                    // Only use the scheduler here
-                    Scheduler.runLocationTask(sd.getSpawnerLocation(), () -> {
-                        if (!isSpawnerValid(sd)) {
-                            // plugin.debug("Skipping state change for removed spawner: " + spawnerId);
-                            cleanupRemovedSpawner(spawnerId);
-                            return;
-                        }
-                        sd.getSpawnerStop().set(shouldStop);
-                        handleSpawnerStateChange(sd, shouldStop);
-                    });
+            final List<PlayerPosition> positions = new ArrayList<>(onlinePlayers.size());
+            for (Player player : onlinePlayers) {
+                positions.add(PlayerPosition.of(player));
+            }
+
+            // Resynchronise tracked players, quits missed by events are dropped here
+            playerPositions.clear();
+            for (PlayerPosition position : positions) {
+                playerPositions.put(position.playerId(), position);
+            }
+
+            final long start = System.nanoTime();
+            final RangeMath rangeCheck = new RangeMath(positions, spawnerManager.getPositionIndex().snapshot());
+
+            // Worlds and their partitions are evaluated on the pool, state stays on this thread
+            rangeCheck.updateActiveSpawners(rangePool);
+
+            int maxRange = 0;
+            int spawnerCount = 0;
+            final List<SpawnerData> stateChanges = new ArrayList<>();
+            final List<SpawnerPositionIndex.WorldSnapshot> worlds = rangeCheck.getWorlds();
+            for (int w = 0; w < worlds.size(); w++) {
+                final SpawnerPositionIndex.WorldSnapshot world = worlds.get(w);
+                final int[] nearbyCounts = rangeCheck.getNearbyPlayerCounts(w);
+                final int[] ranges = world.ranges();
+
+                for (int i = 0; i < world.getSize(); i++) {
+                    final SpawnerData sd = world.getSpawner(i);
+                    sd.getNearbyPlayerCount().set(nearbyCounts[i]);
+                    maxRange = Math.max(maxRange, ranges[i]);
+                    if (needsStateChange(sd)) {
+                        stateChanges.add(sd);
+                    }
+                }
+                spawnerCount += world.getSize();
+            }
+            maxSpawnerRange = maxRange;
+
+            final long elapsed = System.nanoTime() - start;
+            lastSweepNanos = elapsed;
+            sweepCount.incrementAndGet();
+            totalSweepNanos.addAndGet(elapsed);
+            plugin.debug(String.format("Range sweep: %d spawners, %d players, %d state changes in %.2f ms (%d threads)",
+                    spawnerCount, positions.size(), stateChanges.size(), elapsed / 1_000_000.0, rangeParallelism));
+
+            for (SpawnerData sd : stateChanges) {
+                dispatchStateChange(sd);
+            }
+        });
+    }
+
+    /**
+     * Evaluates a newly added or loaded spawner against the tracked players
+     */
+    public void onSpawnerAdded(SpawnerData spawner) {
+        executor.execute(() -> {
+            maxSpawnerRange = Math.max(maxSpawnerRange, Math.abs(spawner.getSpawnerRange()));
+
+            int count = 0;
+            for (PlayerPosition position : playerPositions.values()) {
+                if (position.isInRange(spawner)) {
+                    count++;
                 }
             }
+            spawner.getNearbyPlayerCount().set(count);
+            applyState(spawner);
         });
     }
 
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPlayerMove(PlayerMoveEvent event) {
+        Location from = event.getFrom();
+        Location to = event.getTo();
+        // Head rotation and movement within a block are ignored, so a tracked position is never
+        // more than a block off the exact range test; the sweep settles that remainder
+        if (from.getWorld() == to.getWorld()
+                && from.getBlockX() == to.getBlockX()
+                && from.getBlockY() == to.getBlockY()
+                && from.getBlockZ() == to.getBlockZ()) {
+            return;
+        }
+        Player player = event.getPlayer();
+        updatePlayer(PlayerPosition.of(player, to, PlayerPosition.isEligible(player, player.getGameMode())));
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPlayerTeleport(PlayerTeleportEvent event) {
+        Player player = event.getPlayer();
+        updatePlayer(PlayerPosition.of(player, event.getTo(), PlayerPosition.isEligible(player, player.getGameMode())));
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerJoin(PlayerJoinEvent event) {
+        updatePlayer(PlayerPosition.of(event.getPlayer()));
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerQuit(PlayerQuitEvent event) {
+        Player player = event.getPlayer();
+        updatePlayer(PlayerPosition.of(player, player.getLocation(), false));
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerChangedWorld(PlayerChangedWorldEvent event) {
+        updatePlayer(PlayerPosition.of(event.getPlayer()));
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPlayerGameModeChange(PlayerGameModeChangeEvent event) {
+        Player player = event.getPlayer();
+        updatePlayer(PlayerPosition.of(player, player.getLocation(),
+                PlayerPosition.isEligible(player, event.getNewGameMode())));
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerDeath(PlayerDeathEvent event) {
+        Player player = event.getEntity();
+        updatePlayer(PlayerPosition.of(player, player.getLocation(), false));
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerRespawn(PlayerRespawnEvent event) {
+        Player player = event.getPlayer();
+        // Still flagged dead while the event fires
+        updatePlayer(PlayerPosition.of(player, event.getRespawnLocation(),
+                player.isConnected() && player.getGameMode() != GameMode.SPECTATOR));
+    }
+
+    private void updatePlayer(PlayerPosition current) {
+        executor.execute(() -> {
+            PlayerPosition previous = playerPositions.get(current.playerId());
+            Set<SpawnerData> touched = Collections.newSetFromMap(new IdentityHashMap<>());
+
+            // A spawner was counted for this player exactly when it was in range of the previous position
+            if (previous != null) {
+                forEachNearbySpawner(previous, spawner -> {
+                    if (previous.isInRange(spawner)) {
+                        spawner.getNearbyPlayerCount().decrementAndGet();
+                        touched.add(spawner);
+                    }
+                });
+            }
+            forEachNearbySpawner(current, spawner -> {
+                if (current.isInRange(spawner)) {
+                    spawner.getNearbyPlayerCount().incrementAndGet();
+                    touched.add(spawner);
+                }
+            });
+
+            if (current.eligible()) {
+                playerPositions.put(current.playerId(), current);
+            } else {
+                playerPositions.remove(current.playerId());
+            }
+
+            for (SpawnerData spawner : touched) {
+                applyState(spawner);
+            }
+        });
+    }
+
+    private void forEachNearbySpawner(PlayerPosition position, Consumer<SpawnerData> action) {
+        if (!position.eligible() || position.worldName() == null) return;
+
+        int chunkRadius = (maxSpawnerRange >> 4) + 1;
+        int centerX = position.chunkX();
+        int centerZ = position.chunkZ();
+        for (int chunkX = centerX - chunkRadius; chunkX <= centerX + chunkRadius; chunkX++) {
+            for (int chunkZ = centerZ - chunkRadius; chunkZ <= centerZ + chunkRadius; chunkZ++) {
+                for (SpawnerData spawner : spawnerManager.getSpawnersInChunk(position.worldName(), chunkX, chunkZ)) {
+                    // Dormant spawners are recounted when they wake
+                    if (!spawner.isDormant()) {
+                        action.accept(spawner);
+                    }
+                }
+            }
+        }
+    }
+
+    private void applyState(SpawnerData sd) {
+        if (needsStateChange(sd)) {
+            dispatchStateChange(sd);
+        }
+    }
+
+    private boolean needsStateChange(SpawnerData sd) {
+        if (sd.isDormant()) {
+            return false;
+        }
+        // Counts can drift when a spawner range changes between sweeps, never go below zero
+        if (sd.getNearbyPlayerCount().get() < 0) {
+            sd.getNearbyPlayerCount().set(0);
+        }
+        final boolean shouldStop = sd.getNearbyPlayerCount().get() == 0;
+        return sd.getSpawnerStop().get() != shouldStop;
+    }
+
+    private void dispatchStateChange(SpawnerData sd) {
+        final String spawnerId = sd.getSpawnerId();
+
+        // Only use the scheduler here
+        Scheduler.runLocationTask(sd.getSpawnerLocation(), () -> {
+            if (!isSpawnerValid(sd)) {
+                // plugin.debug("Skipping state change for removed spawner: " + spawnerId);
+                cleanupRemovedSpawner(spawnerId);
+                return;
+            }
+            // Re-read the count, later events may have reverted the change
+            final boolean stop = sd.getNearbyPlayerCount().get() <= 0;
+            if (sd.getSpawnerStop().get() == stop) {
+                return;
+            }
+            sd.getSpawnerStop().set(stop);
+            handleSpawnerStateChange(sd, stop);
+        });
+    }
+
+    /**
+     * Gets the duration of the last full range sweep in milliseconds
+     */
+    public double getLastSweepMillis() {
+        return lastSweepNanos / 1_000_000.0;
+    }
+
+    public double getAverageSweepMillis() {
+        long sweeps = sweepCount.get();
+        return sweeps == 0 ? 0.0 : totalSweepNanos.get() / 1_000_000.0 / sweeps;
+    }
+
     private boolean isSpawnerValid(SpawnerData spawner) {
         // Check 1: Still in manager?
         SpawnerData current = spawnerManager.getSpawnerById(spawner.getSpawnerId());
@@ -87,10 +353,7 @@ public class SpawnerRangeChecker {
     }
 
     private void cleanupRemovedSpawner(String spawnerId) {
-        Scheduler.Task task = spawnerTasks.remove(spawnerId);
-        if (task != null) {
-            task.cancel();
-        }
+        lootScheduler.unschedule(spawnerId);
     }
 
     private void handleSpawnerStateChange(SpawnerData spawner, boolean shouldStop) {
@@ -114,43 +377,60 @@ public class SpawnerRangeChecker {
     }
 
     private void deactivateSpawner(SpawnerData spawner) {
+        // Cycles accrued while a player was in range still count
+        spawnerLootGenerator.settleAccruedLoot(spawner);
         stopSpawnerTask(spawner);
         //plugin.debug("Spawner " + spawner.getSpawnerId() + " deactivated - No players in range");
     }
 
     private void startSpawnerTask(SpawnerData spawner) {
-        stopSpawnerTask(spawner);
+        if (spawnerLootGenerator.isAccrualEnabled()) {
+            startAccrual(spawner);
+            return;
+        }
 
         // Set lastSpawnTime to current time to start countdown immediately
         // This ensures timer shows full delay countdown when spawner activates
         long currentTime = System.currentTimeMillis();
         spawner.setLastSpawnTime(currentTime);
 
-        Scheduler.Task task = Scheduler.runTaskTimer(() -> {
+        // Start after one delay period, the loot scheduler replaces any previous entry
+        lootScheduler.schedule(spawner);
+
+        // Immediately update any open GUIs to show the countdown
+        if (plugin.getSpawnerGuiViewManager().hasViewers(spawner)) {
+            plugin.getSpawnerGuiViewManager().updateSpawnerMenuViewers(spawner);
+        }
+    }
+
+    private void startAccrual(SpawnerData spawner) {
+        if (spawner.getAccrualStartTime() > 0) {
+            // Already accruing, activation acts as an observation
+            spawnerLootGenerator.settleAccruedLoot(spawner);
+        } else {
+            long currentTime = System.currentTimeMillis();
+            spawner.setLastSpawnTime(currentTime);
+            // Stopped spawners keep the countdown but never accrue
             if (!spawner.getSpawnerStop().get()) {
-                spawnerLootGenerator.spawnLootToSpawner(spawner);
+                spawner.setAccrualStartTime(currentTime);
             }
-        }, spawner.getSpawnDelay(), spawner.getSpawnDelay()); // Start after one delay period
-
-        spawnerTasks.put(spawner.getSpawnerId(), task);
+        }
 
-        // Immediately update any open GUIs to show the countdown
         if (plugin.getSpawnerGuiViewManager().hasViewers(spawner)) {
             plugin.getSpawnerGuiViewManager().updateSpawnerMenuViewers(spawner);
         }
     }
 
     public void stopSpawnerTask(SpawnerData spawner) {
-        Scheduler.Task task = spawnerTasks.remove(spawner.getSpawnerId());
-        if (task != null) {
-            task.cancel();
-        }
+        lootScheduler.unschedule(spawner.getSpawnerId());
+        spawner.setAccrualStartTime(0);
     }
 
     public void cleanup() {
-        spawnerTasks.values().forEach(Scheduler.Task::cancel);
-        spawnerTasks.clear();
-
+        if (sweepTask != null) {
+            sweepTask.cancel();
+        }
+        HandlerList.unregisterAll(this);
         executor.shutdown();
         try {
             if (!executor.awaitTermination(5, java.util.concurrent.TimeUnit.SECONDS)) {
@@ -160,5 +440,6 @@ public class SpawnerRangeChecker {
             executor.shutdownNow();
             Thread.currentThread().interrupt();
         }
+        rangePool.shutdownNow();
     }
 }
@@ -0,0 +1,98 @@
+package github.nighter.smartspawner.spawner.properties;
+
+import lombok.Getter;
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+
+import java.io.*;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Compressed contents of a hibernating spawner's storage. Plain items are written as material
+ * and amount, items with meta in their full serialized form, so nothing is lost on the way
+ * back. Buffers only live for the current run and are never written to disk.
+ */
+final class HibernatedInventory {
+    private static final Material[] MATERIALS = Material.values();
+
+    private final byte[] data;
+    // Kept uncompressed so holograms and capacity checks do not need to wake the inventory
+    @Getter
+    private final int usedSlots;
+    @Getter
+    private final long totalItems;
+
+    private HibernatedInventory(byte[] data, int usedSlots, long totalItems) {
+        this.data = data;
+        this.usedSlots = usedSlots;
+        this.totalItems = totalItems;
+    }
+
+    static HibernatedInventory compress(VirtualInventory inventory) {
+        VirtualInventory.Snapshot snapshot = inventory.getSnapshot();
+        Map<VirtualInventory.ItemSignature, Long> items = snapshot.getItems();
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try (DataOutputStream out = new DataOutputStream(new DeflaterOutputStream(bytes, deflater))) {
+            out.writeInt(items.size());
+            for (Map.Entry<VirtualInventory.ItemSignature, Long> entry : items.entrySet()) {
+                ItemStack template = entry.getKey().getTemplateRef();
+                if (template.hasItemMeta()) {
+                    byte[] serialized = template.serializeAsBytes();
+                    out.writeBoolean(true);
+                    out.writeInt(serialized.length);
+                    out.write(serialized);
+                } else {
+                    // Ordinals are stable for the lifetime of the buffer
+                    out.writeBoolean(false);
+                    out.writeInt(template.getType().ordinal());
+                }
+                out.writeLong(entry.getValue());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            deflater.end();
+        }
+        return new HibernatedInventory(bytes.toByteArray(), inventory.getUsedSlots(), snapshot.getTotalItems());
+    }
+
+    /**
+     * Decodes the stored items without building an inventory
+     */
+    Map<VirtualInventory.ItemSignature, Long> readItems() {
+        try (DataInputStream in = new DataInputStream(new InflaterInputStream(new ByteArrayInputStream(data)))) {
+            int count = in.readInt();
+            Map<VirtualInventory.ItemSignature, Long> items = new HashMap<>(Math.max(16, count * 2));
+            for (int i = 0; i < count; i++) {
+                ItemStack item;
+                if (in.readBoolean()) {
+                    byte[] serialized = new byte[in.readInt()];
+                    in.readFully(serialized);
+                    item = ItemStack.deserializeBytes(serialized);
+                } else {
+                    item = new ItemStack(MATERIALS[in.readInt()]);
+                }
+                items.merge(VirtualInventory.getSignature(item), in.readLong(), Long::sum);
+            }
+            return items;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    VirtualInventory restore(int maxSlots) {
+        VirtualInventory inventory = new VirtualInventory(maxSlots);
+        inventory.restoreItems(readItems());
+        return inventory;
+    }
+
+    int getCompressedSize() {
+        return data.length;
+    }
+}
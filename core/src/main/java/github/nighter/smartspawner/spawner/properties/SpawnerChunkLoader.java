@@ -0,0 +1,215 @@
+package github.nighter.smartspawner.spawner.properties;
+
+import github.nighter.smartspawner.Scheduler;
+import github.nighter.smartspawner.SmartSpawner;
+import github.nighter.smartspawner.spawner.storage.SpawnerIndex;
+import github.nighter.smartspawner.spawner.storage.SpawnerRecord;
+import github.nighter.smartspawner.spawner.utils.SpawnerFileHandler;
+import lombok.Getter;
+import org.bukkit.Bukkit;
+import org.bukkit.Chunk;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.Listener;
+import org.bukkit.event.world.ChunkLoadEvent;
+import org.bukkit.event.world.ChunkUnloadEvent;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+
+/**
+ * Keeps only the spawners of loaded chunks in memory.
+ *
+ * The spawners of a chunk are looked up in the {@link SpawnerIndex} and materialized when the
+ * chunk loads, with the storage read off the region thread. When the chunk unloads they are
+ * released: their final state is handed to the file handler for the next flush and they are
+ * dropped from the manager. Spawners in use at unload, for example with an open menu, are
+ * released by a periodic retry once they are no longer in use.
+ */
+public class SpawnerChunkLoader implements Listener {
+    private static final long RETRY_INTERVAL = 100L; // 5 seconds in ticks
+
+    private final SmartSpawner plugin;
+    private final SpawnerManager spawnerManager;
+    private final SpawnerFileHandler fileHandler;
+    @Getter
+    private final boolean enabled;
+    // Spawners whose chunk unloaded while they were in use
+    private final Set<SpawnerData> deferredReleases = ConcurrentHashMap.newKeySet();
+    private Scheduler.Task retryTask = null;
+
+    public SpawnerChunkLoader(SmartSpawner plugin) {
+        this.plugin = plugin;
+        this.spawnerManager = plugin.getSpawnerManager();
+        this.fileHandler = plugin.getSpawnerFileHandler();
+        // Switching at runtime would leave spawners loaded or missing, so this is read once
+        this.enabled = plugin.getConfig().getBoolean("performance.lazy_loading.enabled", true);
+        if (enabled) {
+            plugin.getServer().getPluginManager().registerEvents(this, plugin);
+            retryTask = Scheduler.runTaskTimerAsync(this::retryDeferredReleases, RETRY_INTERVAL, RETRY_INTERVAL);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onChunkLoad(ChunkLoadEvent event) {
+        Chunk chunk = event.getChunk();
+        loadChunk(event.getWorld(), chunk.getX(), chunk.getZ());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onChunkUnload(ChunkUnloadEvent event) {
+        Chunk chunk = event.getChunk();
+        Set<SpawnerData> spawners = spawnerManager.getSpawnersInChunk(
+                event.getWorld().getName(), chunk.getX(), chunk.getZ());
+        if (spawners.isEmpty()) return;
+
+        // Already on the chunk's region thread
+        int released = 0;
+        for (SpawnerData spawner : new ArrayList<>(spawners)) {
+            if (release(spawner)) {
+                released++;
+            } else {
+                deferredReleases.add(spawner);
+            }
+        }
+        if (released > 0) {
+            plugin.debug("Released " + released + " spawners in chunk " + chunk.getX() + "," + chunk.getZ());
+        }
+    }
+
+    // Must run on the spawner's region thread
+    private boolean release(SpawnerData spawner) {
+        // Stop producing loot before the capture; accrued cycles are settled and keep the
+        // spawner in use until their commit lands
+        plugin.getSpawnerLootGenerator().settleAccruedLoot(spawner);
+        plugin.getRangeChecker().stopSpawnerTask(spawner);
+        if (spawner.isInUse() || !fileHandler.releaseSpawner(spawner)) {
+            return false;
+        }
+        spawner.removeHologram();
+        spawnerManager.removeSpawner(spawner.getSpawnerId());
+        return true;
+    }
+
+    private void retryDeferredReleases() {
+        for (SpawnerData spawner : deferredReleases) {
+            // Removed or replaced in the meantime
+            if (spawnerManager.getSpawnerById(spawner.getSpawnerId()) != spawner) {
+                deferredReleases.remove(spawner);
+                continue;
+            }
+            Location location = spawner.getSpawnerLocation();
+            Scheduler.runLocationTask(location, () -> {
+                World world = location.getWorld();
+                if (world != null && world.isChunkLoaded(location.getBlockX() >> 4, location.getBlockZ() >> 4)) {
+                    // A reloaded chunk keeps its spawners, resume the loot stopped at unload
+                    deferredReleases.remove(spawner);
+                    if (!spawner.getSpawnerStop().get()) {
+                        plugin.getRangeChecker().activateSpawner(spawner);
+                    }
+                } else if (world == null || release(spawner)) {
+                    deferredReleases.remove(spawner);
+                }
+            });
+        }
+    }
+
+    /**
+     * Materializes the spawners of every loaded chunk in a world, used when the world becomes
+     * available since those chunks fired their load events before this listener saw them
+     *
+     * @return The number of indexed spawners in the world
+     */
+    public int loadLoadedChunks(World world) {
+        SpawnerIndex index = fileHandler.getIndex();
+        for (long key : new ArrayList<>(index.getChunkKeys(world.getName()))) {
+            int chunkX = (int) (key >> 32);
+            int chunkZ = (int) key;
+            if (world.isChunkLoaded(chunkX, chunkZ)) {
+                loadChunk(world, chunkX, chunkZ);
+            }
+        }
+        return index.countInWorld(world.getName());
+    }
+
+    private void loadChunk(World world, int chunkX, int chunkZ) {
+        List<String> ids = new ArrayList<>();
+        for (String id : fileHandler.getIndex().getIdsInChunk(world.getName(), chunkX, chunkZ)) {
+            if (spawnerManager.getSpawnerById(id) == null) {
+                ids.add(id);
+            }
+        }
+        if (ids.isEmpty()) return;
+
+        Location location = new Location(world, chunkX << 4, 0, chunkZ << 4);
+        Scheduler.runTaskAsync(() -> {
+            Map<String, SpawnerRecord> records = fileHandler.loadRecords(ids);
+            if (records.isEmpty()) return;
+            Scheduler.runLocationTask(location, () -> {
+                // The chunk may have unloaded while the records were read
+                if (!world.isChunkLoaded(chunkX, chunkZ)) return;
+                for (SpawnerRecord record : records.values()) {
+                    materialize(record);
+                }
+            });
+        });
+    }
+
+    /**
+     * Loads a spawner that is not in memory, for example one picked from the spawner list while
+     * its chunk is unloaded. It stays loaded until its chunk unloads.
+     *
+     * @return A future completed on the spawner's region thread, with null if it is not stored
+     */
+    public CompletableFuture<SpawnerData> loadSpawner(String spawnerId) {
+        SpawnerData loaded = spawnerManager.getSpawnerById(spawnerId);
+        if (loaded != null) {
+            return CompletableFuture.completedFuture(loaded);
+        }
+
+        CompletableFuture<SpawnerData> future = new CompletableFuture<>();
+        Scheduler.runTaskAsync(() -> {
+            SpawnerRecord record = fileHandler.loadRecords(Collections.singletonList(spawnerId)).get(spawnerId);
+            World world = record != null ? Bukkit.getWorld(record.worldName()) : null;
+            if (world == null) {
+                future.complete(null);
+                return;
+            }
+            Scheduler.runLocationTask(new Location(world, record.x(), record.y(), record.z()),
+                    () -> future.complete(materialize(record)));
+        });
+        return future;
+    }
+
+    // Must run on the spawner's region thread, the hologram is created with the spawner
+    private SpawnerData materialize(SpawnerRecord record) {
+        SpawnerData existing = spawnerManager.getSpawnerById(record.id());
+        if (existing != null) {
+            return existing;
+        }
+        try {
+            SpawnerData spawner = record.toSpawnerData(plugin, true);
+            if (spawner != null) {
+                spawnerManager.addSpawnerToIndexes(record.id(), spawner);
+            }
+            return spawner;
+        } catch (Exception e) {
+            plugin.getLogger().log(Level.WARNING, "Error loading spawner " + record.id(), e);
+            return null;
+        }
+    }
+
+    public void cleanup() {
+        if (retryTask != null) {
+            retryTask.cancel();
+            retryTask = null;
+        }
+        deferredReleases.clear();
+        HandlerList.unregisterAll(this);
+    }
+}
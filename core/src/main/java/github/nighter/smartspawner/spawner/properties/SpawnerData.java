@@ -5,6 +5,7 @@ import github.nighter.smartspawner.commands.hologram.SpawnerHologram;
 import github.nighter.smartspawner.spawner.loot.EntityLootConfig;
 import github.nighter.smartspawner.spawner.loot.EntityLootRegistry;
 import github.nighter.smartspawner.spawner.loot.LootItem;
+import github.nighter.smartspawner.spawner.loot.LootTable;
 import github.nighter.smartspawner.spawner.sell.SellResult;
 import lombok.Getter;
 import lombok.Setter;
@@ -14,9 +15,13 @@ import org.bukkit.entity.EntityType;
 import org.bukkit.inventory.ItemStack;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.locks.ReentrantLock;
-import java.util.stream.Collectors;
+import java.util.logging.Level;
 
 public class SpawnerData {
     @Getter
@@ -29,6 +34,9 @@ public class SpawnerData {
     private final Location spawnerLocation;
     @Getter
     private final ReentrantLock lock = new ReentrantLock();
+    // Ordered, non-blocking path for loot commits, sells, hopper pulls and stack changes
+    @Getter
+    private final SpawnerMailbox mailbox = new SpawnerMailbox(this);
 
     // Base values from config (immutable after load)
     private int baseMaxStoredExp;
@@ -44,12 +52,29 @@ public class SpawnerData {
     private Integer spawnerRange;
     @Getter
     private AtomicBoolean spawnerStop;
+    // Players currently within range, maintained by the range checker
+    @Getter
+    private final AtomicInteger nearbyPlayerCount = new AtomicInteger();
+    // Parked by the loot scheduler while storage and experience are full
+    @Getter @Setter
+    private volatile boolean dormant;
+    // Stack size changes not yet applied through the mailbox
+    private final AtomicInteger pendingStackDelta = new AtomicInteger();
     @Getter @Setter
     private Boolean isAtCapacity;
     @Getter @Setter
     private Long lastSpawnTime;
     @Getter
     private long spawnDelay;
+    // Loot accrual mode: when the spawner started accruing cycles, 0 while not accruing
+    @Getter @Setter
+    private volatile long accrualStartTime = 0;
+    // Settlement in flight, completed once its loot is committed
+    @Getter
+    private final AtomicReference<CompletableFuture<Void>> accrualSettlement = new AtomicReference<>();
+    // Loot cycles being generated or waiting in the commit queue
+    @Getter
+    private final AtomicInteger lootInFlight = new AtomicInteger();
 
     @Getter
     private EntityType entityType;
@@ -73,10 +98,18 @@ public class SpawnerData {
     @Getter @Setter
     private int maxStackSize;
 
-    @Getter @Setter
-    private VirtualInventory virtualInventory;
+    // Null while hibernating, the contents are then held compressed in hibernatedInventory
+    private volatile VirtualInventory virtualInventory;
+    private volatile HibernatedInventory hibernatedInventory;
+    private final Object hibernationLock = new Object();
+    // Last time the storage was accessed, drives the idle hibernation timeout
     @Getter
-    private final Set<Material> filteredItems = new HashSet<>();
+    private long lastAccessTime = System.currentTimeMillis();
+    // Read by async loot generation while menus edit it
+    private final Set<Material> filteredItems = ConcurrentHashMap.newKeySet();
+    // Bumped after every filter change so the cached loot view can be validated cheaply
+    private final AtomicInteger filterVersion = new AtomicInteger();
+    private volatile CachedLootView cachedLootView;
 
     private final AtomicBoolean interacted = new AtomicBoolean(false);
     @Getter @Setter
@@ -139,12 +172,14 @@ public class SpawnerData {
 
     public void recalculateAfterConfigReload() {
         calculateStackBasedValues();
-        if (virtualInventory != null && virtualInventory.getMaxSlots() != maxSpawnerLootSlots) {
-            recreateVirtualInventory();
+        VirtualInventory inventory = this.virtualInventory;
+        if (inventory != null) {
+            inventory.setMaxSlots(maxSpawnerLootSlots);
         }
         // Mark sell value as dirty after config reload since prices may have changed
         this.sellValueDirty = true;
         updateHologramData();
+        wakeIfDormant();
 
         // Invalidate GUI cache after config reload
         if (plugin.getSpawnerMenuUI() != null) {
@@ -184,15 +219,43 @@ public class SpawnerData {
         updateHologramData();
     }
 
+    /**
+     * Sets the stack size, in order with pending loot commits and sells. Applied before returning
+     * on the spawner's region thread unless the spawner is locked elsewhere, queued otherwise.
+     * Work that needs the new size should run through the mailbox after this call.
+     */
     public void setStackSize(int stackSize) {
-        lock.lock();
-        try {
-            updateStackSize(stackSize);
-        } finally {
-            lock.unlock();
+        mailbox.execute(() -> updateStackSize(stackSize));
+    }
+
+    /**
+     * Sets the stack size of a spawner that is still being built and not shared yet,
+     * so it applies immediately from any thread
+     */
+    public void loadStackSize(int stackSize) {
+        updateStackSize(stackSize);
+    }
+
+    /**
+     * Adds a relative change to the stack size. Deltas arriving before the pending change is
+     * applied are merged, so a burst of clicks resizes the spawner once. The result is clamped
+     * to between 1 and the maximum stack size.
+     *
+     * @param delta The number of spawners added, negative when removed
+     */
+    public void addStackDelta(int delta) {
+        if (delta == 0) return;
+        if (pendingStackDelta.getAndAdd(delta) == 0) {
+            mailbox.execute(this::applyPendingStackDelta);
         }
     }
 
+    private void applyPendingStackDelta() {
+        int delta = pendingStackDelta.getAndSet(0);
+        if (delta == 0) return;
+        updateStackSize(Math.max(1, Math.min(maxStackSize, stackSize + delta)));
+    }
+
     private void updateStackSize(int newStackSize) {
         if (newStackSize <= 0) {
             this.stackSize = 1;
@@ -207,13 +270,15 @@ public class SpawnerData {
         }
 
         this.stackSize = newStackSize;
-        Map<VirtualInventory.ItemSignature, Long> currentItems = virtualInventory.getConsolidatedItems();
-
         calculateStackBasedValues();
 
-        VirtualInventory newInventory = new VirtualInventory(this.maxSpawnerLootSlots);
-        transferItemsToNewInventory(currentItems, newInventory);
-        this.virtualInventory = newInventory;
+        // Only the capacity depends on the stack size, the stored items stay in place
+        // A hibernating inventory picks up the new capacity when it is restored
+        VirtualInventory inventory = this.virtualInventory;
+        if (inventory != null) {
+            inventory.setMaxSlots(this.maxSpawnerLootSlots);
+        }
+        wakeIfDormant();
 
         this.lastSpawnTime = System.currentTimeMillis();
         updateHologramData();
@@ -227,36 +292,13 @@ public class SpawnerData {
         }
     }
 
-    private void recreateVirtualInventory() {
-        if (virtualInventory == null) return;
-
-        Map<VirtualInventory.ItemSignature, Long> currentItems = virtualInventory.getConsolidatedItems();
-        VirtualInventory newInventory = new VirtualInventory(maxSpawnerLootSlots);
-        transferItemsToNewInventory(currentItems, newInventory);
-        this.virtualInventory = newInventory;
-    }
-
-    private void transferItemsToNewInventory(Map<VirtualInventory.ItemSignature, Long> items,
-                                             VirtualInventory newInventory) {
-        List<ItemStack> itemsToTransfer = new ArrayList<>();
-
-        items.forEach((signature, amount) -> {
-            ItemStack template = signature.getTemplate();
-            while (amount > 0) {
-                int batchSize = (int) Math.min(amount, Integer.MAX_VALUE);
-                ItemStack batch = template.clone();
-                batch.setAmount(batchSize);
-                itemsToTransfer.add(batch);
-                amount -= batchSize;
-            }
-        });
-
-        newInventory.addItems(itemsToTransfer);
-    }
-
     public void setSpawnerExp(int exp) {
+        int previousExp = this.spawnerExp;
         this.spawnerExp = Math.min(Math.max(0, exp), maxStoredExp);
         updateHologramData();
+        if (this.spawnerExp < previousExp) {
+            wakeIfDormant();
+        }
 
         // Invalidate GUI cache when experience changes
         if (plugin.getSpawnerMenuUI() != null) {
@@ -274,7 +316,7 @@ public class SpawnerData {
     public void updateHologramData() {
         if (hologram != null) {
             hologram.updateData(stackSize, entityType, spawnerExp, maxStoredExp,
-                    virtualInventory.getUsedSlots(), maxSpawnerLootSlots);
+                    getUsedSlots(), maxSpawnerLootSlots);
         }
     }
 
@@ -303,7 +345,7 @@ public class SpawnerData {
     }
 
     public boolean isCompletelyFull() {
-        return virtualInventory.getUsedSlots() >= maxSpawnerLootSlots && spawnerExp >= maxStoredExp;
+        return getUsedSlots() >= maxSpawnerLootSlots && spawnerExp >= maxStoredExp;
     }
 
     public boolean updateCapacityStatus() {
@@ -323,28 +365,56 @@ public class SpawnerData {
         updateHologramData();
     }
 
+    public Set<Material> getFilteredItems() {
+        return Collections.unmodifiableSet(filteredItems);
+    }
+
+    public void addFilteredItem(Material material) {
+        if (filteredItems.add(material)) {
+            filterVersion.incrementAndGet();
+        }
+    }
+
     public boolean toggleItemFilter(Material material) {
-        boolean wasFiltered = filteredItems.contains(material);
-        if (wasFiltered) {
-            filteredItems.remove(material);
-        } else {
+        boolean wasFiltered = filteredItems.remove(material);
+        if (!wasFiltered) {
             filteredItems.add(material);
         }
+        filterVersion.incrementAndGet();
         return !wasFiltered;
     }
 
     public List<LootItem> getValidLootItems() {
-        if (lootConfig == null) {
-            return Collections.emptyList();
+        LootTable.View view = getValidLootView();
+        return view != null ? view.getItems() : Collections.emptyList();
+    }
+
+    /**
+     * Gets the compiled loot entries that pass this spawner's item filter.
+     * The view is cached per loot table and filter version.
+     *
+     * @return The filtered view, or null if this entity has no loot config
+     */
+    public LootTable.View getValidLootView() {
+        EntityLootConfig config = this.lootConfig;
+        if (config == null) {
+            return null;
+        }
+
+        LootTable table = config.getLootTable();
+        // Read before the set, a view built from a newer set is only cached under an older version
+        int version = this.filterVersion.get();
+        CachedLootView cached = this.cachedLootView;
+        if (cached != null && cached.version == version && cached.view.getTable() == table) {
+            return cached.view;
         }
-        return lootConfig.getAllItems().stream()
-                .filter(this::isLootItemValid)
-                .collect(Collectors.toList());
+
+        LootTable.View view = table.filter(new HashSet<>(filteredItems));
+        this.cachedLootView = new CachedLootView(version, view);
+        return view;
     }
 
-    private boolean isLootItemValid(LootItem item) {
-        ItemStack example = item.createItemStack(new Random());
-        return example != null && !filteredItems.contains(example.getType());
+    private record CachedLootView(int version, LootTable.View view) {
     }
 
     public int getEntityExperienceValue() {
@@ -403,7 +473,7 @@ public class SpawnerData {
 
         double addedValue = 0.0;
         for (Map.Entry<VirtualInventory.ItemSignature, Long> entry : itemsAdded.entrySet()) {
-            ItemStack template = entry.getKey().getTemplate();
+            ItemStack template = entry.getKey().getTemplateRef();
             long amount = entry.getValue();
             double itemPrice = findItemPrice(template, priceCache);
             if (itemPrice > 0.0) {
@@ -429,13 +499,13 @@ public class SpawnerData {
         Map<VirtualInventory.ItemSignature, Long> consolidated = new java.util.HashMap<>();
         for (ItemStack item : itemsRemoved) {
             if (item == null || item.getAmount() <= 0) continue;
-            VirtualInventory.ItemSignature sig = new VirtualInventory.ItemSignature(item);
+            VirtualInventory.ItemSignature sig = VirtualInventory.getSignature(item);
             consolidated.merge(sig, (long) item.getAmount(), Long::sum);
         }
 
         double removedValue = 0.0;
         for (Map.Entry<VirtualInventory.ItemSignature, Long> entry : consolidated.entrySet()) {
-            ItemStack template = entry.getKey().getTemplate();
+            ItemStack template = entry.getKey().getTemplateRef();
             long amount = entry.getValue();
             double itemPrice = findItemPrice(template, priceCache);
             if (itemPrice > 0.0) {
@@ -461,11 +531,11 @@ public class SpawnerData {
         Map<String, Double> priceCache = createPriceCache();
 
         // Calculate from current inventory
-        Map<VirtualInventory.ItemSignature, Long> items = virtualInventory.getConsolidatedItems();
+        Map<VirtualInventory.ItemSignature, Long> items = getVirtualInventory().getConsolidatedItems();
         double totalValue = 0.0;
 
         for (Map.Entry<VirtualInventory.ItemSignature, Long> entry : items.entrySet()) {
-            ItemStack template = entry.getKey().getTemplate();
+            ItemStack template = entry.getKey().getTemplateRef();
             long amount = entry.getValue();
             double itemPrice = findItemPrice(template, priceCache);
             if (itemPrice > 0.0) {
@@ -482,23 +552,9 @@ public class SpawnerData {
      */
     public Map<String, Double> createPriceCache() {
         if (lootConfig == null) {
-            return new java.util.HashMap<>();
+            return Collections.emptyMap();
         }
-
-        Map<String, Double> cache = new java.util.HashMap<>();
-        java.util.List<LootItem> allLootItems = lootConfig.getAllItems();
-
-        for (LootItem lootItem : allLootItems) {
-            if (lootItem.getSellPrice() > 0.0) {
-                ItemStack template = lootItem.createItemStack(new java.util.Random());
-                if (template != null) {
-                    String key = createItemKey(template);
-                    cache.put(key, lootItem.getSellPrice());
-                }
-            }
-        }
-
-        return cache;
+        return lootConfig.getLootTable().getPriceCache();
     }
 
     /**
@@ -508,43 +564,11 @@ public class SpawnerData {
         if (item == null || priceCache == null) {
             return 0.0;
         }
-        String itemKey = createItemKey(item);
+        String itemKey = LootTable.createItemKey(item);
         Double price = priceCache.get(itemKey);
         return price != null ? price : 0.0;
     }
 
-    /**
-     * Creates a unique key for an item (same logic as SpawnerSellManager)
-     */
-    private String createItemKey(ItemStack item) {
-        if (item == null) {
-            return "null";
-        }
-
-        StringBuilder key = new StringBuilder();
-        key.append(item.getType().name());
-
-        // Add enchantments if present
-        if (item.hasItemMeta() && item.getItemMeta().hasEnchants()) {
-            key.append("_enchants:");
-            item.getItemMeta().getEnchants().entrySet().stream()
-                    .sorted(java.util.Map.Entry.comparingByKey(java.util.Comparator.comparing(enchantment -> enchantment.getKey().toString())))
-                    .forEach(entry -> key.append(entry.getKey().getKey()).append(":").append(entry.getValue()).append(","));
-        }
-
-        // Add custom model data if present
-        if (item.hasItemMeta() && item.getItemMeta().hasCustomModelData()) {
-            key.append("_cmd:").append(item.getItemMeta().getCustomModelData());
-        }
-
-        // Add display name if present
-        if (item.hasItemMeta() && item.getItemMeta().hasDisplayName()) {
-            key.append("_name:").append(item.getItemMeta().getDisplayName());
-        }
-
-        return key.toString();
-    }
-
     /**
      * Checks if sell value needs recalculation
      */
@@ -566,12 +590,13 @@ public class SpawnerData {
         Map<VirtualInventory.ItemSignature, Long> itemsToAdd = new java.util.HashMap<>();
         for (ItemStack item : items) {
             if (item == null || item.getAmount() <= 0) continue;
-            VirtualInventory.ItemSignature sig = new VirtualInventory.ItemSignature(item);
+            VirtualInventory.ItemSignature sig = VirtualInventory.getSignature(item);
             itemsToAdd.merge(sig, (long) item.getAmount(), Long::sum);
         }
 
         // Add to inventory
-        virtualInventory.addItems(items);
+        getVirtualInventory().addItems(items);
+        checkInventoryCounters();
 
         // Update sell value
         if (!sellValueDirty) {
@@ -580,6 +605,38 @@ public class SpawnerData {
         }
     }
 
+    /**
+     * Adds as many of the items as fit in the storage and updates the accumulated sell value
+     * for the admitted amounts
+     * @param items Items to offer
+     * @return The number of items stored
+     */
+    public long offerItemsAndUpdateSellValue(List<ItemStack> items) {
+        if (items == null || items.isEmpty()) {
+            return 0;
+        }
+
+        long offered = 0;
+        for (ItemStack item : items) {
+            if (item != null && item.getAmount() > 0) {
+                offered += item.getAmount();
+            }
+        }
+
+        long rejected;
+        if (sellValueDirty) {
+            rejected = getVirtualInventory().offerItems(items, null);
+        } else {
+            Map<String, Double> priceCache = createPriceCache();
+            double[] addedValue = new double[1];
+            rejected = getVirtualInventory().offerItems(items,
+                    (item, amount) -> addedValue[0] += findItemPrice(item, priceCache) * amount);
+            this.accumulatedSellValue += addedValue[0];
+        }
+        checkInventoryCounters();
+        return offered - rejected;
+    }
+
     /**
      * Removes items from virtual inventory and updates accumulated sell value
      * @param items Items to remove
@@ -591,14 +648,174 @@ public class SpawnerData {
         }
 
         // Remove from inventory
-        boolean removed = virtualInventory.removeItems(items);
+        boolean removed = getVirtualInventory().removeItems(items);
+        checkInventoryCounters();
 
         // Update sell value if removal was successful
         if (removed && !sellValueDirty) {
             Map<String, Double> priceCache = createPriceCache();
             decrementSellValue(items, priceCache);
         }
+        if (removed) {
+            wakeIfDormant();
+        }
 
         return removed;
     }
+
+    /**
+     * Gets the spawner's storage, restoring it first if the spawner is hibernating
+     */
+    public VirtualInventory getVirtualInventory() {
+        lastAccessTime = System.currentTimeMillis();
+        VirtualInventory inventory = this.virtualInventory;
+        return inventory != null ? inventory : rehydrate();
+    }
+
+    public void setVirtualInventory(VirtualInventory virtualInventory) {
+        synchronized (hibernationLock) {
+            this.virtualInventory = virtualInventory;
+            this.hibernatedInventory = null;
+        }
+    }
+
+    /**
+     * Gets the stored items without waking a hibernating spawner, used when saving
+     */
+    public Map<VirtualInventory.ItemSignature, Long> getStoredItems() {
+        synchronized (hibernationLock) {
+            VirtualInventory inventory = this.virtualInventory;
+            if (inventory != null) {
+                return inventory.getConsolidatedItems();
+            }
+            HibernatedInventory hibernated = this.hibernatedInventory;
+            return hibernated != null ? hibernated.readItems() : Collections.emptyMap();
+        }
+    }
+
+    /**
+     * Gets the number of empty loot slots without waking a hibernating spawner
+     */
+    public int getFreeLootSlots() {
+        return Math.max(0, maxSpawnerLootSlots - getUsedSlots());
+    }
+
+    private int getUsedSlots() {
+        VirtualInventory inventory = this.virtualInventory;
+        if (inventory != null) {
+            return inventory.getUsedSlots();
+        }
+        HibernatedInventory hibernated = this.hibernatedInventory;
+        if (hibernated != null) {
+            return Math.min(hibernated.getUsedSlots(), maxSpawnerLootSlots);
+        }
+        return getVirtualInventory().getUsedSlots();
+    }
+
+    /**
+     * Compresses the storage and releases the live inventory along with other cached state.
+     * Refused while the spawner is in use: locked, viewed, with queued changes, pending loot
+     * or an unprocessed sell.
+     *
+     * @return true if the spawner is hibernating afterwards
+     */
+    public boolean hibernate() {
+        if (!lock.tryLock()) {
+            return false;
+        }
+        try {
+            synchronized (hibernationLock) {
+                VirtualInventory inventory = this.virtualInventory;
+                if (inventory == null) {
+                    return hibernatedInventory != null;
+                }
+                if (isInUse()) {
+                    return false;
+                }
+
+                this.hibernatedInventory = HibernatedInventory.compress(inventory);
+                this.virtualInventory = null;
+                this.lastSellResult = null;
+                this.cachedLootView = null;
+                return true;
+            }
+        } catch (RuntimeException e) {
+            plugin.getLogger().log(Level.WARNING, "Failed to hibernate storage of spawner " + spawnerId, e);
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Whether the spawner has queued changes, loot being generated or committed, an unprocessed
+     * sell or open menus, in which case it must stay in memory as it is
+     */
+    public boolean isInUse() {
+        if (mailbox.getQueueLength() > 0 || accrualSettlement.get() != null || lootInFlight.get() > 0
+                || (lastSellResult != null && !lastSellProcessed)) {
+            return true;
+        }
+        return plugin.getSpawnerGuiViewManager() != null
+                && plugin.getSpawnerGuiViewManager().hasViewers(this);
+    }
+
+    private VirtualInventory rehydrate() {
+        synchronized (hibernationLock) {
+            VirtualInventory inventory = this.virtualInventory;
+            if (inventory != null) {
+                return inventory;
+            }
+
+            HibernatedInventory hibernated = this.hibernatedInventory;
+            try {
+                inventory = hibernated != null
+                        ? hibernated.restore(maxSpawnerLootSlots)
+                        : new VirtualInventory(maxSpawnerLootSlots);
+            } catch (RuntimeException e) {
+                plugin.getLogger().log(Level.SEVERE, "Failed to restore hibernated storage of spawner " + spawnerId, e);
+                inventory = new VirtualInventory(maxSpawnerLootSlots);
+            }
+            if (preferredSortItem != null) {
+                inventory.sortItems(preferredSortItem);
+            }
+            this.virtualInventory = inventory;
+            this.hibernatedInventory = null;
+            return inventory;
+        }
+    }
+
+    public boolean isHibernating() {
+        return virtualInventory == null && hibernatedInventory != null;
+    }
+
+    /**
+     * Gets the size of the compressed storage, 0 unless hibernating
+     */
+    public int getHibernatedBytes() {
+        HibernatedInventory hibernated = this.hibernatedInventory;
+        return hibernated != null ? hibernated.getCompressedSize() : 0;
+    }
+
+    /**
+     * Estimates the heap held by the live storage, 0 while hibernating
+     */
+    public long estimateInventoryHeapBytes() {
+        VirtualInventory inventory = this.virtualInventory;
+        return inventory != null ? inventory.estimateHeapBytes() : 0;
+    }
+
+    // Resumes loot generation once something freed space or experience
+    private void wakeIfDormant() {
+        if (dormant && plugin.getSpawnerLootScheduler() != null) {
+            plugin.getSpawnerLootScheduler().wake(this);
+        }
+    }
+
+    // Debug only: the running slot and item counters must match a full recount
+    private void checkInventoryCounters() {
+        if (plugin.isDebugMode() && !getVirtualInventory().verifyCounters()) {
+            plugin.getLogger().warning("Storage counters of spawner " + spawnerId + " drifted from its contents and were recalculated");
+        }
+    }
 }
@@ -0,0 +1,136 @@
+package github.nighter.smartspawner.spawner.properties;
+
+import github.nighter.smartspawner.Scheduler;
+import github.nighter.smartspawner.SmartSpawner;
+import org.bukkit.Chunk;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.Listener;
+import org.bukkit.event.world.ChunkLoadEvent;
+import org.bukkit.event.world.ChunkUnloadEvent;
+
+import java.util.ArrayList;
+import java.util.Set;
+
+/**
+ * Moves the storage of spawners nobody is near into a compressed form and back.
+ *
+ * Spawners hibernate when their chunk unloads, or once their storage has not been accessed
+ * for the idle timeout. They are restored when the chunk loads again, or transparently on the
+ * first access to their storage. Hibernation and the restore on chunk load run on the
+ * spawner's region thread so they never race with loot commits or hopper pulls.
+ */
+public class SpawnerHibernation implements Listener {
+    private static final long SWEEP_INTERVAL = 1200L; // 1 minute in ticks
+    private final SmartSpawner plugin;
+    private final SpawnerManager spawnerManager;
+    private volatile boolean enabled;
+    private volatile long idleTimeoutMillis;
+    private Scheduler.Task sweepTask;
+
+    public SpawnerHibernation(SmartSpawner plugin) {
+        this.plugin = plugin;
+        this.spawnerManager = plugin.getSpawnerManager();
+        plugin.getServer().getPluginManager().registerEvents(this, plugin);
+        reload();
+    }
+
+    /**
+     * Re-reads the hibernation settings and restarts the idle sweep
+     */
+    public void reload() {
+        this.enabled = plugin.getConfig().getBoolean("performance.hibernation.enabled", true);
+        this.idleTimeoutMillis = plugin.getTimeFromConfig("performance.hibernation.idle_timeout", "30m") * 50L;
+
+        if (sweepTask != null) {
+            sweepTask.cancel();
+            sweepTask = null;
+        }
+        if (enabled) {
+            sweepTask = Scheduler.runTaskTimerAsync(this::sweepIdleSpawners, SWEEP_INTERVAL, SWEEP_INTERVAL);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onChunkUnload(ChunkUnloadEvent event) {
+        // Spawners are released outright when loading lazily
+        if (!enabled || (plugin.getSpawnerChunkLoader() != null && plugin.getSpawnerChunkLoader().isEnabled())) return;
+
+        Chunk chunk = event.getChunk();
+        Set<SpawnerData> spawners = spawnerManager.getSpawnersInChunk(
+                event.getWorld().getName(), chunk.getX(), chunk.getZ());
+        // Already on the chunk's region thread
+        for (SpawnerData spawner : new ArrayList<>(spawners)) {
+            spawner.hibernate();
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onChunkLoad(ChunkLoadEvent event) {
+        Chunk chunk = event.getChunk();
+        Set<SpawnerData> spawners = spawnerManager.getSpawnersInChunk(
+                event.getWorld().getName(), chunk.getX(), chunk.getZ());
+        if (spawners.isEmpty()) return;
+
+        // Restore ahead of the first player interaction, on the region thread like hibernation
+        // but after the load event so decompression does not hold up chunk loading
+        for (SpawnerData spawner : spawners) {
+            if (spawner.isHibernating()) {
+                Scheduler.runLocationTask(spawner.getSpawnerLocation(), spawner::getVirtualInventory);
+            }
+        }
+    }
+
+    private void sweepIdleSpawners() {
+        long timeout = idleTimeoutMillis;
+        if (timeout > 0) {
+            long cutoff = System.currentTimeMillis() - timeout;
+            for (SpawnerData spawner : spawnerManager.getAllSpawners()) {
+                if (spawner.isHibernating() || spawner.getLastAccessTime() > cutoff
+                        || spawner.getNearbyPlayerCount().get() > 0) {
+                    continue;
+                }
+                Scheduler.runLocationTask(spawner.getSpawnerLocation(), spawner::hibernate);
+            }
+        }
+
+        if (plugin.isDebugMode()) {
+            TierStats stats = collectStats();
+            plugin.debug(String.format("Spawner storage: %d active (~%d KB heap), %d hibernating (%d KB compressed)",
+                    stats.activeCount(), stats.activeBytes() / 1024,
+                    stats.hibernatingCount(), stats.hibernatingBytes() / 1024));
+        }
+    }
+
+    /**
+     * Counts the spawners in each tier along with the memory their storage holds. Active sizes
+     * are estimates, hibernating sizes are the exact compressed buffer lengths.
+     */
+    public TierStats collectStats() {
+        int activeCount = 0;
+        int hibernatingCount = 0;
+        long activeBytes = 0;
+        long hibernatingBytes = 0;
+        for (SpawnerData spawner : spawnerManager.getAllSpawners()) {
+            if (spawner.isHibernating()) {
+                hibernatingCount++;
+                hibernatingBytes += spawner.getHibernatedBytes();
+            } else {
+                activeCount++;
+                activeBytes += spawner.estimateInventoryHeapBytes();
+            }
+        }
+        return new TierStats(activeCount, activeBytes, hibernatingCount, hibernatingBytes);
+    }
+
+    public record TierStats(int activeCount, long activeBytes, int hibernatingCount, long hibernatingBytes) {
+    }
+
+    public void cleanup() {
+        if (sweepTask != null) {
+            sweepTask.cancel();
+        }
+        HandlerList.unregisterAll(this);
+    }
+}
@@ -0,0 +1,205 @@
+package github.nighter.smartspawner.spawner.properties;
+
+import github.nighter.smartspawner.Scheduler;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+
+/**
+ * Single-consumer mutation queue owned by a spawner.
+ *
+ * Loot commits, sells, hopper pulls and stack changes are applied through the mailbox in the
+ * order they were submitted, always on the spawner's region thread. Producers on other threads
+ * never block and mutations are never dropped: when the spawner lock is briefly held elsewhere
+ * the drain is retried on the next tick instead.
+ */
+public class SpawnerMailbox {
+    // Totals across all spawners, reported in debug mode
+    private static final AtomicInteger GLOBAL_QUEUE_LENGTH = new AtomicInteger();
+    private static final AtomicLong PROCESSED_COUNT = new AtomicLong();
+    private static final AtomicLong DRAIN_COUNT = new AtomicLong();
+    private static final AtomicLong TOTAL_DRAIN_NANOS = new AtomicLong();
+    private static final AtomicLong MAX_DRAIN_NANOS = new AtomicLong();
+
+    private final SpawnerData spawner;
+    private final Queue<Runnable> mutations = new ConcurrentLinkedQueue<>();
+    // Set while a drain is scheduled or running, only its owner may consume the queue
+    private final AtomicBoolean draining = new AtomicBoolean(false);
+    private final AtomicInteger queueLength = new AtomicInteger();
+
+    SpawnerMailbox(SpawnerData spawner) {
+        this.spawner = spawner;
+    }
+
+    /**
+     * Queues a mutation and schedules a drain on the spawner's region thread.
+     * Safe to call from any thread.
+     *
+     * @param mutation The change to apply to the spawner
+     */
+    public void submit(Runnable mutation) {
+        append(mutation);
+        if (draining.compareAndSet(false, true)) {
+            scheduleDrain(0L);
+        }
+    }
+
+    /**
+     * Applies a mutation before returning when called on the spawner's region thread while the
+     * spawner lock is free, after any mutations queued ahead of it. Otherwise it is queued like
+     * {@link #submit}, so callers that need the result should read it from a mutation executed
+     * after this one rather than right after the call.
+     *
+     * @param mutation The change to apply to the spawner
+     */
+    public void execute(Runnable mutation) {
+        Location location = spawner.getSpawnerLocation();
+        if (location == null || !Bukkit.isOwnedByCurrentRegion(location)) {
+            submit(mutation);
+            return;
+        }
+        if (spawner.getLock().isHeldByCurrentThread()) {
+            // Called from a mutation or while the spawner is locked on this thread
+            apply(mutation);
+            return;
+        }
+
+        if (!spawner.getLock().tryLock()) {
+            // Held briefly by another thread, never block the region on it
+            submit(mutation);
+            return;
+        }
+
+        // Only this region thread consumes the queue, so it can be drained here even while
+        // a scheduled drain holds ownership; that drain then finds nothing left
+        boolean owner = draining.compareAndSet(false, true);
+        long start = System.nanoTime();
+        int processed = 0;
+        try {
+            Runnable queued;
+            while ((queued = mutations.poll()) != null) {
+                queueLength.decrementAndGet();
+                GLOBAL_QUEUE_LENGTH.decrementAndGet();
+                apply(queued);
+                processed++;
+            }
+            apply(mutation);
+            processed++;
+        } finally {
+            spawner.getLock().unlock();
+            recordDrain(processed, System.nanoTime() - start);
+            if (owner) {
+                release();
+            }
+        }
+    }
+
+    private void append(Runnable mutation) {
+        mutations.add(mutation);
+        queueLength.incrementAndGet();
+        GLOBAL_QUEUE_LENGTH.incrementAndGet();
+    }
+
+    private void scheduleDrain(long delay) {
+        Location location = spawner.getSpawnerLocation();
+        if (delay <= 0) {
+            Scheduler.runLocationTask(location, this::drain);
+        } else {
+            Scheduler.runLocationTaskLater(location, this::drain, delay);
+        }
+    }
+
+    private void drain() {
+        if (!spawner.getLock().tryLock()) {
+            // Held briefly by another thread, keep ownership and retry next tick
+            scheduleDrain(1L);
+            return;
+        }
+
+        long start = System.nanoTime();
+        int processed = 0;
+        try {
+            Runnable mutation;
+            while ((mutation = mutations.poll()) != null) {
+                queueLength.decrementAndGet();
+                GLOBAL_QUEUE_LENGTH.decrementAndGet();
+                apply(mutation);
+                processed++;
+            }
+        } finally {
+            spawner.getLock().unlock();
+            recordDrain(processed, System.nanoTime() - start);
+            release();
+        }
+    }
+
+    private void apply(Runnable mutation) {
+        try {
+            mutation.run();
+        } catch (Exception e) {
+            spawner.getPlugin().getLogger().log(Level.WARNING,
+                    "Error applying queued change to spawner " + spawner.getSpawnerId(), e);
+        }
+    }
+
+    private void release() {
+        draining.set(false);
+        // A producer may have appended after the last poll but before ownership was released
+        if (!mutations.isEmpty() && draining.compareAndSet(false, true)) {
+            scheduleDrain(0L);
+        }
+    }
+
+    private void recordDrain(int processed, long nanos) {
+        if (processed == 0) {
+            return;
+        }
+        PROCESSED_COUNT.addAndGet(processed);
+        DRAIN_COUNT.incrementAndGet();
+        TOTAL_DRAIN_NANOS.addAndGet(nanos);
+        MAX_DRAIN_NANOS.accumulateAndGet(nanos, Math::max);
+    }
+
+    /**
+     * Gets the number of mutations waiting for this spawner
+     */
+    public int getQueueLength() {
+        return queueLength.get();
+    }
+
+    /**
+     * Gets the number of mutations waiting across all spawners
+     */
+    public static int getGlobalQueueLength() {
+        return GLOBAL_QUEUE_LENGTH.get();
+    }
+
+    public static long getProcessedCount() {
+        return PROCESSED_COUNT.get();
+    }
+
+    /**
+     * Gets the average time spent applying one drain in milliseconds
+     */
+    public static double getAverageDrainMillis() {
+        long drains = DRAIN_COUNT.get();
+        return drains == 0 ? 0.0 : TOTAL_DRAIN_NANOS.get() / 1_000_000.0 / drains;
+    }
+
+    public static double getMaxDrainMillis() {
+        return MAX_DRAIN_NANOS.get() / 1_000_000.0;
+    }
+
+    public static void resetMetrics() {
+        PROCESSED_COUNT.set(0);
+        DRAIN_COUNT.set(0);
+        TOTAL_DRAIN_NANOS.set(0);
+        MAX_DRAIN_NANOS.set(0);
+    }
+}
@@ -1,8 +1,10 @@
 package github.nighter.smartspawner.spawner.properties;
 
 import github.nighter.smartspawner.SmartSpawner;
+import github.nighter.smartspawner.spawner.storage.SpawnerIndex;
 import github.nighter.smartspawner.spawner.utils.SpawnerFileHandler;
 import github.nighter.smartspawner.Scheduler;
+import lombok.Getter;
 import org.bukkit.*;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
@@ -10,9 +12,15 @@ import java.util.logging.Logger;
 
 public class SpawnerManager {
     private final SmartSpawner plugin;
-    private final Map<String, SpawnerData> spawners = new HashMap<>();
-    private final Map<LocationKey, SpawnerData> locationIndex = new HashMap<>();
-    private final Map<String, Set<SpawnerData>> worldIndex = new HashMap<>();
+    // Changed on region threads as chunks load and unload, read from async tasks
+    private final Map<String, SpawnerData> spawners = new ConcurrentHashMap<>();
+    private final Map<LocationKey, SpawnerData> locationIndex = new ConcurrentHashMap<>();
+    private final Map<String, Set<SpawnerData>> worldIndex = new ConcurrentHashMap<>();
+    // World name -> packed chunk coordinates -> spawners, read by the async range checker
+    private final Map<String, Map<Long, Set<SpawnerData>>> chunkIndex = new ConcurrentHashMap<>();
+    // Packed primitive positions for bulk scans
+    @Getter
+    private final SpawnerPositionIndex positionIndex = new SpawnerPositionIndex();
     private final SpawnerFileHandler spawnerFileHandler;
     // Set to keep track of confirmed ghost spawners to avoid repeated checks
     private final Set<String> confirmedGhostSpawners = ConcurrentHashMap.newKeySet();
@@ -75,6 +83,7 @@ public class SpawnerManager {
                         spawner.getSpawnerId() + ": " + e.getMessage());
             }
         }
+        positionIndex.refreshRanges();
     }
 
     public void addSpawner(String id, SpawnerData spawner) {
@@ -83,7 +92,10 @@ public class SpawnerManager {
 
         // Add to world index
         String worldName = spawner.getSpawnerLocation().getWorld().getName();
-        worldIndex.computeIfAbsent(worldName, k -> new HashSet<>()).add(spawner);
+        worldIndex.compute(worldName, (k, worldSpawners) -> addTo(worldSpawners, spawner));
+        addToChunkIndex(spawner);
+        positionIndex.add(spawner);
+        notifyRangeChecker(spawner);
 
         // Queue for saving
         spawnerFileHandler.queueSpawnerForSaving(id);
@@ -96,34 +108,99 @@ public class SpawnerManager {
             // Run hologram removal on location thread
             Scheduler.runLocationTask(loc, spawner::removeHologram);
 
-            locationIndex.remove(new LocationKey(spawner.getSpawnerLocation()));
+            locationIndex.remove(new LocationKey(spawner.getSpawnerLocation()), spawner);
 
-            // Remove from world index
+            // Remove from world index, dropping the set only if it is still empty
             String worldName = spawner.getSpawnerLocation().getWorld().getName();
-            Set<SpawnerData> worldSpawners = worldIndex.get(worldName);
-            if (worldSpawners != null) {
+            worldIndex.computeIfPresent(worldName, (k, worldSpawners) -> {
                 worldSpawners.remove(spawner);
-                if (worldSpawners.isEmpty()) {
-                    worldIndex.remove(worldName);
-                }
-            }
+                return worldSpawners.isEmpty() ? null : worldSpawners;
+            });
+            removeFromChunkIndex(spawner);
+            positionIndex.remove(spawner);
+
+            spawners.remove(id, spawner);
+        }
+    }
+
+    private void addToChunkIndex(SpawnerData spawner) {
+        Location loc = spawner.getSpawnerLocation();
+        chunkIndex.computeIfAbsent(loc.getWorld().getName(), k -> new ConcurrentHashMap<>())
+                .compute(chunkKey(loc.getBlockX() >> 4, loc.getBlockZ() >> 4), (k, chunkSpawners) -> addTo(chunkSpawners, spawner));
+    }
+
+    // Adds inside compute so a concurrent removal cannot drop the set after the add
+    private static Set<SpawnerData> addTo(Set<SpawnerData> set, SpawnerData spawner) {
+        if (set == null) {
+            set = ConcurrentHashMap.newKeySet();
+        }
+        set.add(spawner);
+        return set;
+    }
+
+    private void removeFromChunkIndex(SpawnerData spawner) {
+        Location loc = spawner.getSpawnerLocation();
+        Map<Long, Set<SpawnerData>> worldChunks = chunkIndex.get(loc.getWorld().getName());
+        if (worldChunks == null) return;
+
+        long key = chunkKey(loc.getBlockX() >> 4, loc.getBlockZ() >> 4);
+        worldChunks.computeIfPresent(key, (k, chunkSpawners) -> {
+            chunkSpawners.remove(spawner);
+            return chunkSpawners.isEmpty() ? null : chunkSpawners;
+        });
+    }
 
-            spawners.remove(id);
+    private void notifyRangeChecker(SpawnerData spawner) {
+        // The range checker is created after the manager, spawners loaded before it are picked up by its first sweep
+        if (plugin.getRangeChecker() != null) {
+            plugin.getRangeChecker().onSpawnerAdded(spawner);
         }
     }
 
+    private static long chunkKey(int chunkX, int chunkZ) {
+        return ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Gets the spawners in a chunk, safe to call from any thread
+     *
+     * @return The spawners in the chunk, or an empty set
+     */
+    public Set<SpawnerData> getSpawnersInChunk(String worldName, int chunkX, int chunkZ) {
+        Map<Long, Set<SpawnerData>> worldChunks = chunkIndex.get(worldName);
+        if (worldChunks == null) return Collections.emptySet();
+
+        Set<SpawnerData> chunkSpawners = worldChunks.get(chunkKey(chunkX, chunkZ));
+        return chunkSpawners != null ? chunkSpawners : Collections.emptySet();
+    }
+
+    /**
+     * Counts the stored spawners in a world, including those whose chunks are not loaded
+     */
     public int countSpawnersInWorld(String worldName) {
-        Set<SpawnerData> worldSpawners = worldIndex.get(worldName);
-        return worldSpawners != null ? worldSpawners.size() : 0;
+        return spawnerFileHandler.getIndex().countInWorld(worldName);
     }
 
     public int countTotalSpawnersWithStacks(String worldName) {
-        Set<SpawnerData> worldSpawners = worldIndex.get(worldName);
-        if (worldSpawners == null) return 0;
+        int total = 0;
+        for (SpawnerIndex.Entry entry : spawnerFileHandler.getIndex().getEntries(worldName)) {
+            SpawnerData spawner = spawners.get(entry.id());
+            total += spawner != null ? spawner.getStackSize() : entry.stackSize();
+        }
+        return total;
+    }
 
-        return worldSpawners.stream()
-                .mapToInt(SpawnerData::getStackSize)
-                .sum();
+    /**
+     * Gets the summaries of every stored spawner in a world, with the values of loaded
+     * spawners taken from memory
+     */
+    public List<SpawnerIndex.Entry> getSpawnerEntries(String worldName) {
+        List<SpawnerIndex.Entry> entries = spawnerFileHandler.getIndex().getEntries(worldName);
+        entries.replaceAll(entry -> {
+            SpawnerData spawner = spawners.get(entry.id());
+            return spawner != null ? SpawnerIndex.Entry.of(spawner) : entry;
+        });
+        return entries;
     }
 
     public SpawnerData getSpawnerByLocation(Location location) {
@@ -144,7 +221,10 @@ public class SpawnerManager {
 
         // Add to world index
         String worldName = spawner.getSpawnerLocation().getWorld().getName();
-        worldIndex.computeIfAbsent(worldName, k -> new HashSet<>()).add(spawner);
+        worldIndex.compute(worldName, (k, worldSpawners) -> addTo(worldSpawners, spawner));
+        addToChunkIndex(spawner);
+        positionIndex.add(spawner);
+        notifyRangeChecker(spawner);
     }
 
     public Set<SpawnerData> getSpawnersInWorld(String worldName) {
@@ -156,6 +236,8 @@ public class SpawnerManager {
         spawners.clear();
         locationIndex.clear();
         worldIndex.clear();
+        chunkIndex.clear();
+        positionIndex.clear();
         confirmedGhostSpawners.clear();
 
         // Don't load spawners - let WorldEventHandler handle it
@@ -233,7 +315,8 @@ public class SpawnerManager {
     public void refreshAllHolograms() {
         for (SpawnerData spawner : spawners.values()) {
             Location loc = spawner.getSpawnerLocation();
-            Scheduler.runLocationTask(loc, spawner::refreshHologram);
+            Scheduler.runLocationTask(loc, () -> plugin.getSpawnerLootGenerator().settleAccruedLoot(spawner)
+                    .thenRun(spawner::refreshHologram));
         }
     }
 
@@ -250,10 +333,12 @@ public class SpawnerManager {
         spawners.clear();
         locationIndex.clear();
         worldIndex.clear();
+        chunkIndex.clear();
+        positionIndex.clear();
         confirmedGhostSpawners.clear();
     }
 
     public int getTotalSpawners() {
-        return this.spawners.size();
+        return spawnerFileHandler.getIndex().size();
     }
 }
\ No newline at end of file
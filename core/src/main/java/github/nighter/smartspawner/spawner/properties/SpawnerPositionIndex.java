@@ -0,0 +1,209 @@
+package github.nighter.smartspawner.spawner.properties;
+
+import lombok.Getter;
+import org.bukkit.Location;
+import org.bukkit.World;
+
+import java.util.*;
+
+/**
+ * Compact per-world index of spawner positions stored as parallel primitive arrays.
+ *
+ * Bulk scans such as the range check read block coordinates and ranges straight from
+ * {@code int[]} columns instead of dereferencing each spawner's {@link Location}, and an
+ * immutable snapshot can be taken with a handful of array copies for use off-thread.
+ */
+public class SpawnerPositionIndex {
+    private final Map<UUID, WorldPositions> worlds = new HashMap<>();
+
+    public synchronized void add(SpawnerData spawner) {
+        Location loc = spawner.getSpawnerLocation();
+        World world = loc.getWorld();
+        if (world == null) return;
+
+        worlds.computeIfAbsent(world.getUID(), WorldPositions::new).add(spawner, loc);
+    }
+
+    public synchronized void remove(SpawnerData spawner) {
+        Location loc = spawner.getSpawnerLocation();
+        World world = loc.getWorld();
+        if (world == null) return;
+
+        WorldPositions positions = worlds.get(world.getUID());
+        if (positions != null) {
+            positions.remove(packPosition(loc.getBlockX(), loc.getBlockY(), loc.getBlockZ()));
+            if (positions.size == 0) {
+                worlds.remove(world.getUID());
+            }
+        }
+    }
+
+    /**
+     * Re-reads every spawner's range, used after config reloads
+     */
+    public synchronized void refreshRanges() {
+        for (WorldPositions positions : worlds.values()) {
+            for (int i = 0; i < positions.size; i++) {
+                positions.range[i] = Math.abs(positions.spawners[i].getSpawnerRange());
+            }
+        }
+    }
+
+    public synchronized void clear() {
+        worlds.clear();
+    }
+
+    public synchronized int size() {
+        int size = 0;
+        for (WorldPositions positions : worlds.values()) {
+            size += positions.size;
+        }
+        return size;
+    }
+
+    /**
+     * Copies the index into immutable per-world snapshots, safe to scan from any thread
+     */
+    public synchronized List<WorldSnapshot> snapshot() {
+        List<WorldSnapshot> snapshots = new ArrayList<>(worlds.size());
+        for (WorldPositions positions : worlds.values()) {
+            snapshots.add(positions.snapshot());
+        }
+        return snapshots;
+    }
+
+    /**
+     * Packs block coordinates into a single key, 26 bits for x and z and 12 bits for y
+     */
+    public static long packPosition(int x, int y, int z) {
+        return ((long) (x & 0x3FFFFFF) << 38) | ((long) (z & 0x3FFFFFF) << 12) | (y & 0xFFF);
+    }
+
+    private static final class WorldPositions {
+        private final UUID worldUID;
+        private int[] x = new int[16];
+        private int[] y = new int[16];
+        private int[] z = new int[16];
+        private int[] range = new int[16];
+        private long[] keys = new long[16];
+        private SpawnerData[] spawners = new SpawnerData[16];
+        private int size;
+        // Packed position -> slot, only touched on add and remove
+        private final Map<Long, Integer> slots = new HashMap<>();
+
+        private WorldPositions(UUID worldUID) {
+            this.worldUID = worldUID;
+        }
+
+        private void add(SpawnerData spawner, Location loc) {
+            long key = packPosition(loc.getBlockX(), loc.getBlockY(), loc.getBlockZ());
+            Integer existing = slots.get(key);
+            int slot;
+            if (existing != null) {
+                slot = existing;
+            } else {
+                if (size == keys.length) {
+                    grow();
+                }
+                slot = size++;
+                slots.put(key, slot);
+            }
+
+            x[slot] = loc.getBlockX();
+            y[slot] = loc.getBlockY();
+            z[slot] = loc.getBlockZ();
+            range[slot] = Math.abs(spawner.getSpawnerRange());
+            keys[slot] = key;
+            spawners[slot] = spawner;
+        }
+
+        private void remove(long key) {
+            Integer removed = slots.remove(key);
+            if (removed == null) return;
+
+            // Move the last entry into the freed slot to keep the arrays dense
+            int slot = removed;
+            int last = --size;
+            if (slot != last) {
+                x[slot] = x[last];
+                y[slot] = y[last];
+                z[slot] = z[last];
+                range[slot] = range[last];
+                keys[slot] = keys[last];
+                spawners[slot] = spawners[last];
+                slots.put(keys[slot], slot);
+            }
+            spawners[last] = null;
+        }
+
+        private void grow() {
+            int capacity = keys.length * 2;
+            x = Arrays.copyOf(x, capacity);
+            y = Arrays.copyOf(y, capacity);
+            z = Arrays.copyOf(z, capacity);
+            range = Arrays.copyOf(range, capacity);
+            keys = Arrays.copyOf(keys, capacity);
+            spawners = Arrays.copyOf(spawners, capacity);
+        }
+
+        private WorldSnapshot snapshot() {
+            return new WorldSnapshot(worldUID, size,
+                    Arrays.copyOf(x, size), Arrays.copyOf(y, size), Arrays.copyOf(z, size),
+                    Arrays.copyOf(range, size), Arrays.copyOf(keys, size), Arrays.copyOf(spawners, size));
+        }
+    }
+
+    /**
+     * Immutable copy of one world's spawner positions. Entry {@code i} of every array
+     * describes the same spawner.
+     */
+    public static final class WorldSnapshot {
+        @Getter
+        private final UUID worldUID;
+        @Getter
+        private final int size;
+        private final int[] x;
+        private final int[] y;
+        private final int[] z;
+        private final int[] range;
+        private final long[] keys;
+        private final SpawnerData[] spawners;
+
+        private WorldSnapshot(UUID worldUID, int size, int[] x, int[] y, int[] z, int[] range,
+                              long[] keys, SpawnerData[] spawners) {
+            this.worldUID = worldUID;
+            this.size = size;
+            this.x = x;
+            this.y = y;
+            this.z = z;
+            this.range = range;
+            this.keys = keys;
+            this.spawners = spawners;
+        }
+
+        // Raw columns for linear scans, must not be modified
+        public int[] xs() {
+            return x;
+        }
+
+        public int[] ys() {
+            return y;
+        }
+
+        public int[] zs() {
+            return z;
+        }
+
+        public int[] ranges() {
+            return range;
+        }
+
+        public long getKey(int index) {
+            return keys[index];
+        }
+
+        public SpawnerData getSpawner(int index) {
+            return spawners[index];
+        }
+    }
+}
@@ -4,157 +4,443 @@ import lombok.Getter;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.meta.ItemMeta;
 
+import java.lang.invoke.VarHandle;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.stream.Collectors;
+import java.util.concurrent.atomic.AtomicIntegerArray;
 
 public class VirtualInventory {
+    private static final long[] NO_PLAIN_COUNTS = new long[0];
+
+    // Items with meta, keyed by signature
     private final Map<ItemSignature, Long> consolidatedItems;
+    // Amounts of meta-less items, indexed by PlainItemIndex slot
+    private long[] plainCounts = NO_PLAIN_COUNTS;
+    // Only the first maxSlots slots are shown and count as used, contents beyond are kept
     @Getter
-    private final int maxSlots;
-    private final Map<Integer, ItemStack> displayInventoryCache;
+    private volatile int maxSlots;
     private boolean displayCacheDirty;
-    private int usedSlotsCache;
-    private long totalItemsCache;
-    private boolean metricsCacheDirty;
-    // Cache sorted entries to avoid resorting when display isn't changing
-    private List<Map.Entry<ItemSignature, Long>> sortedEntriesCache;
+    // Running totals kept exact by addItems and removeItems, slots are not capped at maxSlots.
+    // Only the owning thread writes them, async loot generation reads them for its slot budget
+    private volatile long usedSlotCount;
+    private volatile long totalItemCount;
+    // Stored signatures ordered by material name, kept sorted as items come and go
+    private final List<ItemSignature> signaturesByName = new ArrayList<>();
+    // Display order with the preferred material pinned first, and the amount of each entry
+    private ItemSignature[] displayOrder;
+    private long[] displayAmounts;
+    // Prefix sums of stack counts: slot at which each display entry starts, total slot count last
+    private long[] slotOffsets;
     private org.bukkit.Material preferredSortMaterial;
-
-    // Add an LRU cache for expensive item operations
-    private static final int ITEM_CACHE_SIZE = 128;
-    private static final Map<ItemStack, ItemSignature> signatureCache =
-            Collections.synchronizedMap(new LinkedHashMap<ItemStack, ItemSignature>(ITEM_CACHE_SIZE, 0.75f, true) {
-                @Override
-                protected boolean removeEldestEntry(Map.Entry<ItemStack, ItemSignature> eldest) {
-                    return size() > ITEM_CACHE_SIZE;
-                }
-            });
+    // Incremented before and after every mutation, odd while one is in progress
+    private volatile long modCount;
+    // Latest consistent snapshot, rebuilt on the first read after a mutation
+    private volatile Snapshot snapshot = new Snapshot(0, Collections.emptyMap());
+    private static final int SNAPSHOT_ATTEMPTS = 8;
 
     public VirtualInventory(int maxSlots) {
         this.maxSlots = maxSlots;
         this.consolidatedItems = new ConcurrentHashMap<>();
-        this.displayInventoryCache = new HashMap<>(maxSlots); // Pre-size the map
         this.displayCacheDirty = true;
-        this.metricsCacheDirty = true;
-        this.usedSlotsCache = 0;
-        this.totalItemsCache = 0;
-        this.sortedEntriesCache = null;
+        this.usedSlotCount = 0;
+        this.totalItemCount = 0;
         this.preferredSortMaterial = null;
     }
 
+    /**
+     * Identity of a stored item, ignoring its amount. Signatures are interned through
+     * {@link #getSignature(ItemStack)}, so equal items share one instance and one template.
+     */
     public static class ItemSignature {
         private final ItemStack template;
+        private final org.bukkit.Material material;
+        private final int damage;
+        private final boolean hasMeta;
+        private final int metaHash;
         private final int hashCode;
         @Getter
         private final String materialName;
 
-        public ItemSignature(ItemStack item) {
+        private ItemSignature(ItemStack item, int metaHash) {
             this.template = item.clone();
             this.template.setAmount(1);
-            this.materialName = item.getType().name();
-            this.hashCode = calculateHashCode();
-        }
-
-        // Replace the current calculateHashCode() method with:
-        private int calculateHashCode() {
-            // Use a faster hash algorithm and cache more item properties
-            int result = 31 * template.getType().ordinal(); // Using ordinal() instead of name() hashing
-            result = 31 * result + (int)template.getDurability();
-
-            // Only access ItemMeta when needed
-            if (template.hasItemMeta()) {
-                ItemMeta meta = template.getItemMeta();
-                // Extract only the essential meta properties that determine similarity
-                result = 31 * result + (meta.hasDisplayName() ? meta.getDisplayName().hashCode() : 0);
-                result = 31 * result + (meta.hasLore() ? meta.getLore().hashCode() : 0);
-                result = 31 * result + (meta.hasEnchants() ? meta.getEnchants().hashCode() : 0);
+            this.material = item.getType();
+            this.damage = item.getDurability();
+            this.hasMeta = item.hasItemMeta();
+            this.metaHash = metaHash;
+            this.materialName = material.name();
+            this.hashCode = identityHash(material, damage, metaHash);
+        }
+
+        private static int identityHash(org.bukkit.Material material, int damage, int metaHash) {
+            int result = 31 * material.ordinal();
+            result = 31 * result + damage;
+            return 31 * result + metaHash;
+        }
+
+        // Hash of the meta properties that determine similarity, 0 without meta
+        private static int metaHash(ItemStack item) {
+            if (!item.hasItemMeta()) {
+                return 0;
             }
+            ItemMeta meta = item.getItemMeta();
+            int result = meta.hasDisplayName() ? meta.getDisplayName().hashCode() : 0;
+            result = 31 * result + (meta.hasLore() ? meta.getLore().hashCode() : 0);
+            result = 31 * result + (meta.hasEnchants() ? meta.getEnchants().hashCode() : 0);
             return result;
         }
 
+        // Whether the item, of any amount, has this identity
+        private boolean matches(ItemStack item, int itemMetaHash) {
+            if (material != item.getType() || damage != item.getDurability()
+                    || hasMeta != item.hasItemMeta() || metaHash != itemMetaHash) {
+                return false;
+            }
+            return !hasMeta || template.isSimilar(item);
+        }
+
         @Override
         public boolean equals(Object o) {
             if (this == o) return true;
             if (!(o instanceof ItemSignature)) return false;
             ItemSignature that = (ItemSignature) o;
+            // Interned signatures are only equal to themselves, this covers stale references
+            return hashCode == that.hashCode && matches(that.template, that.metaHash);
+        }
 
-            // First compare cheap properties
-            if (template.getType() != that.template.getType() ||
-                    template.getDurability() != that.template.getDurability()) {
-                return false;
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+        /**
+         * Gets a copy of the template that callers are free to modify
+         */
+        public ItemStack getTemplate() {
+            return template.clone();
+        }
+
+        /**
+         * Gets the shared template with an amount of 1. It is referenced by every inventory
+         * holding this item and must never be modified.
+         */
+        public ItemStack getTemplateRef() {
+            return template;
+        }
+
+    }
+
+    /**
+     * Global pool handing out one canonical signature per distinct item with meta. Entries are
+     * weakly referenced and disappear once no inventory holds the item anymore.
+     */
+    private static final class SignaturePool {
+        private static final Map<Integer, List<SignatureRef>> BUCKETS = new HashMap<>();
+        private static final ReferenceQueue<ItemSignature> CLEARED = new ReferenceQueue<>();
+
+        private static final class SignatureRef extends WeakReference<ItemSignature> {
+            private final int hash;
+
+            private SignatureRef(ItemSignature signature) {
+                super(signature, CLEARED);
+                this.hash = signature.hashCode;
             }
+        }
 
-            // Only check ItemMeta if types match
-            boolean thisHasMeta = template.hasItemMeta();
-            boolean thatHasMeta = that.template.hasItemMeta();
+        private static synchronized ItemSignature intern(ItemStack item) {
+            expungeCleared();
 
-            if (thisHasMeta != thatHasMeta) {
-                return false;
+            int metaHash = ItemSignature.metaHash(item);
+            int hash = ItemSignature.identityHash(item.getType(), item.getDurability(), metaHash);
+            List<SignatureRef> bucket = BUCKETS.computeIfAbsent(hash, k -> new ArrayList<>(1));
+            for (SignatureRef ref : bucket) {
+                ItemSignature existing = ref.get();
+                if (existing != null && existing.matches(item, metaHash)) {
+                    return existing;
+                }
             }
 
-            // If both have no meta, they're similar enough
-            if (!thisHasMeta) {
-                return true;
+            ItemSignature created = new ItemSignature(item, metaHash);
+            bucket.add(new SignatureRef(created));
+            return created;
+        }
+
+        private static void expungeCleared() {
+            Reference<? extends ItemSignature> cleared;
+            while ((cleared = CLEARED.poll()) != null) {
+                int hash = ((SignatureRef) cleared).hash;
+                List<SignatureRef> bucket = BUCKETS.get(hash);
+                if (bucket != null) {
+                    bucket.remove(cleared);
+                    if (bucket.isEmpty()) {
+                        BUCKETS.remove(hash);
+                    }
+                }
             }
+        }
 
-            // For complex items, fall back to isSimilar but only as a last resort
-            return template.isSimilar(that.template);
+        private static synchronized int size() {
+            expungeCleared();
+            int size = 0;
+            for (List<SignatureRef> bucket : BUCKETS.values()) {
+                size += bucket.size();
+            }
+            return size;
         }
+    }
 
-        @Override
-        public int hashCode() {
-            return hashCode;
+    /**
+     * Assigns a small dense slot to every material seen as a meta-less item, shared by all
+     * inventories. Plain counts are stored in arrays indexed by that slot instead of a map,
+     * which stays a few entries long because spawners only drop a handful of materials.
+     */
+    private static final class PlainItemIndex {
+        private static final org.bukkit.Material[] MATERIALS = org.bukkit.Material.values();
+        // Material ordinal -> slot + 1, 0 while unassigned
+        private static final AtomicIntegerArray SLOT_BY_ORDINAL = new AtomicIntegerArray(MATERIALS.length);
+        private static volatile ItemSignature[] signatures = new ItemSignature[0];
+
+        private static int slotOf(org.bukkit.Material material) {
+            int slot = SLOT_BY_ORDINAL.get(material.ordinal());
+            return slot != 0 ? slot - 1 : register(material);
         }
 
-        public ItemStack getTemplate() {
-            return template.clone();
+        private static synchronized int register(org.bukkit.Material material) {
+            int existing = SLOT_BY_ORDINAL.get(material.ordinal());
+            if (existing != 0) {
+                return existing - 1;
+            }
+            ItemSignature[] current = signatures;
+            ItemSignature[] grown = Arrays.copyOf(current, current.length + 1);
+            grown[current.length] = new ItemSignature(new ItemStack(material), 0);
+            // Publish the signature before the slot so readers never see an empty slot
+            signatures = grown;
+            SLOT_BY_ORDINAL.set(material.ordinal(), current.length + 1);
+            return current.length;
         }
 
-        // Non-cloning method for internal use
-        public ItemStack getTemplateRef() {
-            return template;
+        private static ItemSignature signatureAt(int slot) {
+            return signatures[slot];
         }
+    }
+
+    private static boolean isPlain(ItemStack item) {
+        return !item.hasItemMeta();
+    }
+
+    private long amountOf(ItemSignature sig) {
+        ItemStack template = sig.getTemplateRef();
+        if (isPlain(template)) {
+            int slot = PlainItemIndex.slotOf(template.getType());
+            return slot < plainCounts.length ? plainCounts[slot] : 0L;
+        }
+        return consolidatedItems.getOrDefault(sig, 0L);
+    }
+
+    private void setAmount(ItemSignature sig, long amount) {
+        ItemStack template = sig.getTemplateRef();
+        if (isPlain(template)) {
+            int slot = PlainItemIndex.slotOf(template.getType());
+            ensurePlainCapacity(slot);
+            plainCounts[slot] = amount;
+        } else if (amount <= 0) {
+            consolidatedItems.remove(sig);
+        } else {
+            consolidatedItems.put(sig, amount);
+        }
+    }
 
+    private void ensurePlainCapacity(int slot) {
+        if (slot >= plainCounts.length) {
+            plainCounts = Arrays.copyOf(plainCounts, slot + 1);
+        }
     }
 
+    // Calls the action for every stored item, plain items first
+    private void forEachStored(java.util.function.ObjLongConsumer<ItemSignature> action) {
+        long[] counts = plainCounts;
+        for (int slot = 0; slot < counts.length; slot++) {
+            if (counts[slot] > 0) {
+                action.accept(PlainItemIndex.signatureAt(slot), counts[slot]);
+            }
+        }
+        for (Map.Entry<ItemSignature, Long> entry : consolidatedItems.entrySet()) {
+            action.accept(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * Gets the canonical signature of an item. Equal items always map to the same instance,
+     * so the result can be kept and compared cheaply without copying the item.
+     */
     public static ItemSignature getSignature(ItemStack item) {
-        // First try to get from cache
-        ItemSignature cachedSig = signatureCache.get(item);
-        if (cachedSig != null) {
-            return cachedSig;
+        if (isPlain(item)) {
+            return PlainItemIndex.signatureAt(PlainItemIndex.slotOf(item.getType()));
         }
+        return SignaturePool.intern(item);
+    }
 
-        // Create new signature and cache it
-        ItemSignature newSig = new ItemSignature(item);
-        signatureCache.put(item.clone(), newSig);
-        return newSig;
+    /**
+     * Gets the number of distinct items with meta currently interned
+     */
+    public static int getInternedSignatureCount() {
+        return SignaturePool.size();
     }
 
     // Add items in bulk with minimal operations
     public void addItems(List<ItemStack> items) {
         if (items.isEmpty()) return;
 
-        // Pre-allocate space for batch processing
-        Map<ItemSignature, Long> itemBatch = new HashMap<>(items.size());
+        boolean changed = false;
+        beginMutation();
+        try {
+            changed = applyAdditions(items);
+        } finally {
+            endMutation(changed);
+        }
+
+        if (changed) {
+            displayCacheDirty = true;
+        }
+    }
+
+    private boolean applyAdditions(List<ItemStack> items) {
+        Map<ItemSignature, Long> itemBatch = null;
+        boolean changed = false;
 
-        // Consolidate all items first
         for (ItemStack item : items) {
             if (item == null || item.getAmount() <= 0) continue;
-            ItemSignature sig = getSignature(item); // Use cached signature
+
+            if (isPlain(item)) {
+                // Plain drops go straight into the counter array, no signature or boxing
+                int slot = PlainItemIndex.slotOf(item.getType());
+                ensurePlainCapacity(slot);
+                long previous = plainCounts[slot];
+                long updated = previous + item.getAmount();
+                plainCounts[slot] = updated;
+                ItemSignature sig = PlainItemIndex.signatureAt(slot);
+                if (previous == 0) {
+                    indexSignature(sig);
+                }
+                adjustCounters(sig, previous, updated);
+                changed = true;
+                continue;
+            }
+
+            if (itemBatch == null) {
+                itemBatch = new HashMap<>();
+            }
+            ItemSignature sig = getSignature(item);
             itemBatch.merge(sig, (long) item.getAmount(), Long::sum);
         }
 
-        // Apply all changes in one operation
-        if (!itemBatch.isEmpty()) {
+        // Apply the consolidated meta items
+        if (itemBatch != null) {
             for (Map.Entry<ItemSignature, Long> entry : itemBatch.entrySet()) {
-                consolidatedItems.merge(entry.getKey(), entry.getValue(), Long::sum);
+                ItemSignature sig = entry.getKey();
+                long previous = consolidatedItems.getOrDefault(sig, 0L);
+                long updated = previous + entry.getValue();
+                consolidatedItems.put(sig, updated);
+                if (previous == 0) {
+                    indexSignature(sig);
+                }
+                adjustCounters(sig, previous, updated);
+            }
+            changed = true;
+        }
+        return changed;
+    }
+
+    /**
+     * Adds as much of the batch as fits in the remaining slots and rejects the rest. Items are
+     * offered in list order; one that only partly fits is split, and later items may still top
+     * up partially filled stacks. Runs in O(batch size) from the running slot counts and does
+     * not allocate for plain items.
+     *
+     * @param items    The items to offer, left unmodified
+     * @param admitted Called with each item and the amount of it that was stored, may be null
+     * @return The number of items that did not fit
+     */
+    public long offerItems(List<ItemStack> items, java.util.function.ObjLongConsumer<ItemStack> admitted) {
+        if (items.isEmpty()) return 0;
+
+        long rejected = 0;
+        boolean changed = false;
+        beginMutation();
+        try {
+            for (int i = 0, size = items.size(); i < size; i++) {
+                ItemStack item = items.get(i);
+                if (item == null || item.getAmount() <= 0) continue;
+
+                ItemSignature sig = getSignature(item);
+                long amount = item.getAmount();
+                long accepted = Math.min(amount, remainingCapacity(sig));
+                rejected += amount - accepted;
+                if (accepted <= 0) continue;
+
+                addAmount(sig, accepted);
+                changed = true;
+                if (admitted != null) {
+                    admitted.accept(item, accepted);
+                }
             }
+        } finally {
+            endMutation(changed);
+        }
+
+        if (changed) {
             displayCacheDirty = true;
-            metricsCacheDirty = true;
-            sortedEntriesCache = null;
         }
+        return rejected;
+    }
+
+    /**
+     * Gets how many more of an item fit: the room left in its last partial stack plus the
+     * free slots filled with full stacks
+     */
+    public long remainingCapacity(ItemSignature sig) {
+        if (usedSlotCount > maxSlots) {
+            // Truncated after a shrink, nothing more fits until items are taken out
+            return 0;
+        }
+        int maxStackSize = sig.getTemplateRef().getMaxStackSize();
+        long current = amountOf(sig);
+        long partialRoom = slotsFor(current, maxStackSize) * maxStackSize - current;
+        long freeSlots = Math.max(0, maxSlots - usedSlotCount);
+        return partialRoom + freeSlots * maxStackSize;
+    }
+
+    // Adds to one signature's amount, keeping the counters and name index in step
+    private void addAmount(ItemSignature sig, long amount) {
+        long previous = amountOf(sig);
+        long updated = previous + amount;
+        setAmount(sig, updated);
+        if (previous == 0) {
+            indexSignature(sig);
+        }
+        adjustCounters(sig, previous, updated);
+    }
+
+    // Bulk load of consolidated amounts, used when waking a hibernated inventory
+    void restoreItems(Map<ItemSignature, Long> items) {
+        if (items.isEmpty()) return;
+
+        beginMutation();
+        try {
+            for (Map.Entry<ItemSignature, Long> entry : items.entrySet()) {
+                if (entry.getValue() > 0) {
+                    addAmount(entry.getKey(), entry.getValue());
+                }
+            }
+        } finally {
+            endMutation(true);
+        }
+        displayCacheDirty = true;
     }
+
     // Remove items in bulk with minimal operations
     public boolean removeItems(List<ItemStack> items) {
         if (items.isEmpty()) return true;
@@ -164,7 +450,7 @@ public class VirtualInventory {
         // Calculate total amounts to remove in a single pass
         for (ItemStack item : items) {
             if (item == null || item.getAmount() <= 0) continue;
-            ItemSignature sig = new ItemSignature(item);
+            ItemSignature sig = getSignature(item);
             toRemove.merge(sig, (long) item.getAmount(), Long::sum);
         }
 
@@ -172,148 +458,353 @@ public class VirtualInventory {
 
         // Verify we have enough of each item
         for (Map.Entry<ItemSignature, Long> entry : toRemove.entrySet()) {
-            Long currentAmount = consolidatedItems.getOrDefault(entry.getKey(), 0L);
-            if (currentAmount < entry.getValue()) {
+            if (amountOf(entry.getKey()) < entry.getValue()) {
                 return false;
             }
         }
 
         // Perform removals all at once
         boolean updated = false;
-        for (Map.Entry<ItemSignature, Long> entry : toRemove.entrySet()) {
-            ItemSignature sig = entry.getKey();
-            long amountToRemove = entry.getValue();
-
-            consolidatedItems.computeIfPresent(sig, (key, current) -> {
-                long newAmount = current - amountToRemove;
-                return newAmount <= 0 ? null : newAmount;
-            });
+        beginMutation();
+        try {
+            for (Map.Entry<ItemSignature, Long> entry : toRemove.entrySet()) {
+                ItemSignature sig = entry.getKey();
+                long amountToRemove = entry.getValue();
+
+                long current = amountOf(sig);
+                if (current == 0) continue;
+
+                long remaining = Math.max(0, current - amountToRemove);
+                setAmount(sig, remaining);
+                if (remaining == 0) {
+                    unindexSignature(sig);
+                }
+                adjustCounters(sig, current, remaining);
 
-            updated = true;
+                updated = true;
+            }
+        } finally {
+            endMutation(updated);
         }
 
         if (updated) {
             displayCacheDirty = true;
-            metricsCacheDirty = true;
-            sortedEntriesCache = null; // Invalidate sorted entries cache
         }
 
         return true;
     }
 
-    // Optimized getDisplayInventory method
+    /**
+     * Changes the capacity without touching the stored items. When shrinking, the contents are
+     * truncated to the first {@code maxSlots} slots for display and slot accounting, and the
+     * hidden stacks come back if the capacity grows again.
+     *
+     * @param maxSlots The new number of slots
+     */
+    public void setMaxSlots(int maxSlots) {
+        this.maxSlots = Math.max(0, maxSlots);
+    }
+
+    /**
+     * Materializes every occupied slot. Prefer {@link #getDisplayPage(int, int)} or
+     * {@link #getDisplayRange(int, int)}, which only build the slots that are shown.
+     */
     public Map<Integer, ItemStack> getDisplayInventory() {
-        // Return cached result if available
-        if (!displayCacheDirty) {
-            // Return a shallow copy to prevent modification of the cache
-            return Collections.unmodifiableMap(displayInventoryCache);
-        }
+        return getDisplayRange(0, maxSlots);
+    }
 
-        // Clear the cache for a fresh rebuild but reuse the existing map
-        displayInventoryCache.clear();
+    /**
+     * Builds the items of one storage page.
+     *
+     * @param page         The page number, starting at 1
+     * @param slotsPerPage Number of item slots on a page
+     * @return Slot within the page -> item, empty slots are absent
+     */
+    public Map<Integer, ItemStack> getDisplayPage(int page, int slotsPerPage) {
+        return getDisplayRange((page - 1) * slotsPerPage, slotsPerPage);
+    }
 
-        if (consolidatedItems.isEmpty()) {
-            displayCacheDirty = false;
-            usedSlotsCache = 0;
-            return Collections.emptyMap();
-        }
+    /**
+     * Builds the display items of a range of slots without materializing the others.
+     * Runs in O(log entries + count) once the sorted index is built.
+     *
+     * @param fromSlot First global slot of the range
+     * @param count    Number of slots in the range
+     * @return Offset within the range -> item, empty slots are absent
+     */
+    public Map<Integer, ItemStack> getDisplayRange(int fromSlot, int count) {
+        ensureDisplayIndex();
 
-        // Get and sort the items - only use cached sort result if available
-        if (sortedEntriesCache == null) {
-            sortedEntriesCache = new ArrayList<>(consolidatedItems.entrySet());
-            // Apply preferred sort if set, otherwise sort alphabetically
-            if (preferredSortMaterial != null) {
-                sortedEntriesCache.sort((e1, e2) -> {
-                    boolean e1Preferred = e1.getKey().getTemplate().getType() == preferredSortMaterial;
-                    boolean e2Preferred = e2.getKey().getTemplate().getType() == preferredSortMaterial;
-                    
-                    if (e1Preferred && !e2Preferred) return -1;
-                    if (!e1Preferred && e2Preferred) return 1;
-                    
-                    // Both preferred or both not preferred, sort by material name
-                    return e1.getKey().getMaterialName().compareTo(e2.getKey().getMaterialName());
-                });
-            } else {
-                // Use optimized comparator based on cached material name
-                sortedEntriesCache.sort(Comparator.comparing(e -> e.getKey().getMaterialName()));
-            }
+        int toSlot = (int) Math.min((long) fromSlot + count, Math.min(maxSlots, slotOffsets[slotOffsets.length - 1]));
+        if (fromSlot < 0 || fromSlot >= toSlot) {
+            return Collections.emptyMap();
         }
 
-        // Process items directly to the display inventory
-        int currentSlot = 0;
+        Map<Integer, ItemStack> result = new HashMap<>(Math.max(16, (toSlot - fromSlot) * 4 / 3 + 1));
 
-        for (Map.Entry<ItemSignature, Long> entry : sortedEntriesCache) {
-            if (currentSlot >= maxSlots) break;
+        // Locate the entry holding the first slot of the range
+        int entryIndex = findEntryForSlot(fromSlot);
+        int slot = fromSlot;
 
-            ItemSignature sig = entry.getKey();
-            long totalAmount = entry.getValue();
-            ItemStack templateItem = sig.getTemplateRef();
+        while (slot < toSlot && entryIndex < displayOrder.length) {
+            ItemStack templateItem = displayOrder[entryIndex].getTemplateRef();
+            long totalAmount = displayAmounts[entryIndex];
             int maxStackSize = templateItem.getMaxStackSize();
 
-            // Create as many stacks as needed for this item type
-            while (totalAmount > 0 && currentSlot < maxSlots) {
-                int stackSize = (int) Math.min(totalAmount, maxStackSize);
+            // Skip the stacks of this entry that precede the range
+            long remaining = totalAmount - (slot - slotOffsets[entryIndex]) * maxStackSize;
+            long entryEnd = slotOffsets[entryIndex + 1];
 
-                // Create the display item only once per slot
+            while (slot < toSlot && slot < entryEnd && remaining > 0) {
+                int stackSize = (int) Math.min(remaining, maxStackSize);
                 ItemStack displayItem = templateItem.clone();
                 displayItem.setAmount(stackSize);
+                result.put(slot - fromSlot, displayItem);
 
-                // Store in cache
-                displayInventoryCache.put(currentSlot, displayItem);
+                remaining -= stackSize;
+                slot++;
+            }
+            entryIndex++;
+        }
+
+        return result;
+    }
 
-                totalAmount -= stackSize;
-                currentSlot++;
+    private int findEntryForSlot(int slot) {
+        // Last entry whose start offset is <= slot
+        int low = 0;
+        int high = displayOrder.length - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (slotOffsets[mid] <= slot) {
+                low = mid;
+            } else {
+                high = mid - 1;
             }
         }
+        return low;
+    }
+
+    private void ensureDisplayIndex() {
+        if (!displayCacheDirty && displayOrder != null) {
+            return;
+        }
 
-        // Update cache state
+        // Stable partition of the name order, no sorting needed
+        int count = signaturesByName.size();
+        ItemSignature[] order = new ItemSignature[count];
+        int next = 0;
+        if (preferredSortMaterial != null) {
+            for (ItemSignature sig : signaturesByName) {
+                if (sig.material == preferredSortMaterial) {
+                    order[next++] = sig;
+                }
+            }
+        }
+        for (ItemSignature sig : signaturesByName) {
+            if (preferredSortMaterial == null || sig.material != preferredSortMaterial) {
+                order[next++] = sig;
+            }
+        }
+
+        long[] amounts = new long[count];
+        long[] offsets = new long[count + 1];
+        for (int i = 0; i < count; i++) {
+            amounts[i] = amountOf(order[i]);
+            offsets[i + 1] = offsets[i] + slotsFor(amounts[i], order[i].getTemplateRef().getMaxStackSize());
+        }
+
+        displayOrder = order;
+        displayAmounts = amounts;
+        slotOffsets = offsets;
         displayCacheDirty = false;
-        usedSlotsCache = displayInventoryCache.size();
+    }
 
-        // Return unmodifiable map to prevent external changes
-        return Collections.unmodifiableMap(displayInventoryCache);
+    // Inserts a newly stored signature at its place in the name order, after equal names
+    private void indexSignature(ItemSignature sig) {
+        signaturesByName.add(upperBoundByName(sig.getMaterialName()), sig);
     }
 
-    public long getTotalItems() {
-        if (metricsCacheDirty) {
-            updateMetricsCache();
+    private void unindexSignature(ItemSignature sig) {
+        for (int i = upperBoundByName(sig.getMaterialName()) - 1; i >= 0; i--) {
+            ItemSignature candidate = signaturesByName.get(i);
+            if (!candidate.getMaterialName().equals(sig.getMaterialName())) {
+                break;
+            }
+            if (candidate.equals(sig)) {
+                signaturesByName.remove(i);
+                return;
+            }
         }
-        return totalItemsCache;
     }
 
+    private int upperBoundByName(String materialName) {
+        int low = 0;
+        int high = signaturesByName.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (signaturesByName.get(mid).getMaterialName().compareTo(materialName) <= 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // Applies the slot and item delta of one signature going from one amount to another
+    private void adjustCounters(ItemSignature sig, long previousAmount, long newAmount) {
+        int maxStackSize = sig.getTemplateRef().getMaxStackSize();
+        usedSlotCount += slotsFor(newAmount, maxStackSize) - slotsFor(previousAmount, maxStackSize);
+        totalItemCount += newAmount - previousAmount;
+    }
+
+    private static long slotsFor(long amount, int maxStackSize) {
+        return (amount + maxStackSize - 1) / maxStackSize;
+    }
+
+    public long getTotalItems() {
+        return totalItemCount;
+    }
+
+    /**
+     * Gets the stored items as a read-only map shared with the current snapshot.
+     * Nothing is copied unless the inventory changed since the last read.
+     */
     public Map<ItemSignature, Long> getConsolidatedItems() {
-        return new HashMap<>(consolidatedItems);
+        return getSnapshot().getItems();
     }
 
-    public int getUsedSlots() {
-        // If cache is dirty but we haven't regenerated the display inventory yet,
-        // calculate a quick estimate instead of rebuilding the whole display
-        if (displayCacheDirty) {
-            if (consolidatedItems.isEmpty()) {
-                return 0;
-            }
+    /**
+     * Gets the version of the contents, which changes with every add or remove
+     */
+    public long getVersion() {
+        return modCount >>> 1;
+    }
 
-            // Quick estimate - not perfectly accurate but avoids full rebuilds
-            int estimatedSlots = 0;
-            for (Map.Entry<ItemSignature, Long> entry : consolidatedItems.entrySet()) {
-                long amount = entry.getValue();
-                int maxStackSize = entry.getKey().getTemplateRef().getMaxStackSize();
-                estimatedSlots += (int) Math.ceil((double) amount / maxStackSize);
-                if (estimatedSlots >= maxSlots) {
-                    return maxSlots; // Cap at max slots
+    /**
+     * Gets an immutable view of the contents. The same instance is handed to every reader
+     * until the inventory is modified, so repeated reads are free.
+     * <p>
+     * On the thread that modifies the inventory the result is always current. Other threads
+     * may get the last consistent snapshot instead when the inventory keeps changing while
+     * it is copied; compare its version with {@link #getVersion()} to tell.
+     */
+    public Snapshot getSnapshot() {
+        long stamp = modCount;
+        Snapshot current = snapshot;
+        if ((stamp & 1) == 0 && current.version == stamp >>> 1) {
+            return current;
+        }
+
+        for (int attempt = 0; attempt < SNAPSHOT_ATTEMPTS; attempt++) {
+            stamp = modCount;
+            if ((stamp & 1) == 0) {
+                Map<ItemSignature, Long> items = new HashMap<>();
+                forEachStored(items::put);
+                // Keeps the plain reads above from moving past the second modCount read
+                VarHandle.acquireFence();
+                if (modCount == stamp) {
+                    Snapshot built = new Snapshot(stamp >>> 1, items);
+                    snapshot = built;
+                    return built;
                 }
             }
-            return estimatedSlots;
+            Thread.onSpinWait();
         }
+        // Written to continuously from another thread, never hand out a torn copy
+        return snapshot;
+    }
 
-        return usedSlotsCache;
+    /**
+     * Checks whether the snapshot still describes this inventory's contents
+     */
+    public boolean isCurrent(Snapshot snapshot) {
+        return snapshot != null && snapshot == this.snapshot && snapshot.version == getVersion()
+                && (modCount & 1) == 0;
     }
 
-    private void updateMetricsCache() {
-        totalItemsCache = consolidatedItems.values().stream()
-                .mapToLong(Long::longValue)
-                .sum();
-        metricsCacheDirty = false;
+    private void beginMutation() {
+        modCount++;
+    }
+
+    private void endMutation(boolean changed) {
+        // Roll back to the previous version when nothing was modified
+        modCount = changed ? modCount + 1 : modCount - 1;
+    }
+
+    /**
+     * Immutable view of an inventory's contents at one version
+     */
+    public static final class Snapshot {
+        @Getter
+        private final long version;
+        @Getter
+        private final Map<ItemSignature, Long> items;
+        @Getter
+        private final long totalItems;
+
+        private Snapshot(long version, Map<ItemSignature, Long> items) {
+            this.version = version;
+            this.items = Collections.unmodifiableMap(items);
+            long total = 0;
+            for (long amount : items.values()) {
+                total += amount;
+            }
+            this.totalItems = total;
+        }
+
+        public long getAmount(ItemSignature signature) {
+            return items.getOrDefault(signature, 0L);
+        }
+
+        public boolean isEmpty() {
+            return items.isEmpty();
+        }
+    }
+
+    public int getUsedSlots() {
+        return (int) Math.min(usedSlotCount, maxSlots);
+    }
+
+    /**
+     * Recomputes the slot and item totals from scratch and compares them with the running
+     * counters, resetting the counters if they drifted. Only meant for debug checks.
+     *
+     * @return true if the counters were correct
+     */
+    public boolean verifyCounters() {
+        long[] totals = new long[2];
+        forEachStored((sig, amount) -> {
+            totals[0] += slotsFor(amount, sig.getTemplateRef().getMaxStackSize());
+            totals[1] += amount;
+        });
+        long slots = totals[0];
+        long items = totals[1];
+
+        boolean consistent = slots == usedSlotCount && items == totalItemCount;
+        usedSlotCount = slots;
+        totalItemCount = items;
+        return consistent;
+    }
+
+    /**
+     * Roughly estimates the heap retained by this inventory from its structure sizes,
+     * excluding the interned templates shared with other inventories
+     */
+    public long estimateHeapBytes() {
+        long bytes = 160; // the inventory, its map, list and counters
+        bytes += 16 + 8L * plainCounts.length;
+        bytes += 64L * consolidatedItems.size();
+        bytes += 16 + 4L * signaturesByName.size();
+        if (displayOrder != null) {
+            bytes += 48 + 20L * displayOrder.length;
+        }
+        Snapshot current = snapshot;
+        if (current != null) {
+            bytes += 64 + 56L * current.items.size();
+        }
+        return bytes;
     }
 
     public boolean isDirty() {
@@ -322,45 +813,16 @@ public class VirtualInventory {
 
     /**
      * Sorts items with the specified material type prioritized first.
-     * This method optimizes by only invalidating caches when necessary.
-     * 
+     * The name order is maintained incrementally, so this only changes which entries are
+     * pinned to the front on the next display rebuild.
+     *
      * @param preferredMaterial The material to sort first, or null for no preference
      */
     public void sortItems(org.bukkit.Material preferredMaterial) {
-        // Store the preferred material for future cache rebuilds
-        this.preferredSortMaterial = preferredMaterial;
-        
-        // Clear the sorted cache to force re-sorting with new preference
-        this.sortedEntriesCache = null;
-        
-        // Only proceed if we have items to sort
-        if (consolidatedItems.isEmpty()) {
-            this.displayCacheDirty = true;
+        if (this.preferredSortMaterial == preferredMaterial) {
             return;
         }
-        
-        // Generate new sorted entries with preference
-        if (preferredMaterial != null) {
-            this.sortedEntriesCache = consolidatedItems.entrySet().stream()
-                .sorted((e1, e2) -> {
-                    boolean e1Preferred = e1.getKey().getTemplate().getType() == preferredMaterial;
-                    boolean e2Preferred = e2.getKey().getTemplate().getType() == preferredMaterial;
-                    
-                    if (e1Preferred && !e2Preferred) return -1;
-                    if (!e1Preferred && e2Preferred) return 1;
-                    
-                    // Both preferred or both not preferred, sort by material name
-                    return e1.getKey().getMaterialName().compareTo(e2.getKey().getMaterialName());
-                })
-                .collect(java.util.stream.Collectors.toList());
-        } else {
-            // No preference, sort alphabetically by material name
-            this.sortedEntriesCache = consolidatedItems.entrySet().stream()
-                .sorted(Comparator.comparing(e -> e.getKey().getMaterialName()))
-                .collect(java.util.stream.Collectors.toList());
-        }
-        
-        // Mark display cache as dirty to force regeneration
+        this.preferredSortMaterial = preferredMaterial;
         this.displayCacheDirty = true;
     }
 }
\ No newline at end of file
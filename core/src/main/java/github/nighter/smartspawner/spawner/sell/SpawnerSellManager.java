@@ -30,14 +30,14 @@ public class SpawnerSellManager {
      * This method is async-optimized and uses cached sell values for efficiency
      */
     public void sellAllItems(Player player, SpawnerData spawner) {
-        // Try to acquire lock for thread safety
-        boolean lockAcquired = spawner.getLock().tryLock();
-        if (!lockAcquired) {
-            messageService.sendMessage(player, "sale_failed");
-            return;
-        }
+        // Sell what accrued up to now, captured once the settled loot is committed
+        plugin.getSpawnerLootGenerator().settleAccruedLoot(spawner)
+                .thenRun(() -> captureAndSell(player, spawner));
+    }
 
-        try {
+    private void captureAndSell(Player player, SpawnerData spawner) {
+        // Capture the inventory in order with pending loot commits instead of failing on contention
+        spawner.getMailbox().submit(() -> {
             VirtualInventory virtualInv = spawner.getVirtualInventory();
 
             // Quick check if there are items to sell
@@ -51,110 +51,95 @@ public class SpawnerSellManager {
                 spawner.recalculateSellValue();
             }
 
-            // Get all items for processing
-            Map<VirtualInventory.ItemSignature, Long> consolidatedItems = virtualInv.getConsolidatedItems();
+            // Capture the contents, the snapshot tells later whether anything changed since
+            VirtualInventory.Snapshot snapshot = virtualInv.getSnapshot();
 
             // Process selling async to avoid blocking main thread
             Scheduler.runTaskAsync(() -> {
                 // Use cached sell value for optimization
-                SellResult result = calculateSellValue(consolidatedItems, spawner);
+                SellResult result = calculateSellValue(snapshot.getItems(), spawner);
 
                 // Store the result in SpawnerData for later access
                 spawner.setLastSellResult(result);
 
-                // Return to main thread for inventory operations and player interaction
-                Scheduler.runLocationTask(spawner.getSpawnerLocation(), () -> {
-                    processSellResult(player, spawner, result);
-                });
+                // Return to the spawner's mailbox for inventory operations and player interaction
+                spawner.getMailbox().submit(() -> processSellResult(player, spawner, result, snapshot));
             });
-
-        } finally {
-            spawner.getLock().unlock();
-        }
+        });
     }
 
 
     /**
-     * Process the sell result on the main thread
+     * Process the sell result from the spawner's mailbox on its region thread
      */
-    private void processSellResult(Player player, SpawnerData spawner, SellResult sellResult) {
-        // Re-acquire lock for final operations
-        boolean finalLockAcquired = spawner.getLock().tryLock();
-        if (!finalLockAcquired) {
-            messageService.sendMessage(player, "sale_failed");
+    private void processSellResult(Player player, SpawnerData spawner, SellResult sellResult,
+                                   VirtualInventory.Snapshot snapshot) {
+        VirtualInventory virtualInv = spawner.getVirtualInventory();
+
+        // Double-check that we still have items and they match what we calculated
+        if (!sellResult.isSuccessful()) {
+            messageService.sendMessage(player, "no_sellable_items");
             return;
         }
 
-        try {
-            VirtualInventory virtualInv = spawner.getVirtualInventory();
-
-            // Double-check that we still have items and they match what we calculated
-            if (!sellResult.isSuccessful()) {
-                messageService.sendMessage(player, "no_sellable_items");
-                return;
-            }
-
-            // Validate that all items from the sell result still exist in the virtual inventory
-            // This prevents packet delay exploits where players can receive money while keeping items
-            if (!validateItemsStillExist(virtualInv, sellResult)) {
-                messageService.sendMessage(player, "sale_failed");
-                return;
-            }
-
-            // Perform the actual sale
-            double amount = sellResult.getTotalValue();
-            if(SpawnerSellEvent.getHandlerList().getRegisteredListeners().length != 0) {
-                SpawnerSellEvent event = new SpawnerSellEvent(player, spawner.getSpawnerLocation(), sellResult.getItemsToRemove(), amount);
-                Bukkit.getPluginManager().callEvent(event);
-                if(event.isCancelled()) return;
-                if(event.getMoneyAmount() >= 0) amount = event.getMoneyAmount();
-            }
-            boolean depositSuccess = plugin.getItemPriceManager()
-                    .deposit(amount, player);
+        // Validate that all items from the sell result still exist in the virtual inventory
+        // This prevents packet delay exploits where players can receive money while keeping items.
+        // Nothing to check when the inventory is unchanged since the capture.
+        if (!virtualInv.isCurrent(snapshot) && !validateItemsStillExist(virtualInv, sellResult)) {
+            messageService.sendMessage(player, "sale_failed");
+            return;
+        }
 
-            if (!depositSuccess) {
-                messageService.sendMessage(player, "sell_failed");
-                return;
-            }
+        // Perform the actual sale
+        double amount = sellResult.getTotalValue();
+        if(SpawnerSellEvent.getHandlerList().getRegisteredListeners().length != 0) {
+            SpawnerSellEvent event = new SpawnerSellEvent(player, spawner.getSpawnerLocation(), sellResult.getItemsToRemove(), amount);
+            Bukkit.getPluginManager().callEvent(event);
+            if(event.isCancelled()) return;
+            if(event.getMoneyAmount() >= 0) amount = event.getMoneyAmount();
+        }
+        boolean depositSuccess = plugin.getItemPriceManager()
+                .deposit(amount, player);
 
-            // Remove sold items from virtual inventory and update sell value
-            boolean itemsRemoved = spawner.removeItemsAndUpdateSellValue(sellResult.getItemsToRemove());
-            if (!itemsRemoved) {
-                // If items couldn't be removed (race condition), this indicates a critical issue
-                // The money has already been deposited, so we need to log this for investigation
-                plugin.getLogger().warning("Critical: Could not remove all items after depositing money for player " + 
-                    player.getName() + " at spawner " + spawner.getSpawnerId() + ". Possible exploit detected.");
-                // Note: Money has already been deposited, so we can't easily roll back without complex transaction handling
-            }
+        if (!depositSuccess) {
+            messageService.sendMessage(player, "sell_failed");
+            return;
+        }
 
-            // Update spawner state
-            spawner.updateHologramData();
+        // Remove sold items from virtual inventory and update sell value
+        boolean itemsRemoved = spawner.removeItemsAndUpdateSellValue(sellResult.getItemsToRemove());
+        if (!itemsRemoved) {
+            // If items couldn't be removed (race condition), this indicates a critical issue
+            // The money has already been deposited, so we need to log this for investigation
+            plugin.getLogger().warning("Critical: Could not remove all items after depositing money for player " + 
+                player.getName() + " at spawner " + spawner.getSpawnerId() + ". Possible exploit detected.");
+            // Note: Money has already been deposited, so we can't easily roll back without complex transaction handling
+        }
 
-            // Update capacity status if needed
-            if (spawner.getIsAtCapacity() &&
-                    virtualInv.getUsedSlots() < spawner.getMaxSpawnerLootSlots()) {
-                spawner.setIsAtCapacity(false);
-            }
+        // Update spawner state
+        spawner.updateHologramData();
 
-            // Update GUI viewers
-            spawnerGuiViewManager.updateSpawnerMenuViewers(spawner);
-            player.closeInventory();
+        // Update capacity status if needed
+        if (spawner.getIsAtCapacity() &&
+                virtualInv.getUsedSlots() < spawner.getMaxSpawnerLootSlots()) {
+            spawner.setIsAtCapacity(false);
+        }
 
-            // Send success message
-            Map<String, String> placeholders = new HashMap<>();
-            placeholders.put("amount", plugin.getLanguageManager().formatNumber(sellResult.getItemsSold()));
-            placeholders.put("price", plugin.getLanguageManager().formatNumber(amount));
-            messageService.sendMessage(player, "sell_success", placeholders);
+        // Update GUI viewers
+        spawnerGuiViewManager.updateSpawnerMenuViewers(spawner);
+        player.closeInventory();
 
-            // Mark spawner as modified for saving
-            plugin.getSpawnerManager().markSpawnerModified(spawner.getSpawnerId());
+        // Send success message
+        Map<String, String> placeholders = new HashMap<>();
+        placeholders.put("amount", plugin.getLanguageManager().formatNumber(sellResult.getItemsSold()));
+        placeholders.put("price", plugin.getLanguageManager().formatNumber(amount));
+        messageService.sendMessage(player, "sell_success", placeholders);
 
-            // Update the result as successful after processing
-            spawner.markLastSellAsProcessed();
+        // Mark spawner as modified for saving
+        plugin.getSpawnerManager().markSpawnerModified(spawner.getSpawnerId());
 
-        } finally {
-            spawner.getLock().unlock();
-        }
+        // Update the result as successful after processing
+        spawner.markLastSellAsProcessed();
     }
 
     /**
@@ -170,7 +155,7 @@ public class SpawnerSellManager {
 
         // We still need to create the items list for removal
         for (Map.Entry<VirtualInventory.ItemSignature, Long> entry : consolidatedItems.entrySet()) {
-            ItemStack template = entry.getKey().getTemplate();
+            ItemStack template = entry.getKey().getTemplateRef();
             long amount = entry.getValue();
             
             // Count items (we need this even if we skip price calculation)
@@ -201,7 +186,7 @@ public class SpawnerSellManager {
         Map<VirtualInventory.ItemSignature, Long> itemsToValidate = new HashMap<>();
         for (ItemStack item : sellResult.getItemsToRemove()) {
             if (item == null || item.getAmount() <= 0) continue;
-            VirtualInventory.ItemSignature sig = new VirtualInventory.ItemSignature(item);
+            VirtualInventory.ItemSignature sig = VirtualInventory.getSignature(item);
             itemsToValidate.merge(sig, (long) item.getAmount(), Long::sum);
         }
         
@@ -0,0 +1,240 @@
+package github.nighter.smartspawner.spawner.storage;
+
+import github.nighter.smartspawner.SmartSpawner;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.configuration.file.YamlConfiguration;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+
+/**
+ * Stores spawners in YAML files sharded by world and by 32x32 chunk region, laid out as
+ * spawners/&lt;world&gt;/r.&lt;x&gt;.&lt;z&gt;.yml like vanilla region files. Each shard uses the
+ * entry format of spawners_data.yml. A write only rewrites the shards holding changed
+ * spawners, and a world's shards are parsed in parallel the first time the world is read.
+ */
+public class ShardedYamlSpawnerStorage implements SpawnerStorage {
+    public static final String DIRECTORY_NAME = "spawners";
+    // 32 chunks of 16 blocks
+    private static final int REGION_SHIFT = 9;
+
+    private final SmartSpawner plugin;
+    private final int currentVersion;
+    private final File root;
+    // Parsed shards, loaded per world on first read or per shard on first write
+    private final Map<ShardKey, FileConfiguration> shards = new ConcurrentHashMap<>();
+    private final Set<String> loadedWorlds = ConcurrentHashMap.newKeySet();
+    // Shard of every spawner in a loaded shard, used to route deletes
+    private final Map<String, ShardKey> shardById = new ConcurrentHashMap<>();
+
+    public ShardedYamlSpawnerStorage(SmartSpawner plugin) {
+        this.plugin = plugin;
+        this.currentVersion = plugin.getDATA_VERSION();
+        this.root = new File(plugin.getDataFolder(), DIRECTORY_NAME);
+        if (!root.exists() && !root.mkdirs()) {
+            plugin.getLogger().warning("Could not create the " + DIRECTORY_NAME + " data directory");
+        }
+    }
+
+    private record ShardKey(String worldName, int regionX, int regionZ) {
+        static ShardKey of(SpawnerRecord record) {
+            return new ShardKey(record.worldName(), record.x() >> REGION_SHIFT, record.z() >> REGION_SHIFT);
+        }
+
+        File file(File root) {
+            return new File(new File(root, worldName), "r." + regionX + "." + regionZ + ".yml");
+        }
+    }
+
+    @Override
+    public synchronized void write(Collection<SpawnerRecord> modified, Collection<String> deleted) throws IOException {
+        Set<ShardKey> touched = new HashSet<>();
+
+        for (SpawnerRecord record : modified) {
+            ShardKey key = ShardKey.of(record);
+            YamlSpawnerStorage.writeRecord(shard(key), record);
+            shardById.put(record.id(), key);
+            touched.add(key);
+        }
+
+        for (String id : deleted) {
+            ShardKey key = shardById.remove(id);
+            if (key == null) {
+                // Deletes replayed from the journal can target worlds not read yet
+                for (String worldName : getWorldNames()) {
+                    loadShards(worldName);
+                }
+                key = shardById.remove(id);
+                if (key == null) {
+                    plugin.debug("Deleted spawner " + id + " is not stored");
+                    continue;
+                }
+            }
+            shard(key).set("spawners." + id, null);
+            touched.add(key);
+        }
+
+        // Keep saving the other shards if one fails, the caller retries the whole batch
+        IOException failure = null;
+        for (ShardKey key : touched) {
+            try {
+                saveShard(key, shard(key));
+            } catch (IOException e) {
+                plugin.getLogger().log(Level.SEVERE, "Could not save spawner shard " + key.file(root), e);
+                failure = e;
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private void saveShard(ShardKey key, FileConfiguration data) throws IOException {
+        File file = key.file(root);
+        ConfigurationSection spawners = data.getConfigurationSection("spawners");
+        if (spawners == null || spawners.getKeys(false).isEmpty()) {
+            // Drop empty shards rather than leaving files with only a header
+            if (file.exists() && !file.delete()) {
+                throw new IOException("Could not delete empty shard " + file);
+            }
+            return;
+        }
+
+        File directory = file.getParentFile();
+        if (!directory.exists() && !directory.mkdirs()) {
+            throw new IOException("Could not create " + directory);
+        }
+        data.set(YamlSpawnerStorage.DATA_VERSION_KEY, currentVersion);
+        data.save(file);
+    }
+
+    // Gets a shard for writing, parsing its file if it was not read yet
+    private FileConfiguration shard(ShardKey key) {
+        return shards.computeIfAbsent(key, k -> {
+            File file = k.file(root);
+            if (!file.exists()) {
+                return new YamlConfiguration();
+            }
+            FileConfiguration data = YamlConfiguration.loadConfiguration(file);
+            indexShard(k, data);
+            return data;
+        });
+    }
+
+    private void indexShard(ShardKey key, FileConfiguration data) {
+        ConfigurationSection spawners = data.getConfigurationSection("spawners");
+        if (spawners != null) {
+            for (String id : spawners.getKeys(false)) {
+                shardById.put(id, key);
+            }
+        }
+    }
+
+    // Parses every shard of a world not read yet, one task per shard
+    private void loadShards(String worldName) {
+        if (loadedWorlds.contains(worldName)) {
+            return;
+        }
+        File[] files = new File(root, worldName).listFiles((dir, name) -> name.startsWith("r.") && name.endsWith(".yml"));
+        if (files != null) {
+            Arrays.stream(files).parallel().forEach(file -> {
+                ShardKey key = parseKey(worldName, file.getName());
+                if (key != null) {
+                    shard(key);
+                }
+            });
+        }
+        loadedWorlds.add(worldName);
+    }
+
+    private static ShardKey parseKey(String worldName, String fileName) {
+        String[] parts = fileName.split("\\.");
+        if (parts.length != 4) {
+            return null;
+        }
+        try {
+            return new ShardKey(worldName, Integer.parseInt(parts[1]), Integer.parseInt(parts[2]));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public synchronized Map<String, SpawnerRecord> loadAll() {
+        Map<String, SpawnerRecord> records = new HashMap<>();
+        for (String worldName : getWorldNames()) {
+            records.putAll(loadWorld(worldName));
+        }
+        return records;
+    }
+
+    @Override
+    public synchronized Map<String, SpawnerRecord> loadWorld(String worldName) {
+        loadShards(worldName);
+
+        Map<String, SpawnerRecord> records = Collections.synchronizedMap(new HashMap<>());
+        List<Map.Entry<ShardKey, FileConfiguration>> worldShards = new ArrayList<>();
+        for (Map.Entry<ShardKey, FileConfiguration> entry : shards.entrySet()) {
+            if (entry.getKey().worldName().equals(worldName)) {
+                worldShards.add(entry);
+            }
+        }
+
+        worldShards.parallelStream().forEach(entry -> {
+            FileConfiguration data = entry.getValue();
+            ConfigurationSection spawners = data.getConfigurationSection("spawners");
+            if (spawners == null) return;
+            int version = data.getInt(YamlSpawnerStorage.DATA_VERSION_KEY, 1);
+            for (String id : spawners.getKeys(false)) {
+                records.put(id, YamlSpawnerStorage.readRecord(plugin, data, id, version));
+            }
+        });
+        return records;
+    }
+
+    @Override
+    public synchronized Set<String> getWorldNames() {
+        Set<String> worlds = new HashSet<>();
+        File[] directories = root.listFiles(File::isDirectory);
+        if (directories != null) {
+            for (File directory : directories) {
+                String[] shardFiles = directory.list((dir, name) -> name.startsWith("r.") && name.endsWith(".yml"));
+                if (shardFiles != null && shardFiles.length > 0) {
+                    worlds.add(directory.getName());
+                }
+            }
+        }
+        // Shards written this session but possibly not yet saved
+        for (ShardKey key : shards.keySet()) {
+            worlds.add(key.worldName());
+        }
+        return worlds;
+    }
+
+    @Override
+    public synchronized SpawnerRecord load(String spawnerId) {
+        ShardKey key = shardById.get(spawnerId);
+        if (key == null) {
+            // Unknown until its world is read
+            for (String worldName : getWorldNames()) {
+                loadShards(worldName);
+            }
+            key = shardById.get(spawnerId);
+            if (key == null) {
+                return null;
+            }
+        }
+        FileConfiguration data = shard(key);
+        return YamlSpawnerStorage.readRecord(plugin, data, spawnerId,
+                data.getInt(YamlSpawnerStorage.DATA_VERSION_KEY, 1));
+    }
+
+    @Override
+    public void close() {
+        // Shards are saved as they are written, nothing is held open
+    }
+}
@@ -0,0 +1,243 @@
+package github.nighter.smartspawner.spawner.storage;
+
+import github.nighter.smartspawner.spawner.properties.SpawnerData;
+import org.bukkit.Location;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Summary of every stored spawner, grouped by world and chunk, so spawners can be found and
+ * counted without materializing them. Kept current as spawners are marked modified or deleted
+ * and saved to spawner_index.dat after each flush.
+ */
+public class SpawnerIndex {
+    public static final String FILE_NAME = "spawner_index.dat";
+    private static final int MAGIC = 0x53534958; // "SSIX"
+    private static final int FORMAT_VERSION = 1;
+
+    /**
+     * The fields needed by counts, chunk limits and list views
+     */
+    public record Entry(String id, String worldName, int x, int y, int z, String entityType,
+                        int stackSize, boolean stopped, String lastInteractedPlayer) {
+
+        public static Entry of(SpawnerRecord record) {
+            SpawnerRecord.Settings settings = record.settings();
+            return new Entry(record.id(), record.worldName(), record.x(), record.y(), record.z(),
+                    record.entityType(), settings != null ? settings.stackSize() : 1,
+                    settings != null && settings.stopped(), record.lastInteractedPlayer());
+        }
+
+        public static Entry of(SpawnerData spawner) {
+            Location loc = spawner.getSpawnerLocation();
+            return new Entry(spawner.getSpawnerId(), loc.getWorld().getName(),
+                    loc.getBlockX(), loc.getBlockY(), loc.getBlockZ(),
+                    spawner.getEntityType() != null ? spawner.getEntityType().name() : null,
+                    spawner.getStackSize(), spawner.getSpawnerStop().get(), spawner.getLastInteractedPlayer());
+        }
+
+        public int chunkX() {
+            return x >> 4;
+        }
+
+        public int chunkZ() {
+            return z >> 4;
+        }
+    }
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    // World name to chunk key to spawner ids
+    private final Map<String, Map<Long, Set<String>>> chunks = new ConcurrentHashMap<>();
+    private volatile boolean modified;
+
+    public static long chunkKey(int chunkX, int chunkZ) {
+        return ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+    }
+
+    public synchronized void put(Entry entry) {
+        Entry previous = entries.put(entry.id(), entry);
+        if (entry.equals(previous)) {
+            return;
+        }
+        if (previous != null) {
+            unlink(previous);
+        }
+        chunks.computeIfAbsent(entry.worldName(), k -> new ConcurrentHashMap<>())
+                .computeIfAbsent(chunkKey(entry.chunkX(), entry.chunkZ()), k -> ConcurrentHashMap.newKeySet())
+                .add(entry.id());
+        modified = true;
+    }
+
+    public synchronized void remove(String spawnerId) {
+        Entry previous = entries.remove(spawnerId);
+        if (previous != null) {
+            unlink(previous);
+            modified = true;
+        }
+    }
+
+    private void unlink(Entry entry) {
+        Map<Long, Set<String>> worldChunks = chunks.get(entry.worldName());
+        if (worldChunks == null) return;
+        long key = chunkKey(entry.chunkX(), entry.chunkZ());
+        Set<String> ids = worldChunks.get(key);
+        if (ids != null) {
+            ids.remove(entry.id());
+            if (ids.isEmpty()) {
+                worldChunks.remove(key);
+            }
+        }
+        if (worldChunks.isEmpty()) {
+            chunks.remove(entry.worldName());
+        }
+    }
+
+    /**
+     * Applies a batch of stored changes
+     */
+    public void apply(Collection<SpawnerRecord> records, Collection<String> deleted) {
+        for (SpawnerRecord record : records) {
+            put(Entry.of(record));
+        }
+        for (String id : deleted) {
+            remove(id);
+        }
+    }
+
+    public Entry get(String spawnerId) {
+        return entries.get(spawnerId);
+    }
+
+    public Set<String> getIdsInChunk(String worldName, int chunkX, int chunkZ) {
+        Map<Long, Set<String>> worldChunks = chunks.get(worldName);
+        if (worldChunks == null) return Collections.emptySet();
+        Set<String> ids = worldChunks.get(chunkKey(chunkX, chunkZ));
+        return ids != null ? ids : Collections.emptySet();
+    }
+
+    /**
+     * Gets the keys of the chunks holding spawners in a world, see {@link #chunkKey}
+     */
+    public Set<Long> getChunkKeys(String worldName) {
+        Map<Long, Set<String>> worldChunks = chunks.get(worldName);
+        return worldChunks != null ? worldChunks.keySet() : Collections.emptySet();
+    }
+
+    public List<Entry> getEntries(String worldName) {
+        Map<Long, Set<String>> worldChunks = chunks.get(worldName);
+        if (worldChunks == null) return new ArrayList<>();
+
+        List<Entry> result = new ArrayList<>();
+        for (Set<String> ids : worldChunks.values()) {
+            for (String id : ids) {
+                Entry entry = entries.get(id);
+                if (entry != null) {
+                    result.add(entry);
+                }
+            }
+        }
+        return result;
+    }
+
+    public Collection<Entry> getEntries() {
+        return entries.values();
+    }
+
+    public int countInWorld(String worldName) {
+        Map<Long, Set<String>> worldChunks = chunks.get(worldName);
+        if (worldChunks == null) return 0;
+        int count = 0;
+        for (Set<String> ids : worldChunks.values()) {
+            count += ids.size();
+        }
+        return count;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Reads a saved index, replacing the current contents
+     *
+     * @param source Identifies the storage the index was built from
+     * @return false if the file is missing, unreadable or was built for another storage
+     */
+    public synchronized boolean load(File file, String source) {
+        if (!file.exists()) return false;
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION || !in.readUTF().equals(source)) {
+                return false;
+            }
+            entries.clear();
+            chunks.clear();
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                put(new Entry(in.readUTF(), in.readUTF(), in.readInt(), in.readInt(), in.readInt(),
+                        readNullable(in), in.readInt(), in.readBoolean(), readNullable(in)));
+            }
+            modified = false;
+            return true;
+        } catch (IOException e) {
+            entries.clear();
+            chunks.clear();
+            return false;
+        }
+    }
+
+    /**
+     * Writes the index if it changed since it was last loaded or saved
+     */
+    public void save(File file, String source) throws IOException {
+        List<Entry> snapshot;
+        synchronized (this) {
+            if (!modified && file.exists()) return;
+            snapshot = new ArrayList<>(entries.values());
+            modified = false;
+        }
+
+        File temp = new File(file.getParentFile(), file.getName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeUTF(source);
+            out.writeInt(snapshot.size());
+            for (Entry entry : snapshot) {
+                out.writeUTF(entry.id());
+                out.writeUTF(entry.worldName());
+                out.writeInt(entry.x());
+                out.writeInt(entry.y());
+                out.writeInt(entry.z());
+                writeNullable(out, entry.entityType());
+                out.writeInt(entry.stackSize());
+                out.writeBoolean(entry.stopped());
+                writeNullable(out, entry.lastInteractedPlayer());
+            }
+        } catch (IOException e) {
+            modified = true;
+            throw e;
+        }
+        try {
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            modified = true;
+            throw e;
+        }
+    }
+
+    private static void writeNullable(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readNullable(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
@@ -0,0 +1,470 @@
+package github.nighter.smartspawner.spawner.storage;
+
+import github.nighter.smartspawner.SmartSpawner;
+import github.nighter.smartspawner.spawner.utils.ItemStackSerializer;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only log of spawner changes made between storage flushes, so a crash loses at most
+ * one commit interval instead of everything since the last flush.
+ *
+ * Marks only queue the spawner id with a generation number. Once per commit interval the
+ * marked spawners are captured, diffed against their previous record in the same segment and
+ * written as one group with a single fsync, so repeated changes within a group are merged and
+ * a record only holds the field groups that differ. The inventory is only serialized when its
+ * snapshot changed. Before a flush the journal
+ * rolls to a new segment; once the flush is stored, the older segments are deleted. Segments
+ * left behind by a crash are replayed into the storage at startup.
+ *
+ * Each record is framed as length, payload and CRC32, so a torn write at the tail is detected
+ * and ignored.
+ */
+public class SpawnerJournal {
+    public static final String DIRECTORY_NAME = "journal";
+    private static final String SEGMENT_PREFIX = "journal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    private static final byte TYPE_UPSERT = 1;
+    private static final byte TYPE_DELETE = 2;
+
+    private static final int FIELDS_LOCATION = 1;
+    private static final int FIELDS_SETTINGS = 1 << 1;
+    private static final int FIELDS_META = 1 << 2;
+    private static final int FIELDS_INVENTORY = 1 << 3;
+    private static final int FIELDS_ALL = FIELDS_LOCATION | FIELDS_SETTINGS | FIELDS_META | FIELDS_INVENTORY;
+
+    private final SmartSpawner plugin;
+    private final File directory;
+    // Captures a marked spawner at commit time, null once it is gone
+    private final Function<String, SpawnerRecord.Capture> resolver;
+
+    // Spawners marked since the last commit, written to without holding the journal lock
+    private final Map<String, Mark> pending = new ConcurrentHashMap<>();
+    // Guarded by this: last state written per spawner in the current segment, the base for the next delta
+    private final Map<String, SpawnerRecord.Capture> lastWritten = new HashMap<>();
+    private FileChannel channel;
+    private long segment;
+    private boolean failed;
+
+    private record Mark(long generation, boolean deleted) {
+    }
+
+    public SpawnerJournal(SmartSpawner plugin, Function<String, SpawnerRecord.Capture> resolver) {
+        this.plugin = plugin;
+        this.resolver = resolver;
+        this.directory = new File(plugin.getDataFolder(), DIRECTORY_NAME);
+        if (!directory.exists() && !directory.mkdirs()) {
+            plugin.getLogger().warning("Could not create the " + DIRECTORY_NAME + " directory");
+        }
+    }
+
+    /**
+     * Result of replaying the segments left by the previous run
+     */
+    public record Replay(Map<String, SpawnerRecord> modified, Set<String> deleted) {
+        public boolean isEmpty() {
+            return modified.isEmpty() && deleted.isEmpty();
+        }
+    }
+
+    /**
+     * Reads every existing segment in order and returns the final state of each spawner
+     * they mention. Must be called before {@link #open()}.
+     */
+    public Replay replay() {
+        Map<String, SpawnerRecord> modified = new HashMap<>();
+        Set<String> deleted = new HashSet<>();
+
+        for (long seq : listSegments()) {
+            File file = segmentFile(seq);
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+                int records = 0;
+                while (true) {
+                    byte[] payload = readFrame(in);
+                    if (payload == null) break;
+                    applyRecord(payload, modified, deleted);
+                    records++;
+                }
+                plugin.debug("Replayed " + records + " journal records from " + file.getName());
+            } catch (IOException e) {
+                plugin.getLogger().log(Level.WARNING, "Could not fully read journal segment " + file.getName(), e);
+            }
+        }
+        return new Replay(modified, deleted);
+    }
+
+    // Returns the next valid payload, or null at the end or at a torn record
+    private byte[] readFrame(DataInputStream in) throws IOException {
+        int length;
+        try {
+            length = in.readInt();
+        } catch (EOFException e) {
+            return null;
+        }
+        if (length <= 0 || length > 64 * 1024 * 1024) {
+            plugin.getLogger().warning("Ignoring corrupt journal tail");
+            return null;
+        }
+        byte[] payload = new byte[length];
+        try {
+            in.readFully(payload);
+            int checksum = in.readInt();
+            CRC32 crc = new CRC32();
+            crc.update(payload);
+            if ((int) crc.getValue() != checksum) {
+                plugin.getLogger().warning("Ignoring journal record with a bad checksum");
+                return null;
+            }
+        } catch (EOFException e) {
+            // Cut off by a crash while writing
+            return null;
+        }
+        return payload;
+    }
+
+    private void applyRecord(byte[] payload, Map<String, SpawnerRecord> modified, Set<String> deleted) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+        byte type = in.readByte();
+        String id = in.readUTF();
+        if (type == TYPE_DELETE) {
+            modified.remove(id);
+            deleted.add(id);
+            return;
+        }
+
+        int fields = in.readUnsignedByte();
+        SpawnerRecord base = modified.get(id);
+        if (base == null && fields != FIELDS_ALL) {
+            plugin.debug("Skipping journal delta for spawner " + id + " without a base record");
+            return;
+        }
+        modified.put(id, readRecord(in, id, fields, base));
+        deleted.remove(id);
+    }
+
+    /**
+     * Opens a new segment for appending
+     */
+    public synchronized void open() throws IOException {
+        List<Long> existing = listSegments();
+        segment = existing.isEmpty() ? 1 : existing.get(existing.size() - 1) + 1;
+        channel = openSegment(segment);
+    }
+
+    private FileChannel openSegment(long seq) throws IOException {
+        return FileChannel.open(segmentFile(seq).toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    /**
+     * Queues a spawner for the next group commit, which captures its state at that point.
+     * Never blocks and does no serialization, safe to call on every change.
+     */
+    public void recordModified(String spawnerId, long generation) {
+        pending.put(spawnerId, new Mark(generation, false));
+    }
+
+    public void recordDeleted(String spawnerId, long generation) {
+        pending.put(spawnerId, new Mark(generation, true));
+    }
+
+    /**
+     * Captures the marked spawners, writes them as one group and forces it to disk
+     */
+    public synchronized void commit() {
+        if (pending.isEmpty() || channel == null) return;
+
+        Map<String, Mark> marks = new HashMap<>(pending);
+        // Only applied to lastWritten once the group is on disk
+        Map<String, SpawnerRecord.Capture> written = new HashMap<>(marks.size());
+        try {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream(256 * marks.size());
+            DataOutputStream out = new DataOutputStream(buffer);
+            ByteArrayOutputStream payloadBuffer = new ByteArrayOutputStream(256);
+            DataOutputStream payload = new DataOutputStream(payloadBuffer);
+            CRC32 crc = new CRC32();
+
+            for (Map.Entry<String, Mark> entry : marks.entrySet()) {
+                payloadBuffer.reset();
+                String id = entry.getKey();
+                if (entry.getValue().deleted()) {
+                    payload.writeByte(TYPE_DELETE);
+                    payload.writeUTF(id);
+                    written.put(id, null);
+                } else {
+                    SpawnerRecord.Capture capture = resolver.apply(id);
+                    if (capture == null) {
+                        // Removed since the mark, its delete is journaled separately
+                        continue;
+                    }
+                    payload.writeByte(TYPE_UPSERT);
+                    payload.writeUTF(id);
+                    try {
+                        writeRecord(payload, capture, changedFields(lastWritten.get(id), capture));
+                    } catch (RuntimeException e) {
+                        // Still dirty, the next flush stores it
+                        plugin.debug("Could not journal spawner " + id + ": " + e.getMessage());
+                        continue;
+                    }
+                    written.put(id, capture);
+                }
+                payload.flush();
+
+                byte[] bytes = payloadBuffer.toByteArray();
+                crc.reset();
+                crc.update(bytes);
+                out.writeInt(bytes.length);
+                out.write(bytes);
+                out.writeInt((int) crc.getValue());
+            }
+            out.flush();
+
+            ByteBuffer data = ByteBuffer.wrap(buffer.toByteArray());
+            while (data.hasRemaining()) {
+                channel.write(data);
+            }
+            channel.force(false);
+            failed = false;
+
+            for (Map.Entry<String, SpawnerRecord.Capture> entry : written.entrySet()) {
+                if (entry.getValue() == null) {
+                    lastWritten.remove(entry.getKey());
+                } else {
+                    lastWritten.put(entry.getKey(), entry.getValue());
+                }
+            }
+            // A spawner marked again meanwhile stays queued for the next group
+            for (Map.Entry<String, Mark> entry : marks.entrySet()) {
+                pending.remove(entry.getKey(), entry.getValue());
+            }
+        } catch (IOException e) {
+            // Keep the changes queued and retry with the next commit, they are also still dirty
+            if (!failed) {
+                plugin.getLogger().log(Level.SEVERE, "Could not write the spawner journal", e);
+                failed = true;
+            }
+        }
+    }
+
+    /**
+     * Commits what is pending and starts a new segment. Everything journaled before this call
+     * is covered by a flush that starts afterwards.
+     *
+     * @return The number of the segment that was closed
+     */
+    public synchronized long roll() {
+        commit();
+        long closed = segment;
+        try {
+            FileChannel next = openSegment(closed + 1);
+            if (channel != null) {
+                channel.close();
+            }
+            channel = next;
+            segment = closed + 1;
+            // The new segment must not depend on records in the old one
+            lastWritten.clear();
+        } catch (IOException e) {
+            plugin.getLogger().log(Level.SEVERE, "Could not start a new journal segment", e);
+            return -1;
+        }
+        return closed;
+    }
+
+    /**
+     * Deletes the segments up to and including the given one, after their changes were stored
+     */
+    public void truncate(long upToSegment) {
+        if (upToSegment < 0) return;
+        for (long seq : listSegments()) {
+            if (seq <= upToSegment && !segmentFile(seq).delete()) {
+                plugin.getLogger().warning("Could not delete journal segment " + seq);
+            }
+        }
+    }
+
+    /**
+     * Deletes every segment, used once the replayed changes were stored at startup
+     */
+    public void truncateAll() {
+        for (long seq : listSegments()) {
+            if (!segmentFile(seq).delete()) {
+                plugin.getLogger().warning("Could not delete journal segment " + seq);
+            }
+        }
+    }
+
+    public synchronized void close() {
+        commit();
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                plugin.getLogger().log(Level.WARNING, "Error closing the spawner journal", e);
+            }
+            channel = null;
+        }
+    }
+
+    public synchronized long getSegment() {
+        return segment;
+    }
+
+    private List<Long> listSegments() {
+        List<Long> segments = new ArrayList<>();
+        String[] names = directory.list((dir, name) -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX));
+        if (names != null) {
+            for (String name : names) {
+                try {
+                    segments.add(Long.parseLong(name.substring(SEGMENT_PREFIX.length(),
+                            name.length() - SEGMENT_SUFFIX.length())));
+                } catch (NumberFormatException ignored) {
+                    // Not a segment
+                }
+            }
+        }
+        Collections.sort(segments);
+        return segments;
+    }
+
+    private File segmentFile(long seq) {
+        return new File(directory, SEGMENT_PREFIX + seq + SEGMENT_SUFFIX);
+    }
+
+    private static int changedFields(SpawnerRecord.Capture previous, SpawnerRecord.Capture current) {
+        if (previous == null) {
+            return FIELDS_ALL;
+        }
+        int fields = 0;
+        if (!Objects.equals(previous.worldName(), current.worldName()) || previous.x() != current.x()
+                || previous.y() != current.y() || previous.z() != current.z()
+                || !Objects.equals(previous.entityType(), current.entityType())) {
+            fields |= FIELDS_LOCATION;
+        }
+        if (!Objects.equals(previous.settings(), current.settings())) {
+            fields |= FIELDS_SETTINGS;
+        }
+        if (!Objects.equals(previous.lastInteractedPlayer(), current.lastInteractedPlayer())
+                || !Objects.equals(previous.preferredSortItem(), current.preferredSortItem())
+                || !previous.filteredItems().equals(current.filteredItems())) {
+            fields |= FIELDS_META;
+        }
+        // Unchanged inventories hand out the same snapshot map, so this is usually an identity check
+        if (previous.items() != current.items() && !previous.items().equals(current.items())) {
+            fields |= FIELDS_INVENTORY;
+        }
+        return fields;
+    }
+
+    private static void writeRecord(DataOutputStream out, SpawnerRecord.Capture record, int fields) throws IOException {
+        out.writeByte(fields);
+        if ((fields & FIELDS_LOCATION) != 0) {
+            out.writeUTF(record.worldName());
+            out.writeInt(record.x());
+            out.writeInt(record.y());
+            out.writeInt(record.z());
+            writeNullable(out, record.entityType());
+        }
+        if ((fields & FIELDS_SETTINGS) != 0) {
+            SpawnerRecord.Settings s = record.settings();
+            out.writeBoolean(s != null);
+            if (s != null) {
+                out.writeInt(s.exp());
+                out.writeBoolean(s.active());
+                out.writeInt(s.range());
+                out.writeBoolean(s.stopped());
+                out.writeLong(s.spawnDelay());
+                out.writeInt(s.maxLootSlots());
+                out.writeInt(s.maxStoredExp());
+                out.writeInt(s.minMobs());
+                out.writeInt(s.maxMobs());
+                out.writeInt(s.stackSize());
+                out.writeInt(s.maxStackSize());
+                out.writeLong(s.lastSpawnTime());
+                out.writeBoolean(s.atCapacity());
+            }
+        }
+        if ((fields & FIELDS_META) != 0) {
+            writeNullable(out, record.lastInteractedPlayer());
+            writeNullable(out, record.preferredSortItem());
+            writeList(out, record.filteredItems());
+        }
+        if ((fields & FIELDS_INVENTORY) != 0) {
+            writeList(out, ItemStackSerializer.serializeInventory(record.items()));
+        }
+    }
+
+    // Reads the written field groups, taking the others from the base record
+    private static SpawnerRecord readRecord(DataInputStream in, String id, int fields, SpawnerRecord base) throws IOException {
+        String worldName = base != null ? base.worldName() : null;
+        int x = base != null ? base.x() : 0;
+        int y = base != null ? base.y() : 0;
+        int z = base != null ? base.z() : 0;
+        String entityType = base != null ? base.entityType() : null;
+        SpawnerRecord.Settings settings = base != null ? base.settings() : null;
+        String lastInteractedPlayer = base != null ? base.lastInteractedPlayer() : null;
+        String preferredSortItem = base != null ? base.preferredSortItem() : null;
+        List<String> filteredItems = base != null ? base.filteredItems() : Collections.emptyList();
+        List<String> inventory = base != null ? base.inventory() : Collections.emptyList();
+
+        if ((fields & FIELDS_LOCATION) != 0) {
+            worldName = in.readUTF();
+            x = in.readInt();
+            y = in.readInt();
+            z = in.readInt();
+            entityType = readNullable(in);
+        }
+        if ((fields & FIELDS_SETTINGS) != 0) {
+            settings = in.readBoolean() ? new SpawnerRecord.Settings(
+                    in.readInt(), in.readBoolean(), in.readInt(), in.readBoolean(), in.readLong(),
+                    in.readInt(), in.readInt(), in.readInt(), in.readInt(), in.readInt(), in.readInt(),
+                    in.readLong(), in.readBoolean()) : null;
+        }
+        if ((fields & FIELDS_META) != 0) {
+            lastInteractedPlayer = readNullable(in);
+            preferredSortItem = readNullable(in);
+            filteredItems = readList(in);
+        }
+        if ((fields & FIELDS_INVENTORY) != 0) {
+            inventory = readList(in);
+        }
+        return new SpawnerRecord(id, worldName, x, y, z, entityType, settings, lastInteractedPlayer,
+                preferredSortItem, filteredItems, inventory);
+    }
+
+    private static void writeNullable(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readNullable(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static void writeList(DataOutputStream out, List<String> values) throws IOException {
+        out.writeInt(values.size());
+        for (String value : values) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static List<String> readList(DataInputStream in) throws IOException {
+        int size = in.readInt();
+        List<String> values = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            values.add(in.readUTF());
+        }
+        return values;
+    }
+}
@@ -0,0 +1,206 @@
+package github.nighter.smartspawner.spawner.storage;
+
+import github.nighter.smartspawner.SmartSpawner;
+import github.nighter.smartspawner.spawner.properties.SpawnerData;
+import github.nighter.smartspawner.spawner.properties.VirtualInventory;
+import github.nighter.smartspawner.spawner.utils.ItemStackSerializer;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.entity.EntityType;
+import org.bukkit.inventory.ItemStack;
+
+import java.util.*;
+import java.util.logging.Logger;
+
+/**
+ * Persisted state of one spawner, independent of the storage format.
+ *
+ * @param settings  The stored settings, or null if the entry had none and defaults apply
+ * @param inventory The storage contents in {@link ItemStackSerializer} form
+ */
+public record SpawnerRecord(String id, String worldName, int x, int y, int z, String entityType,
+                            Settings settings, String lastInteractedPlayer, String preferredSortItem,
+                            List<String> filteredItems, List<String> inventory) {
+
+    /**
+     * @param maxStackSize The stored maximum stack size, or 0 if the entry predates it
+     */
+    public record Settings(int exp, boolean active, int range, boolean stopped, long spawnDelay,
+                           int maxLootSlots, int maxStoredExp, int minMobs, int maxMobs, int stackSize,
+                           int maxStackSize, long lastSpawnTime, boolean atCapacity) {
+    }
+
+    /**
+     * Persisted state of a spawner before its inventory is serialized. Taking one only copies
+     * fields and shares the inventory's immutable snapshot, so it is cheap enough for hot paths,
+     * while {@link #toRecord()} does the serialization and belongs off the region thread.
+     */
+    public record Capture(String id, String worldName, int x, int y, int z, String entityType,
+                          Settings settings, String lastInteractedPlayer, String preferredSortItem,
+                          List<String> filteredItems, Map<VirtualInventory.ItemSignature, Long> items) {
+
+        public SpawnerRecord toRecord() {
+            return new SpawnerRecord(id, worldName, x, y, z, entityType, settings, lastInteractedPlayer,
+                    preferredSortItem, filteredItems, ItemStackSerializer.serializeInventory(items));
+        }
+    }
+
+    /**
+     * Copies the persisted fields of a live spawner, without serializing its inventory
+     */
+    public static Capture snapshot(SpawnerData spawner) {
+        Location loc = spawner.getSpawnerLocation();
+        Settings settings = new Settings(
+                spawner.getSpawnerExp(),
+                spawner.getSpawnerActive(),
+                spawner.getSpawnerRange(),
+                spawner.getSpawnerStop().get(),
+                spawner.getSpawnDelay(),
+                spawner.getMaxSpawnerLootSlots(),
+                spawner.getMaxStoredExp(),
+                spawner.getMinMobs(),
+                spawner.getMaxMobs(),
+                spawner.getStackSize(),
+                spawner.getMaxStackSize(),
+                spawner.getLastSpawnTime(),
+                spawner.getIsAtCapacity());
+
+        List<String> filteredItems = new ArrayList<>();
+        for (Material material : spawner.getFilteredItems()) {
+            filteredItems.add(material.name());
+        }
+
+        // Read without waking hibernating spawners
+        return new Capture(spawner.getSpawnerId(), loc.getWorld().getName(),
+                loc.getBlockX(), loc.getBlockY(), loc.getBlockZ(),
+                spawner.getEntityType() != null ? spawner.getEntityType().name() : null,
+                settings, spawner.getLastInteractedPlayer(),
+                spawner.getPreferredSortItem() != null ? spawner.getPreferredSortItem().name() : null,
+                filteredItems, spawner.getStoredItems());
+    }
+
+    /**
+     * Reads the persisted fields of a live spawner
+     */
+    public static SpawnerRecord capture(SpawnerData spawner) {
+        return snapshot(spawner).toRecord();
+    }
+
+    /**
+     * Gets the location in the "world,x,y,z" form used by the data files
+     */
+    public String getLocationString() {
+        return String.format("%s,%d,%d,%d", worldName, x, y, z);
+    }
+
+    /**
+     * Builds the live spawner from this record
+     *
+     * @param logErrors Whether to log why the spawner could not be built
+     * @return The spawner, or null if its world is not loaded or the record is invalid
+     */
+    public SpawnerData toSpawnerData(SmartSpawner plugin, boolean logErrors) {
+        Logger logger = plugin.getLogger();
+
+        World world = Bukkit.getWorld(worldName);
+        if (world == null) {
+            if (logErrors) {
+                logger.severe("World not found for spawner " + id + ": " + worldName);
+            } else {
+                plugin.debug("World not yet loaded for spawner " + id + ": " + worldName);
+            }
+            return null;
+        }
+
+        if (entityType == null) {
+            if (logErrors) {
+                logger.severe("Missing entity type for spawner " + id);
+            }
+            return null;
+        }
+
+        EntityType type;
+        try {
+            type = EntityType.valueOf(entityType);
+        } catch (IllegalArgumentException e) {
+            if (logErrors) {
+                logger.severe("Invalid entity type for spawner " + id + ": " + entityType);
+            }
+            return null;
+        }
+
+        SpawnerData spawner = new SpawnerData(id, new Location(world, x, y, z), type, plugin);
+
+        if (settings != null) {
+            spawner.setSpawnerExpData(settings.exp());
+            spawner.setSpawnerActive(settings.active());
+            spawner.setSpawnerRange(settings.range());
+            spawner.getSpawnerStop().set(settings.stopped());
+            spawner.setSpawnDelay(settings.spawnDelay());
+            spawner.setMaxSpawnerLootSlots(settings.maxLootSlots());
+            spawner.setMaxStoredExp(settings.maxStoredExp());
+            spawner.setMinMobs(settings.minMobs());
+            spawner.setMaxMobs(settings.maxMobs());
+            spawner.loadStackSize(settings.stackSize());
+            if (settings.maxStackSize() > 0) {
+                spawner.setMaxStackSize(settings.maxStackSize());
+            }
+            spawner.setLastSpawnTime(settings.lastSpawnTime());
+            spawner.setIsAtCapacity(settings.atCapacity());
+        }
+
+        for (String materialName : filteredItems) {
+            try {
+                spawner.addFilteredItem(Material.valueOf(materialName.trim()));
+            } catch (IllegalArgumentException e) {
+                logger.warning("Invalid material in filtered items for spawner " + id + ": " + materialName);
+            }
+        }
+
+        VirtualInventory virtualInv = new VirtualInventory(spawner.getMaxSpawnerLootSlots());
+        if (!inventory.isEmpty()) {
+            try {
+                Map<ItemStack, Integer> items = ItemStackSerializer.deserializeInventory(inventory);
+                for (Map.Entry<ItemStack, Integer> entry : items.entrySet()) {
+                    ItemStack item = entry.getKey();
+                    int amount = entry.getValue();
+
+                    if (item != null && amount > 0) {
+                        while (amount > 0) {
+                            int batchSize = Math.min(amount, item.getMaxStackSize());
+                            ItemStack batch = item.clone();
+                            batch.setAmount(batchSize);
+                            virtualInv.addItems(Collections.singletonList(batch));
+                            amount -= batchSize;
+                        }
+                    }
+                }
+            } catch (Exception e) {
+                logger.warning("Error loading inventory for spawner " + id);
+                e.printStackTrace();
+            }
+        }
+
+        spawner.setVirtualInventory(virtualInv);
+
+        // Recalculate accumulated sell value after loading inventory
+        spawner.recalculateSellValue();
+
+        spawner.setLastInteractedPlayer(lastInteractedPlayer);
+
+        if (preferredSortItem != null && !preferredSortItem.isEmpty()) {
+            try {
+                Material sortItem = Material.valueOf(preferredSortItem);
+                spawner.setPreferredSortItem(sortItem);
+                // Apply the sort preference to the virtual inventory
+                virtualInv.sortItems(sortItem);
+            } catch (IllegalArgumentException e) {
+                logger.warning("Invalid preferred sort item for spawner " + id + ": " + preferredSortItem);
+            }
+        }
+
+        return spawner;
+    }
+}
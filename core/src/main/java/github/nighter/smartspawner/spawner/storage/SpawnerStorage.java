@@ -0,0 +1,49 @@
+package github.nighter.smartspawner.spawner.storage;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Persistent store for spawner data. Writes only receive the spawners changed since the
+ * previous write, so a backend can keep the cost of a save proportional to the changes.
+ * Implementations must be safe to call from any thread.
+ */
+public interface SpawnerStorage {
+
+    /**
+     * Stores the modified spawners and removes the deleted ones as one operation
+     *
+     * @throws IOException if nothing could be stored, the caller retries on the next flush
+     */
+    void write(Collection<SpawnerRecord> modified, Collection<String> deleted) throws IOException;
+
+    /**
+     * Reads every stored spawner. Entries that cannot be parsed are mapped to null.
+     */
+    Map<String, SpawnerRecord> loadAll();
+
+    /**
+     * Reads the stored spawners of one world, leaving other worlds unparsed where the
+     * format allows it
+     */
+    Map<String, SpawnerRecord> loadWorld(String worldName);
+
+    /**
+     * Gets the worlds that have stored spawners
+     */
+    Set<String> getWorldNames();
+
+    /**
+     * Reads one stored spawner
+     *
+     * @return The record, or null if it is not stored or cannot be parsed
+     */
+    SpawnerRecord load(String spawnerId);
+
+    /**
+     * Releases files and connections, called once after the final write
+     */
+    void close();
+}
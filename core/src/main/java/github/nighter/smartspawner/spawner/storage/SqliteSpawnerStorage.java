@@ -0,0 +1,334 @@
+package github.nighter.smartspawner.spawner.storage;
+
+import github.nighter.smartspawner.SmartSpawner;
+
+import java.io.File;
+import java.io.IOException;
+import java.sql.*;
+import java.util.*;
+import java.util.logging.Level;
+
+/**
+ * Stores spawners in an embedded SQLite database. A write upserts and deletes only the given
+ * spawners in one transaction, so its cost follows the number of changes rather than the
+ * number of stored spawners. Inventory contents are kept as one row per item variant.
+ */
+public class SqliteSpawnerStorage implements SpawnerStorage {
+    public static final String FILE_NAME = "spawners.db";
+    private static final String TIPPED_ARROW = "TIPPED_ARROW";
+
+    private static final String UPSERT_SPAWNER = "INSERT INTO spawners (id, world, x, y, z, entity_type, "
+            + "has_settings, exp, active, spawner_range, stopped, spawn_delay, max_loot_slots, max_stored_exp, "
+            + "min_mobs, max_mobs, stack_size, max_stack_size, last_spawn_time, at_capacity, "
+            + "last_interacted_player, preferred_sort_item, filtered_items) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?) "
+            + "ON CONFLICT(id) DO UPDATE SET world = excluded.world, x = excluded.x, y = excluded.y, "
+            + "z = excluded.z, entity_type = excluded.entity_type, has_settings = excluded.has_settings, "
+            + "exp = excluded.exp, active = excluded.active, spawner_range = excluded.spawner_range, "
+            + "stopped = excluded.stopped, spawn_delay = excluded.spawn_delay, "
+            + "max_loot_slots = excluded.max_loot_slots, max_stored_exp = excluded.max_stored_exp, "
+            + "min_mobs = excluded.min_mobs, max_mobs = excluded.max_mobs, stack_size = excluded.stack_size, "
+            + "max_stack_size = excluded.max_stack_size, last_spawn_time = excluded.last_spawn_time, "
+            + "at_capacity = excluded.at_capacity, last_interacted_player = excluded.last_interacted_player, "
+            + "preferred_sort_item = excluded.preferred_sort_item, filtered_items = excluded.filtered_items";
+    private static final String DELETE_ITEMS = "DELETE FROM spawner_items WHERE spawner_id = ?";
+    private static final String INSERT_ITEM =
+            "INSERT INTO spawner_items (spawner_id, material, variant, amount) VALUES (?, ?, ?, ?)";
+    private static final String DELETE_SPAWNER = "DELETE FROM spawners WHERE id = ?";
+
+    private final SmartSpawner plugin;
+    private final Connection connection;
+
+    public SqliteSpawnerStorage(SmartSpawner plugin) throws SQLException {
+        this.plugin = plugin;
+        File databaseFile = new File(plugin.getDataFolder(), FILE_NAME);
+        try {
+            Class.forName("org.sqlite.JDBC");
+        } catch (ClassNotFoundException e) {
+            throw new SQLException("SQLite driver not available", e);
+        }
+        this.connection = DriverManager.getConnection("jdbc:sqlite:" + databaseFile.getAbsolutePath());
+        createSchema();
+    }
+
+    private void createSchema() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            // WAL keeps writes append-only and lets reads proceed during a flush
+            statement.execute("PRAGMA journal_mode=WAL");
+            statement.execute("PRAGMA synchronous=NORMAL");
+            statement.execute("CREATE TABLE IF NOT EXISTS spawners ("
+                    + "id TEXT PRIMARY KEY, world TEXT NOT NULL, x INTEGER NOT NULL, y INTEGER NOT NULL, "
+                    + "z INTEGER NOT NULL, entity_type TEXT, has_settings INTEGER NOT NULL, exp INTEGER, "
+                    + "active INTEGER, spawner_range INTEGER, stopped INTEGER, spawn_delay INTEGER, "
+                    + "max_loot_slots INTEGER, max_stored_exp INTEGER, min_mobs INTEGER, max_mobs INTEGER, "
+                    + "stack_size INTEGER, max_stack_size INTEGER, last_spawn_time INTEGER, at_capacity INTEGER, "
+                    + "last_interacted_player TEXT, preferred_sort_item TEXT, filtered_items TEXT)");
+            statement.execute("CREATE TABLE IF NOT EXISTS spawner_items ("
+                    + "spawner_id TEXT NOT NULL, material TEXT NOT NULL, variant TEXT NOT NULL, "
+                    + "amount INTEGER NOT NULL, PRIMARY KEY (spawner_id, material, variant)) WITHOUT ROWID");
+            statement.execute("CREATE INDEX IF NOT EXISTS spawners_world ON spawners (world)");
+            statement.execute("PRAGMA user_version=" + plugin.getDATA_VERSION());
+        }
+    }
+
+    @Override
+    public synchronized void write(Collection<SpawnerRecord> modified, Collection<String> deleted) throws IOException {
+        if (modified.isEmpty() && deleted.isEmpty()) return;
+
+        try {
+            connection.setAutoCommit(false);
+            try (PreparedStatement upsertSpawner = connection.prepareStatement(UPSERT_SPAWNER);
+                 PreparedStatement deleteItems = connection.prepareStatement(DELETE_ITEMS);
+                 PreparedStatement insertItem = connection.prepareStatement(INSERT_ITEM);
+                 PreparedStatement deleteSpawner = connection.prepareStatement(DELETE_SPAWNER)) {
+
+                for (SpawnerRecord record : modified) {
+                    bindSpawner(upsertSpawner, record);
+                    upsertSpawner.addBatch();
+
+                    // Items are replaced as a whole, a spawner only holds a handful of rows
+                    deleteItems.setString(1, record.id());
+                    deleteItems.addBatch();
+                    for (ItemRow row : toRows(record.inventory())) {
+                        insertItem.setString(1, record.id());
+                        insertItem.setString(2, row.material());
+                        insertItem.setString(3, row.variant());
+                        insertItem.setLong(4, row.amount());
+                        insertItem.addBatch();
+                    }
+                }
+                for (String id : deleted) {
+                    deleteItems.setString(1, id);
+                    deleteItems.addBatch();
+                    deleteSpawner.setString(1, id);
+                    deleteSpawner.addBatch();
+                }
+
+                upsertSpawner.executeBatch();
+                deleteItems.executeBatch();
+                insertItem.executeBatch();
+                deleteSpawner.executeBatch();
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            throw new IOException("Could not write spawners to " + FILE_NAME, e);
+        }
+    }
+
+    private static void bindSpawner(PreparedStatement ps, SpawnerRecord record) throws SQLException {
+        ps.setString(1, record.id());
+        ps.setString(2, record.worldName());
+        ps.setInt(3, record.x());
+        ps.setInt(4, record.y());
+        ps.setInt(5, record.z());
+        ps.setString(6, record.entityType());
+
+        SpawnerRecord.Settings s = record.settings();
+        ps.setBoolean(7, s != null);
+        if (s != null) {
+            ps.setInt(8, s.exp());
+            ps.setBoolean(9, s.active());
+            ps.setInt(10, s.range());
+            ps.setBoolean(11, s.stopped());
+            ps.setLong(12, s.spawnDelay());
+            ps.setInt(13, s.maxLootSlots());
+            ps.setInt(14, s.maxStoredExp());
+            ps.setInt(15, s.minMobs());
+            ps.setInt(16, s.maxMobs());
+            ps.setInt(17, s.stackSize());
+            ps.setInt(18, s.maxStackSize());
+            ps.setLong(19, s.lastSpawnTime());
+            ps.setBoolean(20, s.atCapacity());
+        } else {
+            for (int i = 8; i <= 20; i++) {
+                ps.setNull(i, Types.INTEGER);
+            }
+        }
+
+        ps.setString(21, record.lastInteractedPlayer());
+        ps.setString(22, record.preferredSortItem());
+        ps.setString(23, record.filteredItems().isEmpty() ? null : String.join(",", record.filteredItems()));
+    }
+
+    @Override
+    public synchronized Map<String, SpawnerRecord> loadAll() {
+        Map<String, SpawnerRecord> records = new HashMap<>();
+        try (Statement statement = connection.createStatement()) {
+            Map<String, List<ItemRow>> items = new HashMap<>();
+            try (ResultSet rs = statement.executeQuery(
+                    "SELECT spawner_id, material, variant, amount FROM spawner_items")) {
+                while (rs.next()) {
+                    items.computeIfAbsent(rs.getString(1), k -> new ArrayList<>()).add(readItem(rs));
+                }
+            }
+            try (ResultSet rs = statement.executeQuery("SELECT * FROM spawners")) {
+                while (rs.next()) {
+                    String id = rs.getString("id");
+                    records.put(id, readSpawner(rs, items.getOrDefault(id, Collections.emptyList())));
+                }
+            }
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.SEVERE, "Could not read spawners from " + FILE_NAME, e);
+        }
+        return records;
+    }
+
+    @Override
+    public synchronized Map<String, SpawnerRecord> loadWorld(String worldName) {
+        Map<String, SpawnerRecord> records = new HashMap<>();
+        try (PreparedStatement itemQuery = connection.prepareStatement("SELECT i.spawner_id, i.material, "
+                + "i.variant, i.amount FROM spawner_items i JOIN spawners s ON s.id = i.spawner_id WHERE s.world = ?");
+             PreparedStatement spawnerQuery = connection.prepareStatement("SELECT * FROM spawners WHERE world = ?")) {
+            Map<String, List<ItemRow>> items = new HashMap<>();
+            itemQuery.setString(1, worldName);
+            try (ResultSet rs = itemQuery.executeQuery()) {
+                while (rs.next()) {
+                    items.computeIfAbsent(rs.getString(1), k -> new ArrayList<>()).add(readItem(rs));
+                }
+            }
+            spawnerQuery.setString(1, worldName);
+            try (ResultSet rs = spawnerQuery.executeQuery()) {
+                while (rs.next()) {
+                    String id = rs.getString("id");
+                    records.put(id, readSpawner(rs, items.getOrDefault(id, Collections.emptyList())));
+                }
+            }
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.SEVERE, "Could not read spawners of world " + worldName + " from " + FILE_NAME, e);
+        }
+        return records;
+    }
+
+    @Override
+    public synchronized Set<String> getWorldNames() {
+        Set<String> worlds = new HashSet<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT DISTINCT world FROM spawners")) {
+            while (rs.next()) {
+                worlds.add(rs.getString(1));
+            }
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.SEVERE, "Could not read worlds from " + FILE_NAME, e);
+        }
+        return worlds;
+    }
+
+    @Override
+    public synchronized SpawnerRecord load(String spawnerId) {
+        try (PreparedStatement spawnerQuery = connection.prepareStatement("SELECT * FROM spawners WHERE id = ?");
+             PreparedStatement itemQuery = connection.prepareStatement(
+                     "SELECT spawner_id, material, variant, amount FROM spawner_items WHERE spawner_id = ?")) {
+            List<ItemRow> items = new ArrayList<>();
+            itemQuery.setString(1, spawnerId);
+            try (ResultSet rs = itemQuery.executeQuery()) {
+                while (rs.next()) {
+                    items.add(readItem(rs));
+                }
+            }
+            spawnerQuery.setString(1, spawnerId);
+            try (ResultSet rs = spawnerQuery.executeQuery()) {
+                return rs.next() ? readSpawner(rs, items) : null;
+            }
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.SEVERE, "Could not read spawner " + spawnerId + " from " + FILE_NAME, e);
+            return null;
+        }
+    }
+
+    private static ItemRow readItem(ResultSet rs) throws SQLException {
+        return new ItemRow(rs.getString(2), rs.getString(3), rs.getLong(4));
+    }
+
+    private static SpawnerRecord readSpawner(ResultSet rs, List<ItemRow> items) throws SQLException {
+        SpawnerRecord.Settings settings = null;
+        if (rs.getBoolean("has_settings")) {
+            settings = new SpawnerRecord.Settings(
+                    rs.getInt("exp"),
+                    rs.getBoolean("active"),
+                    rs.getInt("spawner_range"),
+                    rs.getBoolean("stopped"),
+                    rs.getLong("spawn_delay"),
+                    rs.getInt("max_loot_slots"),
+                    rs.getInt("max_stored_exp"),
+                    rs.getInt("min_mobs"),
+                    rs.getInt("max_mobs"),
+                    rs.getInt("stack_size"),
+                    rs.getInt("max_stack_size"),
+                    rs.getLong("last_spawn_time"),
+                    rs.getBoolean("at_capacity"));
+        }
+
+        String filtered = rs.getString("filtered_items");
+        return new SpawnerRecord(rs.getString("id"), rs.getString("world"),
+                rs.getInt("x"), rs.getInt("y"), rs.getInt("z"), rs.getString("entity_type"), settings,
+                rs.getString("last_interacted_player"), rs.getString("preferred_sort_item"),
+                filtered != null && !filtered.isEmpty() ? Arrays.asList(filtered.split(",")) : Collections.emptyList(),
+                fromRows(items));
+    }
+
+    /**
+     * One stored item variant: the damage of a destructible item, the potion of a tipped arrow,
+     * or empty for plain items
+     */
+    record ItemRow(String material, String variant, long amount) {
+    }
+
+    // Splits the serialized inventory lines into one row per variant
+    static List<ItemRow> toRows(List<String> lines) {
+        List<ItemRow> rows = new ArrayList<>();
+        for (String line : lines) {
+            int separator = line.startsWith(TIPPED_ARROW + "#") ? TIPPED_ARROW.length() : line.indexOf(';');
+            if (separator < 0) {
+                int colon = line.lastIndexOf(':');
+                rows.add(new ItemRow(line.substring(0, colon), "", Long.parseLong(line.substring(colon + 1))));
+                continue;
+            }
+            String material = line.substring(0, separator);
+            for (String variant : line.substring(separator + 1).split(",")) {
+                int colon = variant.lastIndexOf(':');
+                rows.add(new ItemRow(material, variant.substring(0, colon), Long.parseLong(variant.substring(colon + 1))));
+            }
+        }
+        return rows;
+    }
+
+    // Rebuilds the serialized inventory lines from the rows
+    static List<String> fromRows(List<ItemRow> rows) {
+        Map<String, StringBuilder> lines = new LinkedHashMap<>();
+        for (ItemRow row : rows) {
+            StringBuilder line = lines.get(row.material());
+            if (row.variant().isEmpty()) {
+                lines.put(row.material(), new StringBuilder(row.material()).append(':').append(row.amount()));
+                continue;
+            }
+            if (line == null) {
+                char separator = row.material().equals(TIPPED_ARROW) ? '#' : ';';
+                line = new StringBuilder(row.material()).append(separator);
+                lines.put(row.material(), line);
+            } else {
+                line.append(',');
+            }
+            line.append(row.variant()).append(':').append(row.amount());
+        }
+
+        List<String> result = new ArrayList<>(lines.size());
+        for (StringBuilder line : lines.values()) {
+            result.add(line.toString());
+        }
+        return result;
+    }
+
+    @Override
+    public synchronized void close() {
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.WARNING, "Error closing " + FILE_NAME, e);
+        }
+    }
+}
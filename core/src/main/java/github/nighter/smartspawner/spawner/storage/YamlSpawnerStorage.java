@@ -0,0 +1,236 @@
+package github.nighter.smartspawner.spawner.storage;
+
+import github.nighter.smartspawner.SmartSpawner;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.configuration.file.YamlConfiguration;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.*;
+import java.util.logging.Logger;
+
+/**
+ * Stores all spawners in spawners_data.yml. Every write rewrites the whole file.
+ */
+public class YamlSpawnerStorage implements SpawnerStorage {
+    public static final String FILE_NAME = "spawners_data.yml";
+    static final String DATA_VERSION_KEY = "data_version";
+
+    private final SmartSpawner plugin;
+    private final Logger logger;
+    private final int currentVersion;
+    private File spawnerDataFile;
+    private FileConfiguration spawnerData;
+
+    public YamlSpawnerStorage(SmartSpawner plugin) {
+        this.plugin = plugin;
+        this.logger = plugin.getLogger();
+        this.currentVersion = plugin.getDATA_VERSION();
+        setupSpawnerDataFile();
+    }
+
+    private void setupSpawnerDataFile() {
+        spawnerDataFile = new File(plugin.getDataFolder(), FILE_NAME);
+        if (!spawnerDataFile.exists()) {
+            plugin.saveResource(FILE_NAME, false);
+        }
+
+        spawnerData = YamlConfiguration.loadConfiguration(spawnerDataFile);
+
+        int version = spawnerData.getInt(DATA_VERSION_KEY, 1);
+        if (version < currentVersion) {
+            logger.info("Data version " + version + " detected. Current version is " + currentVersion + ".");
+            logger.info("A migration will be attempted when the plugin fully loads.");
+        }
+    }
+
+    @Override
+    public synchronized void write(Collection<SpawnerRecord> modified, Collection<String> deleted) throws IOException {
+        if (modified.isEmpty() && deleted.isEmpty()) return;
+
+        if (!modified.isEmpty()) {
+            if (spawnerData.getConfigurationSection("spawners") == null) {
+                spawnerData.createSection("spawners");
+            }
+            spawnerData.set(DATA_VERSION_KEY, currentVersion);
+        }
+
+        for (SpawnerRecord record : modified) {
+            writeRecord(spawnerData, record);
+        }
+
+        for (String id : deleted) {
+            spawnerData.set("spawners." + id, null);
+        }
+
+        spawnerData.save(spawnerDataFile);
+    }
+
+    @Override
+    public synchronized Map<String, SpawnerRecord> loadAll() {
+        Map<String, SpawnerRecord> records = new HashMap<>();
+
+        ConfigurationSection spawnersSection = spawnerData.getConfigurationSection("spawners");
+        if (spawnersSection == null) return records;
+
+        for (String spawnerId : spawnersSection.getKeys(false)) {
+            // Add to map even if null so callers can report the entry
+            records.put(spawnerId, load(spawnerId));
+        }
+        return records;
+    }
+
+    @Override
+    public synchronized Map<String, SpawnerRecord> loadWorld(String worldName) {
+        Map<String, SpawnerRecord> records = new HashMap<>();
+
+        ConfigurationSection spawnersSection = spawnerData.getConfigurationSection("spawners");
+        if (spawnersSection == null) return records;
+
+        // Only entries of this world are parsed in full
+        String prefix = worldName + ",";
+        for (String spawnerId : spawnersSection.getKeys(false)) {
+            String location = spawnersSection.getString(spawnerId + ".location");
+            if (location != null && location.startsWith(prefix)) {
+                records.put(spawnerId, load(spawnerId));
+            }
+        }
+        return records;
+    }
+
+    @Override
+    public synchronized Set<String> getWorldNames() {
+        Set<String> worlds = new HashSet<>();
+        ConfigurationSection spawnersSection = spawnerData.getConfigurationSection("spawners");
+        if (spawnersSection == null) return worlds;
+
+        for (String spawnerId : spawnersSection.getKeys(false)) {
+            String location = spawnersSection.getString(spawnerId + ".location");
+            if (location != null && location.indexOf(',') > 0) {
+                worlds.add(location.substring(0, location.indexOf(',')));
+            }
+        }
+        return worlds;
+    }
+
+    @Override
+    public synchronized SpawnerRecord load(String spawnerId) {
+        return readRecord(plugin, spawnerData, spawnerId, spawnerData.getInt(DATA_VERSION_KEY, 1));
+    }
+
+    /**
+     * Writes a spawner entry under the "spawners" section of a data file
+     */
+    static void writeRecord(ConfigurationSection data, SpawnerRecord record) {
+        String path = "spawners." + record.id();
+
+        data.set(path + ".location", record.getLocationString());
+        data.set(path + ".entityType", record.entityType());
+
+        SpawnerRecord.Settings s = record.settings();
+        if (s != null) {
+            data.set(path + ".settings", String.format("%d,%b,%d,%b,%d,%d,%d,%d,%d,%d,%d,%d,%b",
+                    s.exp(), s.active(), s.range(), s.stopped(), s.spawnDelay(), s.maxLootSlots(),
+                    s.maxStoredExp(), s.minMobs(), s.maxMobs(), s.stackSize(), s.maxStackSize(),
+                    s.lastSpawnTime(), s.atCapacity()));
+        }
+
+        // Save last interacted player separately
+        data.set(path + ".lastInteractedPlayer", record.lastInteractedPlayer());
+
+        // Save preferred sort item
+        data.set(path + ".preferredSortItem", record.preferredSortItem());
+
+        data.set(path + ".filteredItems", record.filteredItems().isEmpty() ?
+                null : String.join(",", record.filteredItems()));
+
+        data.set(path + ".inventory", record.inventory());
+    }
+
+    /**
+     * Reads a spawner entry from the "spawners" section of a data file
+     *
+     * @return The record, or null if the entry is missing or invalid
+     */
+    static SpawnerRecord readRecord(SmartSpawner plugin, ConfigurationSection data, String spawnerId, int version) {
+        String path = "spawners." + spawnerId;
+
+        String locationString = data.getString(path + ".location");
+        if (locationString == null) {
+            plugin.debug("Invalid location for spawner " + spawnerId);
+            return null;
+        }
+
+        String[] locParts = locationString.split(",");
+        if (locParts.length != 4) {
+            plugin.debug("Invalid location format for spawner " + spawnerId);
+            return null;
+        }
+
+        SpawnerRecord.Settings settings = null;
+        String settingsString = data.getString(path + ".settings");
+        try {
+            if (settingsString != null) {
+                settings = parseSettings(settingsString.split(","), version);
+            }
+
+            String filteredItemsStr = data.getString(path + ".filteredItems");
+            List<String> filteredItems = filteredItemsStr != null && !filteredItemsStr.isEmpty()
+                    ? Arrays.asList(filteredItemsStr.split(",")) : Collections.emptyList();
+
+            return new SpawnerRecord(spawnerId, locParts[0],
+                    Integer.parseInt(locParts[1]), Integer.parseInt(locParts[2]), Integer.parseInt(locParts[3]),
+                    data.getString(path + ".entityType"), settings,
+                    data.getString(path + ".lastInteractedPlayer"),
+                    data.getString(path + ".preferredSortItem"),
+                    filteredItems, data.getStringList(path + ".inventory"));
+        } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+            plugin.getLogger().severe("Invalid settings format for spawner " + spawnerId);
+            plugin.getLogger().severe("Settings: " + settingsString);
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    private static SpawnerRecord.Settings parseSettings(String[] settings, int version) {
+        if (version >= 3) {
+            if (settings.length < 13) {
+                return null;
+            }
+            return new SpawnerRecord.Settings(
+                    Integer.parseInt(settings[0]),
+                    Boolean.parseBoolean(settings[1]),
+                    Integer.parseInt(settings[2]),
+                    Boolean.parseBoolean(settings[3]),
+                    Long.parseLong(settings[4]),
+                    Integer.parseInt(settings[5]),
+                    Integer.parseInt(settings[6]),
+                    Integer.parseInt(settings[7]),
+                    Integer.parseInt(settings[8]),
+                    Integer.parseInt(settings[9]),
+                    Integer.parseInt(settings[10]),
+                    Long.parseLong(settings[11]),
+                    Boolean.parseBoolean(settings[12]));
+        }
+        return new SpawnerRecord.Settings(
+                Integer.parseInt(settings[0]),
+                Boolean.parseBoolean(settings[1]),
+                Integer.parseInt(settings[2]),
+                Boolean.parseBoolean(settings[3]),
+                Long.parseLong(settings[4]),
+                Integer.parseInt(settings[5]),
+                Integer.parseInt(settings[6]),
+                Integer.parseInt(settings[7]),
+                Integer.parseInt(settings[8]),
+                Integer.parseInt(settings[9]),
+                0,
+                Long.parseLong(settings[10]),
+                false);
+    }
+
+    @Override
+    public void close() {
+        // Nothing held open between writes
+    }
+}
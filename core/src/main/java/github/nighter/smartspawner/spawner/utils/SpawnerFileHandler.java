@@ -2,60 +2,161 @@ package github.nighter.smartspawner.spawner.utils;
 
 import github.nighter.smartspawner.SmartSpawner;
 import github.nighter.smartspawner.spawner.properties.SpawnerData;
-import github.nighter.smartspawner.spawner.properties.VirtualInventory;
+import github.nighter.smartspawner.spawner.storage.ShardedYamlSpawnerStorage;
+import github.nighter.smartspawner.spawner.storage.SpawnerIndex;
+import github.nighter.smartspawner.spawner.storage.SpawnerJournal;
+import github.nighter.smartspawner.spawner.storage.SpawnerRecord;
+import github.nighter.smartspawner.spawner.storage.SpawnerStorage;
+import github.nighter.smartspawner.spawner.storage.SqliteSpawnerStorage;
+import github.nighter.smartspawner.spawner.storage.YamlSpawnerStorage;
 import github.nighter.smartspawner.Scheduler;
-import org.bukkit.Bukkit;
 import org.bukkit.Location;
-import org.bukkit.Material;
-import org.bukkit.configuration.ConfigurationSection;
-import org.bukkit.configuration.file.FileConfiguration;
-import org.bukkit.configuration.file.YamlConfiguration;
-import org.bukkit.entity.EntityType;
-import org.bukkit.inventory.ItemStack;
 
 import java.io.File;
-import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
 import java.util.logging.Logger;
-import java.util.stream.Collectors;
 
 public class SpawnerFileHandler {
+    private static final long CAPTURE_TIMEOUT_SECONDS = 10L;
+
     private final SmartSpawner plugin;
     private final Logger logger;
-    private File spawnerDataFile;
-    private FileConfiguration spawnerData;
-
-    private static final String DATA_VERSION_KEY = "data_version";
-    private final int CURRENT_VERSION;
-
-    private final Set<String> dirtySpawners = ConcurrentHashMap.newKeySet();
-    private final Set<String> deletedSpawners = ConcurrentHashMap.newKeySet();
-
-    private volatile boolean isSaving = false;
+    private final SpawnerStorage storage;
+    private final SpawnerJournal journal;
+    private final SpawnerIndex index;
+    private final File indexFile;
+
+    // Pending changes, mapped to the generation of the latest mark
+    private final Map<String, Long> dirtySpawners = new ConcurrentHashMap<>();
+    private final Map<String, Long> deletedSpawners = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+    // Final state of dirty spawners unloaded with their chunk, until a flush stores it
+    private final Map<String, SpawnerRecord.Capture> releasedSpawners = new ConcurrentHashMap<>();
+
+    private final AtomicBoolean saving = new AtomicBoolean(false);
+    // Held while a flush or the shutdown rolls the journal or writes, storage is closed under it
+    private final Object writeLock = new Object();
+    private volatile boolean closed = false;
     private Scheduler.Task saveTask = null;
+    private Scheduler.Task journalTask = null;
 
     public SpawnerFileHandler(SmartSpawner plugin) {
         this.plugin = plugin;
         this.logger = plugin.getLogger();
-        this.CURRENT_VERSION = plugin.getDATA_VERSION();
-        setupSpawnerDataFile();
+        this.storage = createStorage();
+        this.indexFile = new File(plugin.getDataFolder(), SpawnerIndex.FILE_NAME);
+        this.index = loadIndex();
+        this.journal = createJournal();
+        saveIndex();
         startSaveTask();
     }
 
-    private void setupSpawnerDataFile() {
-        spawnerDataFile = new File(plugin.getDataFolder(), "spawners_data.yml");
-        if (!spawnerDataFile.exists()) {
-            plugin.saveResource("spawners_data.yml", false);
+    private SpawnerStorage createStorage() {
+        String type = plugin.getConfig().getString("performance.storage.type", "yaml");
+        try {
+            switch (type.toLowerCase(Locale.ROOT)) {
+                case "sqlite":
+                    return importYamlData(new SqliteSpawnerStorage(plugin));
+                case "sharded":
+                    return importYamlData(new ShardedYamlSpawnerStorage(plugin));
+                case "yaml":
+                    break;
+                default:
+                    logger.warning("Unknown storage type '" + type + "', using yaml");
+            }
+        } catch (Exception e) {
+            logger.log(Level.SEVERE, "Could not open the " + type + " spawner storage, using "
+                    + YamlSpawnerStorage.FILE_NAME + " instead", e);
+        }
+        return new YamlSpawnerStorage(plugin);
+    }
+
+    // Copies the existing YAML data into an empty storage so switching backends keeps every spawner
+    private SpawnerStorage importYamlData(SpawnerStorage target) throws Exception {
+        if (!target.getWorldNames().isEmpty()
+                || !new File(plugin.getDataFolder(), YamlSpawnerStorage.FILE_NAME).exists()) {
+            return target;
+        }
+        List<SpawnerRecord> records = new ArrayList<>();
+        for (SpawnerRecord record : new YamlSpawnerStorage(plugin).loadAll().values()) {
+            if (record != null) {
+                records.add(record);
+            }
+        }
+        if (!records.isEmpty()) {
+            target.write(records, Collections.emptyList());
+            logger.info("Imported " + records.size() + " spawners from " + YamlSpawnerStorage.FILE_NAME);
+        }
+        return target;
+    }
+
+    // Reads the saved index, rebuilding it from the storage when missing or built for another backend
+    private SpawnerIndex loadIndex() {
+        SpawnerIndex index = new SpawnerIndex();
+        if (index.load(indexFile, getIndexSource())) {
+            plugin.debug("Loaded spawner index with " + index.size() + " spawners");
+            return index;
+        }
+
+        for (SpawnerRecord record : storage.loadAll().values()) {
+            if (record != null) {
+                index.put(SpawnerIndex.Entry.of(record));
+            }
+        }
+        logger.info("Built spawner index with " + index.size() + " spawners");
+        return index;
+    }
+
+    private String getIndexSource() {
+        return storage.getClass().getSimpleName();
+    }
+
+    private void saveIndex() {
+        try {
+            index.save(indexFile, getIndexSource());
+        } catch (Exception e) {
+            logger.log(Level.WARNING, "Could not save " + SpawnerIndex.FILE_NAME, e);
         }
+    }
 
-        spawnerData = YamlConfiguration.loadConfiguration(spawnerDataFile);
+    // Stores the changes left in the journal by a crash, then starts a fresh journal if enabled
+    private SpawnerJournal createJournal() {
+        SpawnerJournal journal = new SpawnerJournal(plugin, this::captureForJournal);
+        SpawnerJournal.Replay replay = journal.replay();
+        if (!replay.isEmpty()) {
+            try {
+                storage.write(replay.modified().values(), replay.deleted());
+                index.apply(replay.modified().values(), replay.deleted());
+                journal.truncateAll();
+                logger.info("Recovered " + replay.modified().size() + " modified and "
+                        + replay.deleted().size() + " deleted spawners from the journal");
+            } catch (Exception e) {
+                // Keep the segments so the next start can try again
+                logger.log(Level.SEVERE, "Could not store the changes recovered from the journal", e);
+            }
+        } else {
+            journal.truncateAll();
+        }
 
-        int version = spawnerData.getInt(DATA_VERSION_KEY, 1);
-        if (version < CURRENT_VERSION) {
-            logger.info("Data version " + version + " detected. Current version is " + CURRENT_VERSION + ".");
-            logger.info("A migration will be attempted when the plugin fully loads.");
+        if (!plugin.getConfig().getBoolean("performance.storage.journal.enabled", true)) {
+            return null;
+        }
+        try {
+            journal.open();
+        } catch (Exception e) {
+            logger.log(Level.SEVERE, "Could not open the spawner journal, changes are only saved on flush", e);
+            return null;
         }
+
+        long interval = Math.max(1L, plugin.getTimeFromConfig("performance.storage.journal.commit_interval", "1s"));
+        journalTask = Scheduler.runTaskTimerAsync(journal::commit, interval, interval);
+        return journal;
     }
 
     private void startSaveTask() {
@@ -69,366 +170,340 @@ public class SpawnerFileHandler {
 
         saveTask = Scheduler.runTaskTimerAsync(() -> {
             plugin.debug("Running scheduled save task");
+            if (plugin.getSpawnerLootGenerator() != null) {
+                plugin.getSpawnerLootGenerator().settleAllAccruedLoot();
+            }
             flushChanges();
         }, intervalTicks, intervalTicks);
     }
 
     public void markSpawnerModified(String spawnerId) {
         if (spawnerId != null) {
-            dirtySpawners.add(spawnerId);
+            // Mark dirty before journaling: if the journal rolls in between, the record
+            // lands in the new segment, which the flush does not truncate
+            long mark = generation.incrementAndGet();
+            dirtySpawners.put(spawnerId, mark);
             deletedSpawners.remove(spawnerId);
+            if (journal != null) {
+                // Only the id is queued, the spawner is captured at the next group commit
+                journal.recordModified(spawnerId, mark);
+            }
+
+            SpawnerData spawner = plugin.getSpawnerManager() != null
+                    ? plugin.getSpawnerManager().getSpawnerById(spawnerId) : null;
+            if (spawner != null) {
+                index.put(SpawnerIndex.Entry.of(spawner));
+            }
         }
     }
 
     public void markSpawnerDeleted(String spawnerId) {
         if (spawnerId != null) {
-            deletedSpawners.add(spawnerId);
+            long mark = generation.incrementAndGet();
+            deletedSpawners.put(spawnerId, mark);
             dirtySpawners.remove(spawnerId);
+            releasedSpawners.remove(spawnerId);
+            index.remove(spawnerId);
+            if (journal != null) {
+                journal.recordDeleted(spawnerId, mark);
+            }
         }
     }
 
+    // Runs on the journal's commit thread. Scalars of a live spawner are read best effort, the
+    // inventory comes from its immutable snapshot; the next flush stores a consistent state anyway.
+    private SpawnerRecord.Capture captureForJournal(String spawnerId) {
+        SpawnerData spawner = plugin.getSpawnerManager() != null
+                ? plugin.getSpawnerManager().getSpawnerById(spawnerId) : null;
+        if (spawner == null) {
+            return releasedSpawners.get(spawnerId);
+        }
+        try {
+            return SpawnerRecord.snapshot(spawner);
+        } catch (Exception e) {
+            // The spawner is still dirty and saved on the next flush
+            plugin.debug("Could not journal spawner " + spawnerId + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Takes a spawner that is being unloaded out of the dirty set, keeping its final state
+     * until the next flush stores it. Must be called on the spawner's region thread.
+     *
+     * @return false if the state could not be captured and the spawner must stay loaded
+     */
+    public boolean releaseSpawner(SpawnerData spawner) {
+        String id = spawner.getSpawnerId();
+        Long mark = dirtySpawners.get(id);
+        if (mark == null) {
+            // Nothing changed since the last flush
+            return true;
+        }
+        SpawnerRecord.Capture capture;
+        try {
+            capture = SpawnerRecord.snapshot(spawner);
+        } catch (Exception e) {
+            plugin.debug("Could not capture spawner " + id + ": " + e.getMessage());
+            return false;
+        }
+        releasedSpawners.put(id, capture);
+        dirtySpawners.remove(id, mark);
+        return true;
+    }
+
+    /**
+     * Reads the records of spawners that are not loaded, preferring released state that is not
+     * stored yet. Ids that are no longer stored are dropped from the index.
+     */
+    public Map<String, SpawnerRecord> loadRecords(Collection<String> ids) {
+        Map<String, SpawnerRecord> records = new HashMap<>(ids.size());
+        for (String id : ids) {
+            SpawnerRecord.Capture released = releasedSpawners.get(id);
+            SpawnerRecord record = released != null ? released.toRecord() : null;
+            if (record == null) {
+                try {
+                    record = storage.load(id);
+                } catch (Exception e) {
+                    plugin.debug("Error loading spawner " + id + ": " + e.getMessage());
+                    continue;
+                }
+            }
+            if (record != null) {
+                records.put(id, record);
+            } else if (!dirtySpawners.containsKey(id)) {
+                plugin.debug("Indexed spawner " + id + " is not stored, removing it from the index");
+                index.remove(id);
+            }
+        }
+        return records;
+    }
+
+    public SpawnerIndex getIndex() {
+        return index;
+    }
+
     public void flushChanges() {
-        if (dirtySpawners.isEmpty() && deletedSpawners.isEmpty()) {
+        if (dirtySpawners.isEmpty() && deletedSpawners.isEmpty() && releasedSpawners.isEmpty()) {
             plugin.debug("No changes to flush");
             return;
         }
 
-        if (isSaving) {
+        if (closed) {
+            return;
+        }
+
+        if (!saving.compareAndSet(false, true)) {
             plugin.debug("Flush operation already in progress");
             return;
         }
 
-        isSaving = true;
         plugin.debug("Flushing " + dirtySpawners.size() + " modified and " + deletedSpawners.size() + " deleted spawners");
 
         Scheduler.runTaskAsync(() -> {
             try {
-                if (!dirtySpawners.isEmpty()) {
-                    Set<String> toUpdate = new HashSet<>(dirtySpawners);
-                    dirtySpawners.removeAll(toUpdate);
-
-                    Map<String, SpawnerData> batch = new HashMap<>();
-                    for (String id : toUpdate) {
-                        SpawnerData spawner = plugin.getSpawnerManager().getSpawnerById(id);
-                        if (spawner != null) {
-                            batch.put(id, spawner);
-                        }
-                    }
-
-                    if (!batch.isEmpty()) {
-                        saveSpawnerBatch(batch);
-                    }
-                }
-
-                if (!deletedSpawners.isEmpty()) {
-                    Set<String> toDelete = new HashSet<>(deletedSpawners);
-                    deletedSpawners.removeAll(toDelete);
-
-                    for (String id : toDelete) {
-                        String path = "spawners." + id;
-                        spawnerData.set(path, null);
-                    }
-
-                    if (!toDelete.isEmpty()) {
-                        spawnerData.save(spawnerDataFile);
+                long journalSegment;
+                synchronized (writeLock) {
+                    if (closed) {
+                        saving.set(false);
+                        return;
                     }
+                    // Changes journaled from here on go to a new segment, the older ones are covered by this flush
+                    journalSegment = journal != null ? journal.roll() : -1;
                 }
-
-                // Automatic ghost spawner check removed - use /ss clear ghost_spawners command instead
+                Map<String, Long> toUpdate = new HashMap<>(dirtySpawners);
+                Map<String, Long> toDelete = new HashMap<>(deletedSpawners);
+                Map<String, SpawnerRecord.Capture> released = new HashMap<>(releasedSpawners);
+
+                captureSnapshots(toUpdate.keySet()).whenComplete((captures, error) ->
+                        Scheduler.runTaskAsync(() -> {
+                            try {
+                                if (error != null) {
+                                    logger.log(Level.SEVERE, "Error capturing spawners for saving", error);
+                                    return;
+                                }
+                                synchronized (writeLock) {
+                                    // Shutdown already stored everything that is still dirty
+                                    if (!closed) {
+                                        writeSnapshots(captures, released, toUpdate, toDelete, journalSegment);
+                                    }
+                                }
+                            } finally {
+                                saving.set(false);
+                            }
+                        }));
             } catch (Exception e) {
-                plugin.getLogger().severe("Error during flush: " + e.getMessage());
-                e.printStackTrace();
-
-                for (String id : dirtySpawners) {
-                    dirtySpawners.add(id);
-                }
-                for (String id : deletedSpawners) {
-                    deletedSpawners.add(id);
-                }
-            } finally {
-                isSaving = false;
+                logger.log(Level.SEVERE, "Error starting flush", e);
+                saving.set(false);
             }
         });
     }
 
-    private boolean saveSpawnerBatch(Map<String, SpawnerData> spawners) {
-        if (spawners.isEmpty()) return true;
-
-        try {
-            ConfigurationSection spawnersSection = spawnerData.getConfigurationSection("spawners");
-            if (spawnersSection == null) {
-                spawnersSection = spawnerData.createSection("spawners");
-            }
+    /**
+     * Captures the spawners on their region threads, with one task per 16x16-chunk section like
+     * loot commits. Each capture is taken under the spawner's lock and only copies fields and the
+     * inventory snapshot; serialization happens in the writer. Spawners that are busy, or whose
+     * section task does not run in time, are left out and stay dirty for the next flush.
+     */
+    private CompletableFuture<Map<String, SpawnerRecord.Capture>> captureSnapshots(Collection<String> ids) {
+        Map<SectionKey, List<SpawnerData>> sections = new HashMap<>();
+        for (String id : ids) {
+            SpawnerData spawner = plugin.getSpawnerManager().getSpawnerById(id);
+            if (spawner == null) continue;
+            Location loc = spawner.getSpawnerLocation();
+            if (loc == null || loc.getWorld() == null) continue;
+            SectionKey key = new SectionKey(loc.getWorld().getUID(), loc.getBlockX() >> 8, loc.getBlockZ() >> 8);
+            sections.computeIfAbsent(key, k -> new ArrayList<>()).add(spawner);
+        }
 
-            spawnerData.set(DATA_VERSION_KEY, CURRENT_VERSION);
-
-            for (Map.Entry<String, SpawnerData> entry : spawners.entrySet()) {
-                String spawnerId = entry.getKey();
-                SpawnerData spawner = entry.getValue();
-                String path = "spawners." + spawnerId;
-                Location loc = spawner.getSpawnerLocation();
-
-                spawnerData.set(path + ".location", String.format("%s,%d,%d,%d",
-                        loc.getWorld().getName(), loc.getBlockX(), loc.getBlockY(), loc.getBlockZ()));
-
-                spawnerData.set(path + ".entityType", spawner.getEntityType() != null ?
-                        spawner.getEntityType().name() : null);
-
-                String settings = String.format("%d,%b,%d,%b,%d,%d,%d,%d,%d,%d,%d,%d,%b",
-                        spawner.getSpawnerExp(),
-                        spawner.getSpawnerActive(),
-                        spawner.getSpawnerRange(),
-                        spawner.getSpawnerStop().get(),
-                        spawner.getSpawnDelay(),
-                        spawner.getMaxSpawnerLootSlots(),
-                        spawner.getMaxStoredExp(),
-                        spawner.getMinMobs(),
-                        spawner.getMaxMobs(),
-                        spawner.getStackSize(),
-                        spawner.getMaxStackSize(),
-                        spawner.getLastSpawnTime(),
-                        spawner.getIsAtCapacity());
-
-                spawnerData.set(path + ".settings", settings);
-                
-                // Save last interacted player separately
-                spawnerData.set(path + ".lastInteractedPlayer", spawner.getLastInteractedPlayer());
-
-                // Save preferred sort item
-                spawnerData.set(path + ".preferredSortItem", spawner.getPreferredSortItem() != null ?
-                        spawner.getPreferredSortItem().name() : null);
-
-                Set<Material> filteredItems = spawner.getFilteredItems();
-                if (filteredItems != null && !filteredItems.isEmpty()) {
-                    List<String> materials = filteredItems.stream()
-                            .map(Material::name)
-                            .collect(Collectors.toList());
-                    spawnerData.set(path + ".filteredItems", String.join(",", materials));
-                } else {
-                    spawnerData.set(path + ".filteredItems", null);
-                }
+        List<CompletableFuture<Map<String, SpawnerRecord.Capture>>> batches = new ArrayList<>(sections.size());
+        for (List<SpawnerData> spawners : sections.values()) {
+            CompletableFuture<Map<String, SpawnerRecord.Capture>> batch = new CompletableFuture<>();
+            Scheduler.runLocationTask(spawners.get(0).getSpawnerLocation(), () -> {
+                // Already given up on, the spawners stay dirty
+                if (batch.isDone()) return;
+                batch.complete(captureSection(spawners));
+            });
+            batches.add(batch.completeOnTimeout(Collections.emptyMap(), CAPTURE_TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        }
 
-                VirtualInventory virtualInv = spawner.getVirtualInventory();
-                if (virtualInv != null) {
-                    Map<VirtualInventory.ItemSignature, Long> items = virtualInv.getConsolidatedItems();
-                    List<String> serializedItems = ItemStackSerializer.serializeInventory(items);
-                    spawnerData.set(path + ".inventory", serializedItems);
-                }
+        return CompletableFuture.allOf(batches.toArray(new CompletableFuture[0])).thenApply(v -> {
+            Map<String, SpawnerRecord.Capture> captures = new HashMap<>(ids.size());
+            for (CompletableFuture<Map<String, SpawnerRecord.Capture>> batch : batches) {
+                captures.putAll(batch.join());
             }
-
-            spawnerData.save(spawnerDataFile);
-            return true;
-        } catch (IOException e) {
-            plugin.getLogger().severe("Could not save spawner batch to file!");
-            e.printStackTrace();
-            return false;
-        }
+            if (captures.size() < ids.size()) {
+                plugin.debug("Captured " + captures.size() + " of " + ids.size()
+                        + " modified spawners, the rest stay dirty for the next flush");
+            }
+            return captures;
+        });
     }
 
-    public Map<String, SpawnerData> loadAllSpawnersRaw() {
-        Map<String, SpawnerData> loadedSpawners = new HashMap<>();
-
-        ConfigurationSection spawnersSection = spawnerData.getConfigurationSection("spawners");
-        if (spawnersSection == null) return loadedSpawners;
+    private record SectionKey(UUID worldId, int sectionX, int sectionZ) {
+    }
 
-        for (String spawnerId : spawnersSection.getKeys(false)) {
+    // Runs on the section's region thread
+    private Map<String, SpawnerRecord.Capture> captureSection(List<SpawnerData> spawners) {
+        Map<String, SpawnerRecord.Capture> captures = new HashMap<>(spawners.size());
+        for (SpawnerData spawner : spawners) {
+            // Held briefly by another thread, skipped rather than stalling the region
+            if (!spawner.getLock().tryLock()) continue;
             try {
-                // Use non-logging version to suppress "World not found" errors during startup
-                SpawnerData spawner = loadSpawnerFromConfig(spawnerId, false);
-                // Add to map even if null (world not loaded)
-                loadedSpawners.put(spawnerId, spawner);
+                captures.put(spawner.getSpawnerId(), SpawnerRecord.snapshot(spawner));
             } catch (Exception e) {
-                plugin.debug("Error loading spawner " + spawnerId + ": " + e.getMessage());
-                // Add null entry to indicate error
-                loadedSpawners.put(spawnerId, null);
+                plugin.debug("Could not capture spawner " + spawner.getSpawnerId() + ": " + e.getMessage());
+            } finally {
+                spawner.getLock().unlock();
             }
         }
-
-        return loadedSpawners;
-    }
-
-    public SpawnerData loadSpecificSpawner(String spawnerId) {
-        try {
-            return loadSpawnerFromConfig(spawnerId, false);
-        } catch (Exception e) {
-            plugin.debug("Error loading spawner " + spawnerId + ": " + e.getMessage());
-            return null;
-        }
+        return captures;
     }
 
     /**
-     * Get the raw location string for a spawner (used by WorldEventHandler)
+     * Stores captured and released records and clears the dirty marks they cover. A mark is only
+     * cleared if its generation is unchanged, so a spawner changed again during the write stays
+     * dirty. On failure nothing is cleared and the next flush retries.
      */
-    public String getRawLocationString(String spawnerId) {
-        String path = "spawners." + spawnerId + ".location";
-        return spawnerData.getString(path);
-    }
-
-    private SpawnerData loadSpawnerFromConfig(String spawnerId) {
-        return loadSpawnerFromConfig(spawnerId, true);
-    }
-
-    private SpawnerData loadSpawnerFromConfig(String spawnerId, boolean logErrors) {
-        String path = "spawners." + spawnerId;
-
-        String locationString = spawnerData.getString(path + ".location");
-        if (locationString == null) {
-            if (logErrors) {
-                logger.severe("Invalid location for spawner " + spawnerId);
+    private void writeSnapshots(Map<String, SpawnerRecord.Capture> captures, Map<String, SpawnerRecord.Capture> released,
+                                Map<String, Long> toUpdate, Map<String, Long> toDelete, long journalSegment) {
+        if (captures.isEmpty() && released.isEmpty() && toDelete.isEmpty() && toUpdate.isEmpty()) {
+            if (journal != null) {
+                journal.truncate(journalSegment);
             }
-            return null;
+            return;
         }
 
-        String[] locParts = locationString.split(",");
-        if (locParts.length != 4) {
-            if (logErrors) {
-                logger.severe("Invalid location format for spawner " + spawnerId);
-            }
-            return null;
+        // A live capture is newer than the state released by an earlier unload
+        Map<String, SpawnerRecord> batch = new HashMap<>(released.size() + captures.size());
+        for (Map.Entry<String, SpawnerRecord.Capture> entry : released.entrySet()) {
+            batch.put(entry.getKey(), entry.getValue().toRecord());
         }
-
-        org.bukkit.World world = Bukkit.getWorld(locParts[0]);
-        if (world == null) {
-            if (logErrors) {
-                logger.severe("World not found for spawner " + spawnerId + ": " + locParts[0]);
-            } else {
-                plugin.debug("World not yet loaded for spawner " + spawnerId + ": " + locParts[0]);
+        Set<String> captured = new HashSet<>(captures.size());
+        for (Map.Entry<String, SpawnerRecord.Capture> entry : captures.entrySet()) {
+            try {
+                batch.put(entry.getKey(), entry.getValue().toRecord());
+                captured.add(entry.getKey());
+            } catch (Exception e) {
+                // Left dirty for the next flush
+                plugin.debug("Could not serialize spawner " + entry.getKey() + ": " + e.getMessage());
             }
-            return null;
         }
-
-        Location location = new Location(world,
-                Integer.parseInt(locParts[1]),
-                Integer.parseInt(locParts[2]),
-                Integer.parseInt(locParts[3]));
-
-        String entityTypeString = spawnerData.getString(path + ".entityType");
-        if (entityTypeString == null) {
-            if (logErrors) {
-                logger.severe("Missing entity type for spawner " + spawnerId);
-            }
-            return null;
+        // Drop the saved index first, a crash before it is saved again then rebuilds it from the
+        // storage instead of loading one that misses spawners written here
+        if (indexFile.exists() && !indexFile.delete()) {
+            logger.warning("Could not invalidate " + SpawnerIndex.FILE_NAME + " before writing spawners");
         }
-
-        EntityType entityType;
         try {
-            entityType = EntityType.valueOf(entityTypeString);
-        } catch (IllegalArgumentException e) {
-            if (logErrors) {
-                logger.severe("Invalid entity type for spawner " + spawnerId + ": " + entityTypeString);
-            }
-            return null;
+            storage.write(batch.values(), toDelete.keySet());
+        } catch (Exception e) {
+            plugin.getLogger().severe("Error during flush: " + e.getMessage());
+            e.printStackTrace();
+            return;
         }
 
-        SpawnerData spawner = new SpawnerData(spawnerId, location, entityType, plugin);
-
-        String settingsString = spawnerData.getString(path + ".settings");
-        if (settingsString != null) {
-            String[] settings = settingsString.split(",");
-
-            int version = spawnerData.getInt(DATA_VERSION_KEY, 1);
-
-            try {
-                if (version >= 3) {
-                    if (settings.length >= 13) {
-                        spawner.setSpawnerExpData(Integer.parseInt(settings[0]));
-                        spawner.setSpawnerActive(Boolean.parseBoolean(settings[1]));
-                        spawner.setSpawnerRange(Integer.parseInt(settings[2]));
-                        spawner.getSpawnerStop().set(Boolean.parseBoolean(settings[3]));
-                        spawner.setSpawnDelay(Integer.parseInt(settings[4]));
-                        spawner.setMaxSpawnerLootSlots(Integer.parseInt(settings[5]));
-                        spawner.setMaxStoredExp(Integer.parseInt(settings[6]));
-                        spawner.setMinMobs(Integer.parseInt(settings[7]));
-                        spawner.setMaxMobs(Integer.parseInt(settings[8]));
-                        spawner.setStackSize(Integer.parseInt(settings[9]));
-                        spawner.setMaxStackSize(Integer.parseInt(settings[10]));
-                        spawner.setLastSpawnTime(Long.parseLong(settings[11]));
-                        spawner.setIsAtCapacity(Boolean.parseBoolean(settings[12]));
-                    }
-                } else {
-                    spawner.setSpawnerExpData(Integer.parseInt(settings[0]));
-                    spawner.setSpawnerActive(Boolean.parseBoolean(settings[1]));
-                    spawner.setSpawnerRange(Integer.parseInt(settings[2]));
-                    spawner.getSpawnerStop().set(Boolean.parseBoolean(settings[3]));
-                    spawner.setSpawnDelay(Integer.parseInt(settings[4]));
-                    spawner.setMaxSpawnerLootSlots(Integer.parseInt(settings[5]));
-                    spawner.setMaxStoredExp(Integer.parseInt(settings[6]));
-                    spawner.setMinMobs(Integer.parseInt(settings[7]));
-                    spawner.setMaxMobs(Integer.parseInt(settings[8]));
-                    spawner.setStackSize(Integer.parseInt(settings[9]));
-                    spawner.setLastSpawnTime(Long.parseLong(settings[10]));
-                    spawner.setIsAtCapacity(false);
-                }
-            } catch (NumberFormatException e) {
-                logger.severe("Invalid settings format for spawner " + spawnerId);
-                logger.severe("Settings: " + settingsString);
-                e.printStackTrace();
-                return null;
+        boolean complete = true;
+        for (Map.Entry<String, Long> entry : toUpdate.entrySet()) {
+            String id = entry.getKey();
+            // Spawners removed since the mark have nothing left to save
+            if (captured.contains(id) || plugin.getSpawnerManager().getSpawnerById(id) == null) {
+                dirtySpawners.remove(id, entry.getValue());
+            } else {
+                complete = false;
             }
         }
+        for (Map.Entry<String, Long> entry : toDelete.entrySet()) {
+            deletedSpawners.remove(entry.getKey(), entry.getValue());
+        }
+        for (Map.Entry<String, SpawnerRecord.Capture> entry : released.entrySet()) {
+            releasedSpawners.remove(entry.getKey(), entry.getValue());
+        }
+        saveIndex();
 
-        String filteredItemsStr = spawnerData.getString(path + ".filteredItems");
-        if (filteredItemsStr != null && !filteredItemsStr.isEmpty()) {
-            String[] materialNames = filteredItemsStr.split(",");
-            for (String materialName : materialNames) {
-                try {
-                    Material material = Material.valueOf(materialName.trim());
-                    spawner.getFilteredItems().add(material);
-                } catch (IllegalArgumentException e) {
-                    logger.warning("Invalid material in filtered items for spawner " + spawnerId + ": " + materialName);
-                }
-            }
+        // Keep the journal while a capture failed, it still holds that spawner's changes
+        if (journal != null && complete) {
+            journal.truncate(journalSegment);
         }
+    }
 
-        List<String> inventoryData = spawnerData.getStringList(path + ".inventory");
-        VirtualInventory virtualInv = new VirtualInventory(spawner.getMaxSpawnerLootSlots());
+    /**
+     * Loads the stored spawners of one world. Spawners that cannot be built are left out.
+     */
+    public Map<String, SpawnerData> loadWorldSpawners(String worldName) {
+        Map<String, SpawnerData> loadedSpawners = new HashMap<>();
 
-        if (inventoryData != null && !inventoryData.isEmpty()) {
+        for (Map.Entry<String, SpawnerRecord> entry : storage.loadWorld(worldName).entrySet()) {
+            String spawnerId = entry.getKey();
+            SpawnerRecord record = entry.getValue();
+            if (record == null) continue;
             try {
-                Map<ItemStack, Integer> items = ItemStackSerializer.deserializeInventory(inventoryData);
-                for (Map.Entry<ItemStack, Integer> entry : items.entrySet()) {
-                    ItemStack item = entry.getKey();
-                    int amount = entry.getValue();
-
-                    if (item != null && amount > 0) {
-                        while (amount > 0) {
-                            int batchSize = Math.min(amount, item.getMaxStackSize());
-                            ItemStack batch = item.clone();
-                            batch.setAmount(batchSize);
-                            virtualInv.addItems(Collections.singletonList(batch));
-                            amount -= batchSize;
-                        }
-                    }
+                SpawnerData spawner = record.toSpawnerData(plugin, true);
+                if (spawner != null) {
+                    loadedSpawners.put(spawnerId, spawner);
                 }
             } catch (Exception e) {
-                logger.warning("Error loading inventory for spawner " + spawnerId);
-                e.printStackTrace();
+                plugin.debug("Error loading spawner " + spawnerId + ": " + e.getMessage());
             }
         }
 
-        spawner.setVirtualInventory(virtualInv);
-        
-        // Recalculate accumulated sell value after loading inventory
-        spawner.recalculateSellValue();
-        
-        // Load last interacted player
-        String lastInteractedPlayer = spawnerData.getString(path + ".lastInteractedPlayer");
-        spawner.setLastInteractedPlayer(lastInteractedPlayer);
+        return loadedSpawners;
+    }
+
+    /**
+     * Gets the worlds that have stored spawners, without loading them
+     */
+    public Set<String> getStoredWorldNames() {
+        return storage.getWorldNames();
+    }
 
-        // Load preferred sort item
-        String preferredSortItemStr = spawnerData.getString(path + ".preferredSortItem");
-        if (preferredSortItemStr != null && !preferredSortItemStr.isEmpty()) {
-            try {
-                Material preferredSortItem = Material.valueOf(preferredSortItemStr);
-                spawner.setPreferredSortItem(preferredSortItem);
-                // Apply the sort preference to the virtual inventory
-                virtualInv.sortItems(preferredSortItem);
-            } catch (IllegalArgumentException e) {
-                logger.warning("Invalid preferred sort item for spawner " + spawnerId + ": " + preferredSortItemStr);
-            }
+    public SpawnerData loadSpecificSpawner(String spawnerId) {
+        try {
+            SpawnerRecord record = storage.load(spawnerId);
+            return record != null ? record.toSpawnerData(plugin, false) : null;
+        } catch (Exception e) {
+            plugin.debug("Error loading spawner " + spawnerId + ": " + e.getMessage());
+            return null;
         }
-        
-        return spawner;
     }
 
     public void queueSpawnerForSaving(String spawnerId) {
@@ -440,42 +515,43 @@ public class SpawnerFileHandler {
             saveTask.cancel();
             saveTask = null;
         }
+        if (journalTask != null) {
+            journalTask.cancel();
+            journalTask = null;
+        }
 
-        if (!dirtySpawners.isEmpty() || !deletedSpawners.isEmpty()) {
-            try {
-                isSaving = true;
-
-                if (!dirtySpawners.isEmpty()) {
-                    Map<String, SpawnerData> batch = new HashMap<>();
-                    for (String id : dirtySpawners) {
-                        SpawnerData spawner = plugin.getSpawnerManager().getSpawnerById(id);
-                        if (spawner != null) {
-                            batch.put(id, spawner);
-                        }
-                    }
-
-                    if (!batch.isEmpty()) {
-                        saveSpawnerBatch(batch);
-                    }
-                }
-
-                if (!deletedSpawners.isEmpty()) {
-                    for (String id : deletedSpawners) {
-                        String path = "spawners." + id;
-                        spawnerData.set(path, null);
-                    }
+        // Stops flushes that have not written yet, and waits for one that is writing
+        closed = true;
+        synchronized (writeLock) {
+            shutdownWrite();
+        }
+    }
 
-                    spawnerData.save(spawnerDataFile);
+    private void shutdownWrite() {
+        try {
+            // Region threads no longer run tasks, so capture on this thread
+            long journalSegment = journal != null ? journal.roll() : -1;
+            Map<String, Long> toUpdate = new HashMap<>(dirtySpawners);
+            Map<String, Long> toDelete = new HashMap<>(deletedSpawners);
+            Map<String, SpawnerRecord.Capture> captures = new HashMap<>(toUpdate.size());
+            for (String id : toUpdate.keySet()) {
+                SpawnerData spawner = plugin.getSpawnerManager().getSpawnerById(id);
+                if (spawner == null) continue;
+                try {
+                    captures.put(id, SpawnerRecord.snapshot(spawner));
+                } catch (Exception e) {
+                    plugin.debug("Could not capture spawner " + id + ": " + e.getMessage());
                 }
-
-                dirtySpawners.clear();
-                deletedSpawners.clear();
-            } catch (Exception e) {
-                logger.severe("Error during shutdown flush: " + e.getMessage());
-                e.printStackTrace();
-            } finally {
-                isSaving = false;
             }
+            writeSnapshots(captures, new HashMap<>(releasedSpawners), toUpdate, toDelete, journalSegment);
+        } catch (Exception e) {
+            logger.severe("Error during shutdown flush: " + e.getMessage());
+            e.printStackTrace();
+        } finally {
+            if (journal != null) {
+                journal.close();
+            }
+            storage.close();
         }
     }
 }
@@ -0,0 +1,160 @@
+package github.nighter.smartspawner.spawner.lootgen;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks the sampled distributions against the per-mob rolls they replace. Seeds are fixed,
+ * so the goodness-of-fit tests are deterministic.
+ */
+class LootSamplerTest {
+    private static final int SAMPLES = 200_000;
+    // Upper normal quantile for a 0.1% false failure rate
+    private static final double Z_CRITICAL = 3.09;
+
+    @Test
+    void edgeCasesAreExact() {
+        Random random = new Random(1);
+        assertEquals(0, LootSampler.sampleSuccesses(random, 0, 0.5));
+        assertEquals(0, LootSampler.sampleSuccesses(random, -3, 0.5));
+        assertEquals(0, LootSampler.sampleSuccesses(random, 1000, 0.0));
+        assertEquals(1000, LootSampler.sampleSuccesses(random, 1000, 1.0));
+        assertEquals(1000, LootSampler.sampleSuccesses(random, 1000, 1.5));
+    }
+
+    @Test
+    void inversionMatchesBinomial() {
+        assertMatchesBinomial(40, 0.1, 11);
+        assertMatchesBinomial(30, 0.3, 12);
+    }
+
+    @Test
+    void btrdMatchesBinomial() {
+        assertMatchesBinomial(1000, 0.25, 13);
+        assertMatchesBinomial(5000, 0.01, 14);
+    }
+
+    @Test
+    void upperHalfUsesSymmetry() {
+        assertMatchesBinomial(200, 0.9, 15);
+        assertMatchesBinomial(12, 0.75, 16);
+    }
+
+    @Test
+    void successesStayWithinTrials() {
+        Random random = new Random(2);
+        for (int i = 0; i < 10_000; i++) {
+            int trials = 1 + random.nextInt(100_000);
+            int successes = LootSampler.sampleSuccesses(random, trials, random.nextDouble());
+            assertTrue(successes >= 0 && successes <= trials, "successes out of range: " + successes);
+        }
+    }
+
+    @Test
+    void totalAmountMatchesRolledAmounts() {
+        // Exact path: the same distribution as rolling each drop
+        assertTotalAmountMoments(8, 1, 3, 21);
+        // Normal approximation: mean and variance of the uniform sum
+        assertTotalAmountMoments(500, 0, 2, 22);
+        assertTotalAmountMoments(10_000, 1, 5, 23);
+    }
+
+    @Test
+    void totalAmountStaysWithinBounds() {
+        Random random = new Random(3);
+        assertEquals(0, LootSampler.sampleTotalAmount(random, 0, 1, 5));
+        assertEquals(28, LootSampler.sampleTotalAmount(random, 7, 4, 4));
+        for (int i = 0; i < 10_000; i++) {
+            int drops = 1 + random.nextInt(50);
+            long total = LootSampler.sampleTotalAmount(random, drops, 1, 3);
+            assertTrue(total >= drops && total <= 3L * drops, "total out of range: " + total);
+        }
+    }
+
+    private static void assertMatchesBinomial(int trials, double probability, long seed) {
+        Random random = new Random(seed);
+        long[] observed = new long[trials + 1];
+        for (int i = 0; i < SAMPLES; i++) {
+            observed[LootSampler.sampleSuccesses(random, trials, probability)]++;
+        }
+
+        double[] pmf = binomialPmf(trials, probability);
+        double[] tail = new double[trials + 2];
+        for (int k = trials; k >= 0; k--) {
+            tail[k] = tail[k + 1] + pmf[k];
+        }
+
+        // Pearson chi-square over the exact pmf, merging sparse cells into their neighbours
+        double chiSquare = 0;
+        int degrees = -1;
+        double expectedBin = 0;
+        long observedBin = 0;
+        for (int k = 0; k <= trials; k++) {
+            expectedBin += SAMPLES * pmf[k];
+            observedBin += observed[k];
+            if (expectedBin >= 5 && SAMPLES * tail[k + 1] >= 5) {
+                chiSquare += square(observedBin - expectedBin) / expectedBin;
+                degrees++;
+                expectedBin = 0;
+                observedBin = 0;
+            }
+        }
+        if (expectedBin > 0) {
+            chiSquare += square(observedBin - expectedBin) / expectedBin;
+            degrees++;
+        }
+
+        double critical = chiSquareCritical(Math.max(1, degrees));
+        assertTrue(chiSquare < critical, String.format(
+                "B(%d, %.2f): chi-square %.1f exceeds %.1f with %d degrees of freedom",
+                trials, probability, chiSquare, critical, degrees));
+    }
+
+    private static void assertTotalAmountMoments(int drops, int minAmount, int maxAmount, long seed) {
+        Random random = new Random(seed);
+        int samples = 50_000;
+        double sum = 0;
+        double sumSquares = 0;
+        for (int i = 0; i < samples; i++) {
+            double total = LootSampler.sampleTotalAmount(random, drops, minAmount, maxAmount);
+            sum += total;
+            sumSquares += total * total;
+        }
+        double mean = sum / samples;
+        double variance = sumSquares / samples - mean * mean;
+
+        int width = maxAmount - minAmount + 1;
+        double expectedMean = drops * (minAmount + maxAmount) / 2.0;
+        double expectedVariance = drops * ((double) width * width - 1.0) / 12.0;
+
+        double meanError = Z_CRITICAL * Math.sqrt(expectedVariance / samples);
+        assertEquals(expectedMean, mean, meanError, "mean of " + drops + " drops");
+        assertEquals(expectedVariance, variance, expectedVariance * 0.05, "variance of " + drops + " drops");
+    }
+
+    private static double[] binomialPmf(int n, double p) {
+        double[] pmf = new double[n + 1];
+        // log C(n, k) built up incrementally
+        double logChoose = 0;
+        for (int k = 0; k <= n; k++) {
+            if (k > 0) {
+                logChoose += Math.log(n - k + 1) - Math.log(k);
+            }
+            pmf[k] = Math.exp(logChoose + k * Math.log(p) + (n - k) * Math.log1p(-p));
+        }
+        return pmf;
+    }
+
+    // Wilson-Hilferty approximation of the chi-square quantile
+    private static double chiSquareCritical(int degrees) {
+        double h = 2.0 / (9.0 * degrees);
+        return degrees * Math.pow(1 - h + Z_CRITICAL * Math.sqrt(h), 3);
+    }
+
+    private static double square(double value) {
+        return value * value;
+    }
+}
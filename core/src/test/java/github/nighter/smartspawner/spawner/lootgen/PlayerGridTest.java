@@ -0,0 +1,118 @@
+package github.nighter.smartspawner.spawner.lootgen;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compares the grid against the all-pairs distance check it replaced in RangeMath
+ */
+class PlayerGridTest {
+    private static final UUID OVERWORLD = new UUID(0, 1);
+    private static final UUID NETHER = new UUID(0, 2);
+
+    private record Player(UUID world, double x, double y, double z) {
+    }
+
+    @Test
+    void emptyGridCountsNothing() {
+        PlayerGrid grid = new PlayerGrid();
+        assertTrue(grid.isEmpty());
+        assertEquals(0, grid.countWithin(OVERWORLD, 0, 64, 0, 16));
+    }
+
+    @Test
+    void rangeIsInclusiveAcrossCellBorders() {
+        PlayerGrid grid = new PlayerGrid();
+        // Exactly 16 blocks away, in the neighbouring cell
+        grid.add(OVERWORLD, 16.0, 64.0, 0.0);
+        grid.add(OVERWORLD, -0.5, 64.0, -0.5);
+
+        assertEquals(2, grid.countWithin(OVERWORLD, 0.0, 64.0, 0.0, 16));
+        assertEquals(1, grid.countWithin(OVERWORLD, 0.0, 64.0, 0.0, 15.99));
+        assertEquals(0, grid.countWithin(NETHER, 0.0, 64.0, 0.0, 16));
+    }
+
+    @Test
+    void matchesBruteForce() {
+        Random random = new Random(7);
+        List<Player> players = new ArrayList<>();
+        PlayerGrid grid = new PlayerGrid();
+        for (int i = 0; i < 300; i++) {
+            UUID world = random.nextInt(4) == 0 ? NETHER : OVERWORLD;
+            // Clustered around spawn with some far away, including negative coordinates
+            double spread = random.nextBoolean() ? 64 : 5000;
+            Player player = new Player(world, (random.nextDouble() - 0.5) * spread,
+                    random.nextInt(320) - 64 + random.nextDouble(), (random.nextDouble() - 0.5) * spread);
+            players.add(player);
+            grid.add(player.world(), player.x(), player.y(), player.z());
+        }
+        assertEquals(players.size(), grid.size());
+
+        for (int i = 0; i < 5000; i++) {
+            UUID world = random.nextBoolean() ? NETHER : OVERWORLD;
+            double x = (random.nextDouble() - 0.5) * 200;
+            double y = random.nextInt(320) - 64;
+            double z = (random.nextDouble() - 0.5) * 200;
+            // Mostly normal spawner ranges, sometimes large enough to scan every occupied cell
+            double range = random.nextInt(10) == 0 ? 3000 + random.nextInt(3000) : random.nextInt(64);
+
+            assertEquals(bruteForce(players, world, x, y, z, range), grid.countWithin(world, x, y, z, range),
+                    "count around " + x + "," + y + "," + z + " with range " + range);
+        }
+    }
+
+    @Test
+    void packedColumnsMatchSingleQueries() {
+        Random random = new Random(11);
+        PlayerGrid grid = new PlayerGrid();
+        for (int i = 0; i < 100; i++) {
+            grid.add(OVERWORLD, random.nextInt(256) - 128 + 0.5, 64.0, random.nextInt(256) - 128 + 0.5);
+        }
+
+        int size = 1000;
+        int[] xs = new int[size];
+        int[] ys = new int[size];
+        int[] zs = new int[size];
+        int[] ranges = new int[size];
+        for (int i = 0; i < size; i++) {
+            xs[i] = random.nextInt(256) - 128;
+            ys[i] = 60 + random.nextInt(8);
+            zs[i] = random.nextInt(256) - 128;
+            ranges[i] = random.nextInt(48);
+        }
+
+        int[] out = new int[size];
+        // Only the requested slice is written
+        out[0] = -1;
+        grid.countWithin(OVERWORLD, xs, ys, zs, ranges, 1, size, out);
+        assertEquals(-1, out[0]);
+        for (int i = 1; i < size; i++) {
+            assertEquals(grid.countWithin(OVERWORLD, xs[i], ys[i], zs[i], ranges[i]), out[i]);
+        }
+
+        grid.countWithin(NETHER, xs, ys, zs, ranges, 0, size, out);
+        for (int count : out) {
+            assertEquals(0, count);
+        }
+    }
+
+    private static int bruteForce(List<Player> players, UUID world, double x, double y, double z, double range) {
+        int count = 0;
+        for (Player player : players) {
+            if (!player.world().equals(world)) continue;
+            double dx = player.x() - x;
+            double dy = player.y() - y;
+            double dz = player.z() - z;
+            if (dx * dx + dy * dy + dz * dz <= range * range) {
+                count++;
+            }
+        }
+        return count;
+    }
+}